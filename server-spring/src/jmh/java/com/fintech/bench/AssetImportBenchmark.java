@@ -0,0 +1,174 @@
+package com.fintech.bench;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk asset import at the JDBC level: what Hibernate does for {@code saveAll} with IDENTITY ids
+ * (one insert and generated-key read per row, optionally one transaction per row) against the
+ * batched {@code INSERT ... ON DUPLICATE KEY UPDATE} used by {@code AssetRepositoryImpl.upsertAll}.
+ *
+ * <p>Defaults to an in-memory H2 database in MySQL mode served over loopback TCP, so every
+ * statement pays a real (if short) round trip as it would against MySQL; an embedded H2 has no
+ * round trips and hides the difference. For production-like numbers point
+ * {@code -Dbench.jdbc.url} at a scratch MySQL schema with
+ * {@code ?rewriteBatchedStatements=true&cachePrepStmts=true&useServerPrepStmts=true}; the
+ * benchmark creates and drops its own {@code bench_assets} table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetImportBenchmark {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO bench_assets (user_id, type, symbol, name, quantity, avg_buy_price, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SQL = INSERT_SQL
+            + " ON DUPLICATE KEY UPDATE name = VALUES(name), quantity = VALUES(quantity), "
+            + "avg_buy_price = VALUES(avg_buy_price), updated_at = VALUES(updated_at)";
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"50"})
+    public int batchSize;
+
+    private Connection connection;
+    private Server h2Server;
+    private long nextUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url");
+        if (url == null) {
+            h2Server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + h2Server.getPort() + "/mem:assets;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        }
+        connection = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_assets");
+            st.execute("CREATE TABLE bench_assets ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "user_id BIGINT NOT NULL, "
+                    + "type VARCHAR(32) NOT NULL, "
+                    + "symbol VARCHAR(255) NOT NULL, "
+                    + "name VARCHAR(255) NOT NULL, "
+                    + "quantity DECIMAL(18,8) NOT NULL, "
+                    + "avg_buy_price DECIMAL(18,8) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL, "
+                    + "updated_at TIMESTAMP, "
+                    + "UNIQUE (user_id, symbol))");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("TRUNCATE TABLE bench_assets");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_assets");
+        }
+        connection.close();
+        if (h2Server != null) h2Server.stop();
+    }
+
+    // ---------------------- Before: per-row IDENTITY inserts ----------------------
+
+    // Repository save() per row outside a surrounding transaction
+    @Benchmark
+    public long perRowAutoCommit() throws SQLException {
+        long userId = ++nextUserId;
+        long last = 0;
+        connection.setAutoCommit(true);
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bind(ps, userId, i);
+                ps.executeUpdate();
+                last = generatedKey(ps);
+            }
+        }
+        return last;
+    }
+
+    // saveAll() in one transaction: still one round trip per row because of IDENTITY
+    @Benchmark
+    public long perRowSingleTransaction() throws SQLException {
+        long userId = ++nextUserId;
+        long last = 0;
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bind(ps, userId, i);
+                ps.executeUpdate();
+                last = generatedKey(ps);
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return last;
+    }
+
+    // ---------------------- After: batched native upsert ----------------------
+
+    @Benchmark
+    public int batchedUpsert() throws SQLException {
+        long userId = ++nextUserId;
+        int written = 0;
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(UPSERT_SQL)) {
+            for (int i = 0; i < rows; i++) {
+                bind(ps, userId, i);
+                ps.addBatch();
+                if ((i + 1) % batchSize == 0) written += ps.executeBatch().length;
+            }
+            written += ps.executeBatch().length;
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return written;
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private static void bind(PreparedStatement ps, long userId, int i) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ps.setLong(1, userId);
+        ps.setString(2, "stock");
+        ps.setString(3, "SYM" + i + ".NS");
+        ps.setString(4, "Company " + i);
+        ps.setBigDecimal(5, BigDecimal.valueOf(10 + i % 90));
+        ps.setBigDecimal(6, new BigDecimal("1234.50"));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+    }
+
+    private static long generatedKey(PreparedStatement ps) throws SQLException {
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            return keys.next() ? keys.getLong(1) : 0;
+        }
+    }
+}
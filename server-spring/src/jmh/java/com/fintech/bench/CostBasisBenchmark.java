@@ -0,0 +1,109 @@
+package com.fintech.bench;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.AssetTransaction;
+import com.fintech.entity.TaxLot;
+import com.fintech.service.CostBasisEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping a position current: applying one trade to the running aggregate and its open
+ * lots (what {@code LedgerService} does per request) against rebuilding the position by replaying
+ * a 10k-trade history through the same engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CostBasisBenchmark {
+
+    @Param({"10000"})
+    public int transactions;
+
+    @Param({"FIFO", "AVERAGE"})
+    public Asset.CostBasisMethod method;
+
+    private List<AssetTransaction> history;
+    private Asset position;
+    private List<TaxLot> openLots;
+    private AssetTransaction nextBuy;
+    private AssetTransaction nextSell;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDate day = LocalDate.of(2015, 1, 1);
+        history = new ArrayList<>(transactions);
+        BigDecimal held = BigDecimal.ZERO;
+        for (int i = 0; i < transactions; i++) {
+            boolean buy = held.signum() == 0 || random.nextInt(10) < 6;
+            BigDecimal qty = BigDecimal.valueOf(1 + random.nextInt(50));
+            if (!buy) qty = qty.min(held);
+            held = buy ? held.add(qty) : held.subtract(qty);
+            history.add(trade(buy, qty, BigDecimal.valueOf(100 + random.nextInt(400)), day.plusDays(i / 4)));
+        }
+
+        position = newPosition();
+        openLots = new ArrayList<>();
+        replayInto(position, openLots);
+        nextBuy = trade(true, BigDecimal.TEN, BigDecimal.valueOf(250), day.plusDays(transactions));
+        nextSell = trade(false, BigDecimal.TEN, BigDecimal.valueOf(260), day.plusDays(transactions));
+        System.out.printf("%n%d trades leave %d open lots%n", transactions, openLots.size());
+    }
+
+    // A buy and a sell of the same size, so the open-lot count stays put across invocations
+    @Benchmark
+    public Asset incrementalTrade() {
+        openLots.add(CostBasisEngine.buy(position, nextBuy));
+        CostBasisEngine.sell(position, openLots, nextSell, null);
+        openLots.removeIf(lot -> !lot.isOpen());
+        return position;
+    }
+
+    @Benchmark
+    public Asset replayHistory() {
+        Asset rebuilt = newPosition();
+        replayInto(rebuilt, new ArrayList<>());
+        return rebuilt;
+    }
+
+    private void replayInto(Asset target, List<TaxLot> lots) {
+        for (AssetTransaction tx : history) {
+            if (tx.getSide() == AssetTransaction.Side.BUY) {
+                lots.add(CostBasisEngine.buy(target, tx));
+            } else {
+                CostBasisEngine.sell(target, lots, tx, null);
+                lots.removeIf(lot -> !lot.isOpen());
+            }
+        }
+    }
+
+    private Asset newPosition() {
+        Asset a = new Asset();
+        a.setType(Asset.AssetType.stock);
+        a.setSymbol("BENCH.NS");
+        a.setQuantity(BigDecimal.ZERO);
+        a.setAvgBuyPrice(BigDecimal.ZERO);
+        a.setCostBasisMethod(method);
+        return a;
+    }
+
+    private static AssetTransaction trade(boolean buy, BigDecimal qty, BigDecimal price, LocalDate date) {
+        AssetTransaction tx = new AssetTransaction();
+        tx.setSide(buy ? AssetTransaction.Side.BUY : AssetTransaction.Side.SELL);
+        tx.setSymbol("BENCH.NS");
+        tx.setQuantity(qty);
+        tx.setPrice(price);
+        tx.setTradeDate(date);
+        return tx;
+    }
+}
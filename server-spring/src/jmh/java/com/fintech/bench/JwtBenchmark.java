@@ -0,0 +1,61 @@
+package com.fintech.bench;
+
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling: every authenticated call goes through
+ * {@code JwtUtils.getUserFromToken} (the filter and again in the controller).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String bearerToken;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] secret = new byte[64];
+        new Random(42).nextBytes(secret);
+
+        jwtUtils = new JwtUtils();
+        setField(jwtUtils, "jwtSecret", Base64.getEncoder().encodeToString(secret));
+        setField(jwtUtils, "jwtExpiresIn", "7d");
+
+        user = new User();
+        user.setId(12345L);
+        user.setEmail("investor@example.com");
+        user.setName("Bench Investor");
+        bearerToken = "Bearer " + jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<User> getUserFromToken() {
+        return jwtUtils.getUserFromToken(bearerToken);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(user);
+    }
+
+    // JwtUtils is configured through @Value fields
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+}
@@ -0,0 +1,177 @@
+package com.fintech.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database side of login and registration: the full {@code User} row the old code loaded
+ * (including the LONGTEXT avatar) versus the credentials projection and the existence check.
+ * BCrypt itself is left out; it costs the same on both paths.
+ *
+ * <p>Defaults to an in-memory H2 database in MySQL mode. Point {@code -Dbench.jdbc.url}
+ * (plus {@code bench.jdbc.user}/{@code bench.jdbc.password}) at a scratch MySQL schema for
+ * production-like numbers; the benchmark creates and drops its own {@code bench_users} table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginPathBenchmark {
+
+    private static final String FULL_ROW_SQL =
+            "SELECT id, email, password_hash, name, avatar_url, created_at, password_reset_token, password_reset_expiry "
+                    + "FROM bench_users WHERE email = ?";
+    private static final String CREDENTIALS_SQL =
+            "SELECT id, email, name, password_hash FROM bench_users WHERE email = ?";
+    private static final String EXISTS_SQL =
+            "SELECT 1 FROM bench_users WHERE email = ? LIMIT 1";
+
+    // A real cost-10 BCrypt hash, so row width matches production
+    private static final String SAMPLE_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoO5rQhY1wEoW1m5b8l4bY9Gk6C1dSxXWa";
+
+    @Param({"5000"})
+    public int users;
+
+    // Base64 avatars as stored by /api/user/profile; roughly one in three users has one
+    @Param({"0", "64"})
+    public int avatarKb;
+
+    private Connection connection;
+    private PreparedStatement fullRow;
+    private PreparedStatement credentials;
+    private PreparedStatement exists;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:h2:mem:login;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        connection = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_users");
+            st.execute("CREATE TABLE bench_users ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "email VARCHAR(255) NOT NULL UNIQUE, "
+                    + "password_hash VARCHAR(255) NOT NULL, "
+                    + "name VARCHAR(255), "
+                    + "avatar_url LONGTEXT, "
+                    + "created_at TIMESTAMP NOT NULL, "
+                    + "password_reset_token VARCHAR(255) UNIQUE, "
+                    + "password_reset_expiry TIMESTAMP)");
+        }
+
+        String avatar = avatarKb > 0 ? "data:image/png;base64," + randomBase64(avatarKb * 1024) : null;
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_users (email, password_hash, name, avatar_url, created_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)")) {
+            for (int i = 0; i < users; i++) {
+                insert.setString(1, email(i));
+                insert.setString(2, SAMPLE_HASH);
+                insert.setString(3, "User " + i);
+                insert.setString(4, i % 3 == 0 ? avatar : null);
+                insert.addBatch();
+                if (i % 500 == 499) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        fullRow = connection.prepareStatement(FULL_ROW_SQL);
+        credentials = connection.prepareStatement(CREDENTIALS_SQL);
+        exists = connection.prepareStatement(EXISTS_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_users");
+        }
+        connection.close();
+    }
+
+    // ---------------------- Login ----------------------
+
+    @Benchmark
+    public void loginFullEntity(Blackhole bh) throws SQLException {
+        fullRow.setString(1, randomUserEmail());
+        try (ResultSet rs = fullRow.executeQuery()) {
+            if (rs.next()) {
+                bh.consume(rs.getLong(1));
+                bh.consume(rs.getString(2));
+                bh.consume(rs.getString(3));
+                bh.consume(rs.getString(4));
+                bh.consume(rs.getString(5));
+                bh.consume(rs.getTimestamp(6));
+                bh.consume(rs.getString(7));
+                bh.consume(rs.getTimestamp(8));
+            }
+        }
+    }
+
+    @Benchmark
+    public void loginCredentialsProjection(Blackhole bh) throws SQLException {
+        credentials.setString(1, randomUserEmail());
+        try (ResultSet rs = credentials.executeQuery()) {
+            if (rs.next()) {
+                bh.consume(rs.getLong(1));
+                bh.consume(rs.getString(2));
+                bh.consume(rs.getString(3));
+                bh.consume(rs.getString(4));
+            }
+        }
+    }
+
+    // ---------------------- Registration duplicate check ----------------------
+
+    @Benchmark
+    public boolean registerCheckFullEntity() throws SQLException {
+        fullRow.setString(1, randomUserEmail());
+        try (ResultSet rs = fullRow.executeQuery()) {
+            boolean found = rs.next();
+            if (found) rs.getString(5);
+            return found;
+        }
+    }
+
+    @Benchmark
+    public boolean registerCheckExists() throws SQLException {
+        exists.setString(1, randomUserEmail());
+        try (ResultSet rs = exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private String randomUserEmail() {
+        return email(ThreadLocalRandom.current().nextInt(users));
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    private static String randomBase64(int length) {
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.fintech.bench;
+
+import com.fintech.dto.AssetDto;
+import com.fintech.dto.PortfolioSummaryDto;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.service.FxRateService;
+import com.fintech.service.PortfolioValuationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of {@code GET /api/portfolio/summary} and {@code GET /api/assets}: valuation and
+ * allocation over already-fetched prices, and entity-to-DTO mapping including the tags.
+ * Prices are fixed maps and FX rates the static table, so the numbers exclude upstream latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioValuationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int holdings;
+
+    private List<Asset> assets;
+    private Map<String, BigDecimal> stockPrices;
+    private Map<String, BigDecimal> cryptoPrices;
+    private PortfolioValuationService valuationService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        User user = new User();
+        user.setId(1L);
+
+        assets = new ArrayList<>(holdings);
+        stockPrices = new HashMap<>();
+        cryptoPrices = new HashMap<>();
+        for (int i = 0; i < holdings; i++) {
+            Asset a = new Asset();
+            a.setId((long) i);
+            a.setUser(user);
+            // Roughly the mix seen in real portfolios: mostly equities, some funds and crypto
+            Asset.AssetType type = i % 10 == 0 ? Asset.AssetType.crypto : (i % 4 == 0 ? Asset.AssetType.mutual : Asset.AssetType.stock);
+            a.setType(type);
+            // and a few US listings, which go through FX conversion
+            a.setSymbol(type == Asset.AssetType.crypto ? "coin-" + i : (i % 7 == 0 ? "SYM" + i : "SYM" + i + ".NS"));
+            a.setName("Holding " + i);
+            a.setQuantity(BigDecimal.valueOf(1 + random.nextInt(500)));
+            a.setAvgBuyPrice(BigDecimal.valueOf(50 + random.nextDouble() * 3000));
+            a.setSector(i % 3 == 0 ? "Financials" : "Technology");
+            a.setTags(i % 2 == 0 ? List.of("long-term", "core") : List.of());
+            a.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 15));
+            a.setUpdatedAt(LocalDateTime.of(2025, 6, 1, 9, 15));
+            assets.add(a);
+
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextDouble() * 3500);
+            if (type == Asset.AssetType.crypto) cryptoPrices.put(a.getSymbol().toUpperCase(), price);
+            else stockPrices.put(a.getSymbol().toUpperCase(), price);
+        }
+
+        valuationService = new PortfolioValuationService(null, new FxRateService());
+    }
+
+    @Benchmark
+    public PortfolioSummaryDto portfolioSummary() {
+        return valuationService.summarize(assets, stockPrices, cryptoPrices);
+    }
+
+    @Benchmark
+    public void assetDtos(Blackhole bh) {
+        for (Asset a : assets) {
+            bh.consume(AssetDto.fromEntity(a));
+        }
+    }
+}
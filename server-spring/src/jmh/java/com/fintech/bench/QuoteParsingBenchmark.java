@@ -0,0 +1,61 @@
+package com.fintech.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.service.AssetService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a 50-symbol Yahoo {@code /v7/finance/quote} payload (src/jmh/resources/fixtures), the
+ * shape every price refresh and portfolio summary goes through. The Jackson variant is the
+ * baseline for moving off org.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteParsingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String yahooQuotes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        yahooQuotes = fixture("fixtures/yahoo-quote-50.json");
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> yahooOrgJson() {
+        return AssetService.parseQuotePrices(yahooQuotes);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> yahooJacksonTree() throws IOException {
+        Map<String, BigDecimal> map = new HashMap<>();
+        JsonNode result = objectMapper.readTree(yahooQuotes).path("quoteResponse").path("result");
+        for (JsonNode quote : result) {
+            JsonNode price = quote.get("regularMarketPrice");
+            if (price != null && quote.has("symbol")) {
+                map.put(quote.get("symbol").asText().toUpperCase(), price.decimalValue());
+            }
+        }
+        return map;
+    }
+
+    static String fixture(String path) throws IOException {
+        try (InputStream in = QuoteParsingBenchmark.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) throw new IOException("Missing fixture " + path);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.fintech.bench;
+
+import com.fintech.ratelimit.EmbeddedSharedCounterBackend;
+import com.fintech.ratelimit.InMemoryRateLimitStore;
+import com.fintech.ratelimit.LeasingRateLimitStore;
+import com.fintech.ratelimit.RateLimitStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request check {@code RateLimitFilter.allow} delegates to, under contention from
+ * several request threads spread over a pool of client IPs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimitBenchmark {
+
+    private static final long WINDOW_MS = 60_000L;
+
+    @Param({"memory", "leasing"})
+    public String store;
+
+    // 120 is the general per-IP limit (mostly rejections once warm); the large value keeps every call admitted
+    @Param({"120", "100000000"})
+    public int maxPerWindow;
+
+    @Param({"1024"})
+    public int clients;
+
+    private RateLimitStore rateLimitStore;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rateLimitStore = "leasing".equals(store)
+                ? new LeasingRateLimitStore(new EmbeddedSharedCounterBackend(), 20)
+                : new InMemoryRateLimitStore();
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "general:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        return rateLimitStore.tryAcquire(key, maxPerWindow, WINDOW_MS);
+    }
+}
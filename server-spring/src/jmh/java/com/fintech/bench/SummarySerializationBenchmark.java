@@ -0,0 +1,162 @@
+package com.fintech.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fintech.dto.AllocationSliceDto;
+import com.fintech.dto.FieldProjection;
+import com.fintech.dto.HoldingValueDto;
+import com.fintech.dto.PortfolioSummaryDto;
+import com.fintech.entity.Asset;
+import com.fintech.service.FxRateService;
+import com.fintech.service.PortfolioValuationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writing the {@code GET /api/portfolio/summary} body for a 500-holding portfolio: the old
+ * HashMap shape against the typed records, with and without Blackbird, with a mobile-style
+ * {@code fields=} projection, and the cost of gzip on top. Payload sizes (raw and gzipped) are
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SummarySerializationBenchmark {
+
+    // What a phone renders: a ticker list with values and the allocation ring
+    static final String MOBILE_FIELDS = "items.symbol,items.marketValue,items.returnPct,allocation.symbol,allocation.weight";
+
+    @Param({"500"})
+    public int holdings;
+
+    private Map<String, Object> legacySummary;
+    private PortfolioSummaryDto summary;
+    private ObjectWriter reflective;
+    private ObjectWriter blackbird;
+    private ObjectWriter projected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<Asset> assets = new ArrayList<>(holdings);
+        Map<String, BigDecimal> stockPrices = new HashMap<>();
+        Map<String, BigDecimal> cryptoPrices = new HashMap<>();
+        for (int i = 0; i < holdings; i++) {
+            Asset a = new Asset();
+            a.setId((long) i);
+            Asset.AssetType type = i % 10 == 0 ? Asset.AssetType.crypto : Asset.AssetType.stock;
+            a.setType(type);
+            a.setSymbol(type == Asset.AssetType.crypto ? "coin-" + i : "SYM" + i + ".NS");
+            a.setName("Holding " + i + " Limited");
+            a.setQuantity(BigDecimal.valueOf(1 + random.nextInt(500)));
+            a.setAvgBuyPrice(BigDecimal.valueOf(50 + random.nextDouble() * 3000));
+            assets.add(a);
+
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextDouble() * 3500);
+            if (type == Asset.AssetType.crypto) cryptoPrices.put(a.getSymbol().toUpperCase(), price);
+            else stockPrices.put(a.getSymbol().toUpperCase(), price);
+        }
+
+        summary = new PortfolioValuationService(null, new FxRateService()).summarize(assets, stockPrices, cryptoPrices);
+        legacySummary = legacyShape(summary);
+
+        FilterProvider lenient = new SimpleFilterProvider().setFailOnUnknownId(false);
+        reflective = new ObjectMapper().writer(lenient);
+        ObjectMapper withBlackbird = new ObjectMapper().registerModule(new BlackbirdModule());
+        blackbird = withBlackbird.writer(lenient);
+        projected = withBlackbird.writer(FieldProjection.apply(summary, MOBILE_FIELDS).getFilters());
+
+        System.out.printf("%nbytes for %d holdings (raw / gzip)%n", holdings);
+        printSize("legacy maps", reflective.writeValueAsBytes(legacySummary));
+        printSize("records", blackbird.writeValueAsBytes(summary));
+        printSize("records, fields=", projected.writeValueAsBytes(summary));
+    }
+
+    @Benchmark
+    public byte[] legacyMaps() throws IOException {
+        return reflective.writeValueAsBytes(legacySummary);
+    }
+
+    @Benchmark
+    public byte[] recordsReflective() throws IOException {
+        return reflective.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] recordsBlackbird() throws IOException {
+        return blackbird.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] recordsProjected() throws IOException {
+        return projected.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] recordsBlackbirdGzip() throws IOException {
+        return gzip(blackbird.writeValueAsBytes(summary));
+    }
+
+    @Benchmark
+    public byte[] recordsProjectedGzip() throws IOException {
+        return gzip(projected.writeValueAsBytes(summary));
+    }
+
+    // The HashMap-per-holding body the endpoint returned before the typed records
+    private static Map<String, Object> legacyShape(PortfolioSummaryDto dto) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (HoldingValueDto h : dto.items()) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", h.id());
+            m.put("type", h.type());
+            m.put("name", h.name());
+            m.put("symbol", h.symbol());
+            m.put("quantity", h.quantity());
+            m.put("avgBuyPrice", h.avgBuyPrice());
+            m.put("currency", h.currency());
+            m.put("lastPriceINR", h.lastPriceINR());
+            m.put("marketValue", h.marketValue());
+            m.put("pnl", h.pnl());
+            m.put("returnPct", h.returnPct());
+            items.add(m);
+        }
+        List<Map<String, Object>> allocation = new ArrayList<>();
+        for (AllocationSliceDto s : dto.allocation()) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("name", s.name());
+            m.put("symbol", s.symbol());
+            m.put("value", s.value());
+            m.put("weight", s.weight());
+            allocation.add(m);
+        }
+        return Map.of("allocation", allocation, "items", items);
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        }
+        return out.toByteArray();
+    }
+
+    private static void printSize(String label, byte[] raw) throws IOException {
+        System.out.printf("  %-18s %8d / %7d%n", label, raw.length, gzip(raw).length);
+    }
+}
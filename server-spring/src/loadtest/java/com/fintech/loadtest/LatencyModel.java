@@ -0,0 +1,73 @@
+package com.fintech.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response-time distribution for one stubbed provider, parsed from a spec string:
+ * <ul>
+ *   <li>{@code none} - answer immediately</li>
+ *   <li>{@code fixed:50} - always 50 ms</li>
+ *   <li>{@code uniform:20:200} - uniformly between 20 and 200 ms</li>
+ *   <li>{@code lognormal:80:600} - median 80 ms, p99 600 ms (the long tail real quote APIs show)</li>
+ * </ul>
+ */
+public abstract class LatencyModel {
+
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_99 = 2.3263;
+
+    public abstract long sampleMillis();
+
+    public abstract String describe();
+
+    public static LatencyModel parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        switch (parts[0]) {
+            case "none":
+                return fixed(0);
+            case "fixed":
+                requireArgs(spec, parts, 1);
+                return fixed(Long.parseLong(parts[1]));
+            case "uniform":
+                requireArgs(spec, parts, 2);
+                return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            case "lognormal":
+                requireArgs(spec, parts, 2);
+                return logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default:
+                throw new IllegalArgumentException("Unknown latency model '" + spec + "'");
+        }
+    }
+
+    public static LatencyModel fixed(long millis) {
+        return new LatencyModel() {
+            @Override public long sampleMillis() { return millis; }
+            @Override public String describe() { return millis == 0 ? "none" : "fixed " + millis + "ms"; }
+        };
+    }
+
+    public static LatencyModel uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) throw new IllegalArgumentException("uniform max below min");
+        return new LatencyModel() {
+            @Override public long sampleMillis() { return ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1); }
+            @Override public String describe() { return "uniform " + minMillis + "-" + maxMillis + "ms"; }
+        };
+    }
+
+    public static LatencyModel logNormal(double medianMillis, double p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) throw new IllegalArgumentException("lognormal needs 0 < median <= p99");
+        double mu = Math.log(medianMillis);
+        double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        return new LatencyModel() {
+            @Override public long sampleMillis() {
+                return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+            }
+            @Override public String describe() { return "lognormal median " + medianMillis + "ms, p99 " + p99Millis + "ms"; }
+        };
+    }
+
+    private static void requireArgs(String spec, String[] parts, int n) {
+        if (parts.length != n + 1) throw new IllegalArgumentException("Latency model '" + spec + "' needs " + n + " argument(s)");
+    }
+}
@@ -0,0 +1,62 @@
+package com.fintech.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Raw latency samples for one step of the scenario. Runs are minutes long, so keeping every
+ * sample and sorting once at the end is cheap and gives exact percentiles.
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[4096];
+    private int count;
+    private long failures;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos, boolean success) {
+        if (!success) {
+            failures++;
+            return;
+        }
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = nanos;
+    }
+
+    synchronized Summary summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(name, count, failures, count / elapsedSeconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.90),
+                percentileMillis(sorted, 0.99), count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1e6;
+    }
+
+    record Summary(String step, long ok, long failed, double throughput, double p50, double p90, double p99, double max) {
+
+        static String header() {
+            return String.format(Locale.ROOT, "%-18s %9s %7s %9s %9s %9s %9s %9s",
+                    "step", "ok", "failed", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        }
+
+        String row() {
+            return String.format(Locale.ROOT, "%-18s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    step, ok, failed, throughput, p50, p90, p99, max);
+        }
+
+        String json() {
+            return String.format(Locale.ROOT,
+                    "{\"step\":\"%s\",\"ok\":%d,\"failed\":%d,\"throughput\":%.2f,\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f}",
+                    step, ok, failed, throughput, p50, p90, p99, max);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.fintech.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load scenario against a running app: each virtual user repeatedly logs in, loads the
+ * portfolio summary, searches, and lists/adds/removes a watchlist entry. Prints p50/p90/p99 and
+ * throughput per step once the warm-up is over, and writes the same numbers as JSON.
+ *
+ * <pre>
+ *   -Dloadtest.base-url=http://localhost:4000
+ *   -Dloadtest.users=32               concurrent virtual users (one thread each)
+ *   -Dloadtest.warmup-seconds=15      not measured
+ *   -Dloadtest.duration-seconds=60    measured
+ *   -Dloadtest.holdings=30            holdings imported per user before the run
+ *   -Dloadtest.think-ms=0             pause between iterations
+ *   -Dloadtest.relogin-every=1        log in every N iterations; 0 logs in once (dashboard-only load)
+ *   -Dloadtest.stub-url=http://localhost:8089   stub stats are printed when set
+ *   -Dloadtest.result-file=target/loadtest-result.json
+ * </pre>
+ * Users are {@code loadtest+N@example.com} and are reused across runs; their holdings are replaced
+ * on every run so summaries always cost the same.
+ */
+public final class LoadScenario {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PASSWORD = "LoadTest#2024pass";
+
+    private static final List<String> SEARCH_TERMS = List.of(
+            "TCS", "INFY", "Reliance", "HDFC", "bank", "Tata", "Apple", "MSFT", "Wipro", "Titan", "Power", "Adani");
+    private static final List<String> STOCKS = List.of(
+            "RELIANCE.NS", "TCS.NS", "HDFCBANK.NS", "INFY.NS", "ICICIBANK.NS", "SBIN.NS", "BHARTIARTL.NS", "ITC.NS",
+            "LT.NS", "BAJFINANCE.NS", "AXISBANK.NS", "KOTAKBANK.NS", "MARUTI.NS", "TATAMOTORS.NS", "SUNPHARMA.NS",
+            "WIPRO.NS", "HCLTECH.NS", "ASIANPAINT.NS", "TITAN.NS", "ULTRACEMCO.NS", "NESTLEIND.NS", "POWERGRID.NS",
+            "NTPC.NS", "ONGC.NS", "ADANIENT.NS", "AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "TSLA", "META", "JPM");
+    private static final List<String> CRYPTO = List.of(
+            "bitcoin", "ethereum", "solana", "cardano", "dogecoin", "polkadot", "ripple", "binancecoin");
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final AtomicBoolean measuring = new AtomicBoolean();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong unexpected = new AtomicLong();
+
+    private LoadScenario(String baseUrl) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (String step : List.of("login", "summary", "search", "watchlist.list", "watchlist.add", "watchlist.remove", "iteration")) {
+            recorders.put(step, new LatencyRecorder(step));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("loadtest.users", 32);
+        int warmup = Integer.getInteger("loadtest.warmup-seconds", 15);
+        int duration = Integer.getInteger("loadtest.duration-seconds", 60);
+        int holdings = Integer.getInteger("loadtest.holdings", 30);
+        long thinkMs = Long.getLong("loadtest.think-ms", 0L);
+        int reloginEvery = Integer.getInteger("loadtest.relogin-every", 1);
+        String stubUrl = System.getProperty("loadtest.stub-url");
+        Path resultFile = Paths.get(System.getProperty("loadtest.result-file", "target/loadtest-result.json"));
+
+        LoadScenario scenario = new LoadScenario(System.getProperty("loadtest.base-url", "http://localhost:4000"));
+
+        System.out.printf("Preparing %d users with %d holdings each...%n", users, holdings);
+        for (int i = 0; i < users; i++) scenario.prepareUser(i, holdings);
+
+        CountDownLatch done = new CountDownLatch(users);
+        for (int i = 0; i < users; i++) {
+            final int user = i;
+            Thread t = new Thread(() -> {
+                try {
+                    scenario.runUser(user, thinkMs, reloginEvery);
+                } finally {
+                    done.countDown();
+                }
+            }, "vu-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        System.out.printf("Warming up for %ds...%n", warmup);
+        Thread.sleep(warmup * 1000L);
+        scenario.measuring.set(true);
+        long start = System.nanoTime();
+        System.out.printf("Measuring for %ds...%n", duration);
+        Thread.sleep(duration * 1000L);
+        scenario.measuring.set(false);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        scenario.running.set(false);
+        done.await();
+
+        scenario.report(users, elapsed, resultFile);
+        if (stubUrl != null) scenario.printStubStats(stubUrl);
+    }
+
+    // ---------------------- Setup ----------------------
+
+    private void prepareUser(int user, int holdings) throws IOException, InterruptedException {
+        String email = email(user);
+        HttpResponse<String> reg = post("/api/auth/register", null, credentialsJson(email));
+        if (reg.statusCode() != 200 && !reg.body().contains("already registered")) {
+            throw new IllegalStateException("Could not register " + email + ": " + reg.statusCode() + " " + reg.body());
+        }
+        String token = login(email);
+        if (token == null) throw new IllegalStateException("Could not log in as " + email);
+
+        StringBuilder csv = new StringBuilder("symbol,type,quantity,avg_price\n");
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int i = 0; i < holdings; i++) {
+            boolean crypto = i % 5 == 4;
+            List<String> pool = crypto ? CRYPTO : STOCKS;
+            csv.append(pool.get((user + i) % pool.size())).append(crypto ? ",crypto," : ",stock,")
+                    .append(crypto ? rnd.nextInt(1, 20) / 10.0 : rnd.nextInt(1, 200)).append(',')
+                    .append(rnd.nextInt(50, 5000)).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/assets/import?mode=replace"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build();
+        HttpResponse<String> imported = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (imported.statusCode() != 200) {
+            throw new IllegalStateException("Holdings import failed for " + email + ": " + imported.statusCode() + " " + imported.body());
+        }
+    }
+
+    // ---------------------- Scenario ----------------------
+
+    private void runUser(int user, long thinkMs, int reloginEvery) {
+        String email = email(user);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String session = null;
+        for (long iteration = 0; running.get(); iteration++) {
+            long iterationStart = System.nanoTime();
+            boolean ok;
+            try {
+                if (session == null || (reloginEvery > 0 && iteration % reloginEvery == 0)) {
+                    long t0 = System.nanoTime();
+                    session = login(email);
+                    record("login", t0, session != null);
+                }
+                String token = session;
+                ok = token != null;
+
+                if (ok) {
+                    ok &= timed("summary", () -> get("/api/portfolio/summary", token));
+                    String term = SEARCH_TERMS.get(rnd.nextInt(SEARCH_TERMS.size()));
+                    ok &= timed("search", () -> get("/api/search/stocks?q=" + URLEncoder.encode(term, StandardCharsets.UTF_8), token));
+                    ok &= timed("watchlist.list", () -> get("/api/watchlist", token));
+
+                    String symbol = STOCKS.get(rnd.nextInt(STOCKS.size()));
+                    String item = "{\"type\":\"stock\",\"symbol\":\"" + symbol + "\",\"name\":\"" + symbol + "\"}";
+                    ok &= timed("watchlist.add", () -> post("/api/watchlist", token, item));
+                    ok &= timed("watchlist.remove", () -> send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/watchlist?symbols=" + symbol))
+                            .header("Authorization", "Bearer " + token).DELETE()));
+                }
+            } catch (Exception e) {
+                unexpected.incrementAndGet();
+                ok = false;
+            }
+            record("iteration", iterationStart, ok);
+            if (thinkMs > 0) {
+                try {
+                    Thread.sleep(thinkMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private interface Call {
+        HttpResponse<String> send() throws IOException, InterruptedException;
+    }
+
+    private boolean timed(String step, Call call) throws IOException, InterruptedException {
+        long t0 = System.nanoTime();
+        HttpResponse<String> response = call.send();
+        boolean ok = response.statusCode() / 100 == 2;
+        record(step, t0, ok);
+        return ok;
+    }
+
+    private void record(String step, long startNanos, boolean ok) {
+        if (measuring.get()) recorders.get(step).record(System.nanoTime() - startNanos, ok);
+    }
+
+    // ---------------------- Reporting ----------------------
+
+    private void report(int users, double elapsed, Path resultFile) throws IOException {
+        List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+        for (LatencyRecorder r : recorders.values()) summaries.add(r.summarize(elapsed));
+
+        System.out.printf("%n%d users, %.1fs measured against %s%n", users, elapsed, baseUrl);
+        System.out.println(LatencyRecorder.Summary.header());
+        summaries.forEach(s -> System.out.println(s.row()));
+        if (unexpected.get() > 0) System.out.printf("%d iterations aborted by client-side exceptions%n", unexpected.get());
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"users\":").append(users).append(",\"seconds\":").append(String.format(java.util.Locale.ROOT, "%.2f", elapsed))
+                .append(",\"steps\":[");
+        for (int i = 0; i < summaries.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(summaries.get(i).json());
+        }
+        json.append("]}\n");
+        if (resultFile.getParent() != null) Files.createDirectories(resultFile.getParent());
+        Files.writeString(resultFile, json);
+        System.out.println("Results written to " + resultFile);
+    }
+
+    private void printStubStats(String stubUrl) {
+        try {
+            HttpResponse<String> stats = http.send(HttpRequest.newBuilder(URI.create(stubUrl.replaceAll("/+$", "") + "/__stats")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            System.out.println("Stub requests: " + stats.body());
+        } catch (Exception e) {
+            System.out.println("Stub stats unavailable: " + e.getMessage());
+        }
+    }
+
+    // ---------------------- HTTP helpers ----------------------
+
+    private String login(String email) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/api/auth/login", null, credentialsJson(email));
+        if (response.statusCode() != 200) return null;
+        JsonNode token = MAPPER.readTree(response.body()).get("token");
+        return token != null ? token.asText() : null;
+    }
+
+    private HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + token).GET());
+    }
+
+    private HttpResponse<String> post(String path, String token, String json) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return send(builder);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        return http.send(builder.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String email(int user) {
+        return "loadtest+" + user + "@example.com";
+    }
+
+    private static String credentialsJson(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+}
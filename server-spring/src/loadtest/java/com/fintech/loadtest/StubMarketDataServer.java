@@ -0,0 +1,427 @@
+package com.fintech.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for Yahoo, CoinGecko, NSE and AlphaVantage so the whole app can be load-tested
+ * on one box with no network. Start the app with the {@code loadtest} Spring profile, which points
+ * {@code yahoo.*-base}, {@code coingecko.base}, {@code nse.base} and {@code alphavantage.base} here.
+ *
+ * <p>Responses come from, in order: a recorded body under {@code -Dstub.fixtures=<dir>} named
+ * {@code <provider>/<path>__<query>.json} or {@code <provider>/<path>.json} (slashes in the path
+ * become underscores, {@code apikey} is dropped from the query, e.g.
+ * {@code yahoo/v1_finance_search__q=tcs.json}); otherwise a body synthesized in the provider's
+ * shape from the {@code stub/market.csv} snapshot.
+ *
+ * <p>Per-provider behaviour is set with system properties; the unqualified key is the default:
+ * <pre>
+ *   -Dstub.port=8089
+ *   -Dstub.latency=lognormal:60:400       -Dstub.yahoo.latency=uniform:20:120
+ *   -Dstub.error-rate=0.01                -Dstub.nse.error-rate=0.2
+ *   -Dstub.rate-limit-rate=0.0            -Dstub.alphavantage.rate-limit-rate=0.5
+ *   -Dstub.price-jitter=0.002             (relative random walk per quote, so alerts see movement)
+ * </pre>
+ * Rate-limited Yahoo/CoinGecko/NSE requests get a 429 with {@code Retry-After}; AlphaVantage answers
+ * 200 with an {@code Information} message, as the real API does. {@code GET /__stats} returns
+ * request counts per provider and outcome.
+ */
+public final class StubMarketDataServer {
+
+    enum Provider {
+        YAHOO, COINGECKO, NSE, ALPHAVANTAGE;
+
+        String key() { return name().toLowerCase(Locale.ROOT); }
+    }
+
+    record Behaviour(LatencyModel latency, double errorRate, double rateLimitRate) {}
+
+    record Instrument(String kind, String symbol, String name, String exchange, String currency, double price) {}
+
+    private record Response(int status, String body) {}
+
+    private interface Route {
+        Response answer(String path, Map<String, String> params) throws IOException;
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int SEARCH_LIMIT = 8;
+
+    private final Map<String, Instrument> instruments = new LinkedHashMap<>();
+    private final Map<String, Double> livePrices = new ConcurrentHashMap<>();
+    private final Map<Provider, Behaviour> behaviours = new EnumMap<>(Provider.class);
+    private final Map<String, LongAdder> stats = new ConcurrentHashMap<>();
+    private final Path replayDir;
+    private final double priceJitter;
+    private final String newsBody;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public StubMarketDataServer(Map<Provider, Behaviour> behaviours, Path replayDir, double priceJitter) throws IOException {
+        this.behaviours.putAll(behaviours);
+        this.replayDir = replayDir;
+        this.priceJitter = priceJitter;
+        loadMarket();
+        this.newsBody = readResource("stub/alphavantage-news.json");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<Provider, Behaviour> behaviours = new EnumMap<>(Provider.class);
+        for (Provider p : Provider.values()) {
+            behaviours.put(p, new Behaviour(
+                    LatencyModel.parse(setting(p, "latency", "lognormal:60:400")),
+                    Double.parseDouble(setting(p, "error-rate", "0")),
+                    Double.parseDouble(setting(p, "rate-limit-rate", "0"))));
+        }
+        String fixtures = System.getProperty("stub.fixtures");
+        StubMarketDataServer stub = new StubMarketDataServer(behaviours,
+                fixtures != null ? Paths.get(fixtures) : null,
+                Double.parseDouble(System.getProperty("stub.price-jitter", "0")));
+
+        int port = Integer.getInteger("stub.port", 8089);
+        stub.start(port);
+        System.out.printf("Stub market data on http://localhost:%d (%d instruments%s)%n", port, stub.instruments.size(),
+                fixtures != null ? ", recorded responses from " + fixtures : "");
+        behaviours.forEach((p, b) -> System.out.printf("  %-12s %s, errors %.1f%%, rate limited %.1f%%%n",
+                p.key(), b.latency().describe(), b.errorRate() * 100, b.rateLimitRate() * 100));
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::stop));
+        Thread.currentThread().join();
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        // Latency is simulated by sleeping, so every in-flight request needs its own thread
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/yahoo", ex -> handle(Provider.YAHOO, ex, this::yahoo));
+        server.createContext("/coingecko", ex -> handle(Provider.COINGECKO, ex, this::coingecko));
+        server.createContext("/nse", ex -> handle(Provider.NSE, ex, this::nse));
+        server.createContext("/alphavantage", ex -> handle(Provider.ALPHAVANTAGE, ex, this::alphavantage));
+        server.createContext("/__stats", ex -> send(ex, new Response(200, MAPPER.writeValueAsString(new TreeMap<>(snapshotStats())))));
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    public Map<String, Long> snapshotStats() {
+        Map<String, Long> out = new TreeMap<>();
+        stats.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+
+    // ---------------------- Request pipeline ----------------------
+
+    private void handle(Provider provider, HttpExchange ex, Route route) throws IOException {
+        try (ex) {
+            Behaviour behaviour = behaviours.get(provider);
+            sleep(behaviour.latency().sampleMillis());
+
+            String path = ex.getRequestURI().getPath().substring(provider.key().length() + 1);
+            Map<String, String> params = parseQuery(ex.getRequestURI().getRawQuery());
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            Response response;
+            String outcome;
+            if (roll < behaviour.rateLimitRate()) {
+                response = rateLimited(provider, ex);
+                outcome = "rate_limited";
+            } else if (roll < behaviour.rateLimitRate() + behaviour.errorRate()) {
+                response = new Response(503, "{\"error\":\"stub: injected upstream failure\"}");
+                outcome = "error";
+            } else {
+                response = replay(provider, path, params);
+                outcome = "replayed";
+                if (response == null) {
+                    response = route.answer(path, params);
+                    outcome = "synthesized";
+                }
+                if (response == null) {
+                    response = new Response(404, "{\"error\":\"stub: no route for " + path + "\"}");
+                    outcome = "not_found";
+                }
+            }
+            stats.computeIfAbsent(provider.key() + "." + outcome, k -> new LongAdder()).increment();
+            send(ex, response);
+        }
+    }
+
+    private Response rateLimited(Provider provider, HttpExchange ex) {
+        if (provider == Provider.ALPHAVANTAGE) {
+            return new Response(200, "{\"Information\":\"stub: API rate limit reached. Please retry later.\"}");
+        }
+        ex.getResponseHeaders().set("Retry-After", "1");
+        return new Response(429, "{\"error\":\"Too Many Requests\"}");
+    }
+
+    private Response replay(Provider provider, String path, Map<String, String> params) throws IOException {
+        if (replayDir == null) return null;
+        Path dir = replayDir.resolve(provider.key());
+        String base = path.replaceAll("^/+", "").replace('/', '_');
+        StringBuilder query = new StringBuilder();
+        new TreeMap<>(params).forEach((k, v) -> {
+            if ("apikey".equalsIgnoreCase(k)) return;
+            if (query.length() > 0) query.append('&');
+            query.append(k).append('=').append(v.toLowerCase(Locale.ROOT));
+        });
+        for (String name : List.of(base + "__" + query.toString().replaceAll("[^A-Za-z0-9=&.,_-]", "_") + ".json", base + ".json")) {
+            Path file = dir.resolve(name);
+            if (Files.isRegularFile(file)) return new Response(200, Files.readString(file));
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange ex, Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // ---------------------- Yahoo ----------------------
+
+    private Response yahoo(String path, Map<String, String> params) throws IOException {
+        if (path.equals("/v7/finance/quote")) {
+            ArrayNode result = MAPPER.createArrayNode();
+            for (String symbol : params.getOrDefault("symbols", "").split(",")) {
+                if (symbol.isBlank()) continue;
+                Instrument ins = instrument(symbol);
+                result.addObject()
+                        .put("symbol", ins.symbol())
+                        .put("shortName", ins.name())
+                        .put("longName", ins.name())
+                        .put("quoteType", "fx".equals(ins.kind()) ? "CURRENCY" : "EQUITY")
+                        .put("currency", ins.currency())
+                        .put("exchange", ins.exchange())
+                        .put("fullExchangeName", ins.exchange())
+                        .put("regularMarketPrice", price(ins));
+            }
+            ObjectNode root = MAPPER.createObjectNode();
+            root.putObject("quoteResponse").set("result", result);
+            return ok(root);
+        }
+        if (path.startsWith("/v8/finance/chart/")) {
+            Instrument ins = instrument(path.substring("/v8/finance/chart/".length()));
+            ObjectNode root = MAPPER.createObjectNode();
+            ObjectNode meta = root.putObject("chart").putArray("result").addObject().putObject("meta");
+            meta.put("symbol", ins.symbol()).put("currency", ins.currency()).put("regularMarketPrice", price(ins));
+            return ok(root);
+        }
+        if (path.equals("/v1/finance/search")) {
+            ArrayNode quotes = MAPPER.createArrayNode();
+            for (Instrument ins : search(params.get("q"), "stock")) {
+                quotes.addObject()
+                        .put("symbol", ins.symbol())
+                        .put("shortname", ins.name())
+                        .put("longname", ins.name())
+                        .put("exchange", ins.exchange())
+                        .put("exchDisp", ins.exchange())
+                        .put("quoteType", "EQUITY");
+            }
+            ObjectNode root = MAPPER.createObjectNode();
+            root.put("count", quotes.size()).set("quotes", quotes);
+            return ok(root);
+        }
+        return null;
+    }
+
+    // ---------------------- CoinGecko ----------------------
+
+    private Response coingecko(String path, Map<String, String> params) throws IOException {
+        if (path.equals("/simple/price")) {
+            ObjectNode root = MAPPER.createObjectNode();
+            for (String id : params.getOrDefault("ids", "").split(",")) {
+                Instrument ins = instruments.get(id.trim().toUpperCase(Locale.ROOT));
+                if (ins != null && "crypto".equals(ins.kind())) root.putObject(ins.symbol()).put("inr", price(ins));
+            }
+            return ok(root);
+        }
+        if (path.equals("/search")) {
+            ObjectNode root = MAPPER.createObjectNode();
+            ArrayNode coins = root.putArray("coins");
+            for (Instrument ins : search(params.get("query"), "crypto")) {
+                coins.addObject().put("id", ins.symbol()).put("name", ins.name()).put("symbol", ins.exchange());
+            }
+            return ok(root);
+        }
+        return null;
+    }
+
+    // ---------------------- NSE ----------------------
+
+    private Response nse(String path, Map<String, String> params) throws IOException {
+        if (!path.equals("/api/search/autocomplete")) return null;
+        ObjectNode root = MAPPER.createObjectNode();
+        ArrayNode symbols = root.putArray("symbols");
+        for (Instrument ins : search(params.get("q"), "stock")) {
+            if (!ins.symbol().endsWith(".NS")) continue;
+            symbols.addObject().put("symbol", ins.symbol().substring(0, ins.symbol().length() - 3)).put("name", ins.name());
+        }
+        return ok(root);
+    }
+
+    // ---------------------- AlphaVantage ----------------------
+
+    private Response alphavantage(String path, Map<String, String> params) throws IOException {
+        String function = params.getOrDefault("function", "");
+        switch (function) {
+            case "GLOBAL_QUOTE": {
+                Instrument ins = instrument(params.getOrDefault("symbol", ""));
+                ObjectNode root = MAPPER.createObjectNode();
+                root.putObject("Global Quote")
+                        .put("01. symbol", ins.symbol())
+                        .put("05. price", String.format(Locale.ROOT, "%.4f", price(ins)));
+                return ok(root);
+            }
+            case "SYMBOL_SEARCH": {
+                ObjectNode root = MAPPER.createObjectNode();
+                ArrayNode matches = root.putArray("bestMatches");
+                for (Instrument ins : search(params.get("keywords"), "stock")) {
+                    matches.addObject().put("1. symbol", ins.symbol()).put("2. name", ins.name());
+                }
+                return ok(root);
+            }
+            case "NEWS_SENTIMENT":
+                return new Response(200, newsBody);
+            case "TIME_SERIES_DAILY_ADJUSTED":
+                return ok(dailySeries(instrument(params.getOrDefault("symbol", "")),
+                        "full".equals(params.get("outputsize")) ? 500 : 100));
+            default:
+                return null;
+        }
+    }
+
+    // Newest day first with a dividend roughly once a quarter, like the real series
+    private ObjectNode dailySeries(Instrument ins, int days) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.putObject("Meta Data").put("2. Symbol", ins.symbol());
+        ObjectNode series = root.putObject("Time Series (Daily)");
+        LocalDate day = LocalDate.now().minusDays(1);
+        int offset = Math.floorMod(ins.symbol().hashCode(), 63);
+        for (int i = 0; i < days; i++, day = day.minusDays(1)) {
+            String close = String.format(Locale.ROOT, "%.4f", ins.price());
+            series.putObject(day.toString())
+                    .put("4. close", close)
+                    .put("5. adjusted close", close)
+                    .put("7. dividend amount", (i + offset) % 63 == 0 ? String.format(Locale.ROOT, "%.4f", ins.price() * 0.004) : "0.0000");
+        }
+        return root;
+    }
+
+    // ---------------------- Market snapshot ----------------------
+
+    private void loadMarket() throws IOException {
+        for (String line : readResource("stub/market.csv").split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split(",");
+            Instrument ins = new Instrument(f[0], f[1], f[2], f[3], f[4], Double.parseDouble(f[5]));
+            instruments.put(ins.symbol().toUpperCase(Locale.ROOT), ins);
+        }
+    }
+
+    // Unknown symbols get a stable made-up quote so arbitrary imports still value
+    private Instrument instrument(String symbol) {
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        Instrument known = instruments.get(key);
+        if (known != null) return known;
+        double price = 50 + Math.floorMod(key.hashCode(), 500_000) / 100.0;
+        boolean indian = key.endsWith(".NS") || key.endsWith(".BO");
+        return new Instrument("stock", key, key + " Ltd", indian ? "NSE" : "NMS", indian ? "INR" : "USD", price);
+    }
+
+    private double price(Instrument ins) {
+        if (priceJitter <= 0) return ins.price();
+        return livePrices.compute(ins.symbol(), (k, last) -> {
+            double base = last != null ? last : ins.price();
+            return base * (1 + ThreadLocalRandom.current().nextGaussian() * priceJitter);
+        });
+    }
+
+    private List<Instrument> search(String query, String kind) {
+        List<Instrument> out = new ArrayList<>();
+        if (query == null || query.isBlank()) return out;
+        String q = query.trim().toUpperCase(Locale.ROOT);
+        for (Instrument ins : instruments.values()) {
+            if (!kind.equals(ins.kind())) continue;
+            if (ins.symbol().toUpperCase(Locale.ROOT).startsWith(q) || ins.name().toUpperCase(Locale.ROOT).contains(q)) {
+                out.add(ins);
+                if (out.size() == SEARCH_LIMIT) break;
+            }
+        }
+        return out;
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private static Response ok(ObjectNode body) throws IOException {
+        return new Response(200, MAPPER.writeValueAsString(body));
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(k, v);
+        }
+        return params;
+    }
+
+    private static String setting(Provider p, String name, String fallback) {
+        return System.getProperty("stub." + p.key() + "." + name, System.getProperty("stub." + name, fallback));
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream in = StubMarketDataServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) throw new IOException("Missing classpath resource " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
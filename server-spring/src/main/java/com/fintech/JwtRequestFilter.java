@@ -87,6 +87,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         
         // public/permitAll endpoints
         if (uri.startsWith("/api/auth") || uri.startsWith("/api/news") || uri.startsWith("/api/search")) return true;
+        // Actuator endpoints exposed in management.endpoints.web.exposure.include
+        if (uri.startsWith("/actuator")) return true;
         // Also skip the default error path
         return uri.startsWith("/error");
     }
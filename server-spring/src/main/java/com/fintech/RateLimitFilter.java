@@ -1,5 +1,6 @@
 package com.fintech;
 
+import com.fintech.ratelimit.RateLimitStore;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,11 +12,11 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Per-IP fixed-window rate limiting for /api routes.
  * Auth endpoints use a stricter limit; other API routes use a higher limit.
+ * Counters live in a {@link RateLimitStore}, per node or shared across nodes (see rate-limit.store).
  */
 @Component
 @Order(org.springframework.core.Ordered.HIGHEST_PRECEDENCE)
@@ -35,11 +36,10 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Value("${rate-limit.trust-x-forwarded-for:false}")
     private boolean trustXForwardedFor;
 
-    private final ConcurrentHashMap<String, WindowCounter> windows = new ConcurrentHashMap<>();
+    private final RateLimitStore store;
 
-    private static final class WindowCounter {
-        long windowStartMillis;
-        int count;
+    public RateLimitFilter(RateLimitStore store) {
+        this.store = store;
     }
 
     @Override
@@ -89,34 +89,12 @@ public class RateLimitFilter extends OncePerRequestFilter {
     }
 
     private boolean allow(String bucketKey, int maxPerWindow) {
-        long now = System.currentTimeMillis();
-        
-        WindowCounter w = windows.computeIfAbsent(bucketKey, k -> {
-            WindowCounter c = new WindowCounter();
-            c.windowStartMillis = now;
-            c.count = 0;
-            return c;
-        });
-
-        // We can synchronize directly on the counter object, eliminating the need for a separate locks map
-        synchronized (w) {
-            if (now - w.windowStartMillis >= WINDOW_MS) {
-                w.windowStartMillis = now;
-                w.count = 0;
-            }
-
-            if (w.count >= maxPerWindow) {
-                return false;
-            }
-            w.count++;
-            return true;
-        }
+        return store.tryAcquire(bucketKey, maxPerWindow, WINDOW_MS);
     }
 
     // Runs every 2 minutes to clear out inactive IPs and prevent memory leaks
     @Scheduled(fixedRate = 120_000)
     public void cleanupExpiredWindows() {
-        long now = System.currentTimeMillis();
-        windows.entrySet().removeIf(entry -> now - entry.getValue().windowStartMillis > WINDOW_MS);
+        store.evictExpired(System.currentTimeMillis(), WINDOW_MS);
     }
 }
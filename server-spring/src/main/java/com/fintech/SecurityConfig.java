@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -27,9 +28,13 @@ public class SecurityConfig {
     private JwtRequestFilter jwtRequestFilter;
 
     // ---------------- Password Encoder ----------------
+    // Raising the cost re-hashes existing passwords on their next successful login
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     // ---------------- Authentication Manager ----------------
@@ -58,6 +63,10 @@ public class SecurityConfig {
     }
 
     // ---------------- Security Filter Chain ----------------
+    // Actuator's own port (management.server.port); -1 when it shares the app port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
@@ -80,9 +89,14 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(auth -> auth
+                // Streaming bodies (CSV exports) finish on an async dispatch of an already-authorized request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll() // Login/Register
                 .requestMatchers("/api/news/**").permitAll() // Public market news
                 .requestMatchers("/api/search/**").permitAll() // Public symbol search
+                .requestMatchers("/actuator/health/**", "/actuator/info").permitAll() // Probes
+                .requestMatchers(req -> managementPort > 0 && req.getLocalPort() == managementPort).permitAll() // Metrics scrape, management port only
+                .requestMatchers("/actuator/**").denyAll() // Never on the public app port
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // CORS preflight
                 .anyRequest().authenticated() // Everything else requires JWT
             )
@@ -0,0 +1,33 @@
+package com.fintech.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for executors that mostly wait on upstream HTTP calls. Follows
+ * {@code spring.threads.virtual.enabled}, the same switch that moves Tomcat request handling and
+ * {@code @Scheduled} jobs onto virtual threads; otherwise hands out named daemon platform threads.
+ * CPU-bound pools (password hashing) should not use this.
+ */
+@Component
+public class IoThreadFactory {
+
+    private final boolean virtual;
+
+    public IoThreadFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // Threads are named prefix1, prefix2, ...
+    public ThreadFactory named(String prefix) {
+        return virtual
+                ? Thread.ofVirtual().name(prefix, 1).factory()
+                : Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
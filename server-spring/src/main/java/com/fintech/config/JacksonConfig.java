@@ -0,0 +1,28 @@
+package com.fintech.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Response serialization. Blackbird replaces reflective getter calls with generated lambdas, and
+ * the lenient filter provider lets {@code @JsonFilter} DTOs serialize in full when a request
+ * carries no {@code fields=} projection.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Registered by Boot's ObjectMapper auto-configuration alongside the JSR-310 module
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer lenientFilters() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
@@ -0,0 +1,19 @@
+package com.fintech.config;
+
+import com.fintech.metrics.UpstreamClientRequestObservationConvention;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
+
+/**
+ * Observation conventions picked up by Boot's RestTemplateBuilder customizer, so every
+ * RestTemplate built from the injected builder is timed and traced the same way.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public ClientRequestObservationConvention upstreamClientRequestObservationConvention() {
+        return new UpstreamClientRequestObservationConvention();
+    }
+}
@@ -0,0 +1,54 @@
+package com.fintech.config;
+
+import com.fintech.ratelimit.EmbeddedSharedCounterBackend;
+import com.fintech.ratelimit.InMemoryRateLimitStore;
+import com.fintech.ratelimit.JdbcSharedCounterBackend;
+import com.fintech.ratelimit.LeasingRateLimitStore;
+import com.fintech.ratelimit.RateLimitStore;
+import com.fintech.ratelimit.SharedCounterBackend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Picks the rate-limit store: {@code rate-limit.store=memory} (default, per node)
+ * or {@code rate-limit.store=shared} (one budget across all nodes).
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore() {
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "shared")
+    public RateLimitStore sharedRateLimitStore(SharedCounterBackend backend,
+                                               @Value("${rate-limit.shared.lease-size:10}") int leaseSize) {
+        return new LeasingRateLimitStore(backend, leaseSize);
+    }
+
+    // ---------------- Shared backends ----------------
+
+    // Only created when the shared store is selected; the memory store needs no backend
+    @Configuration
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "shared")
+    static class SharedBackends {
+
+        @Bean
+        @ConditionalOnProperty(name = "rate-limit.shared.backend", havingValue = "jdbc", matchIfMissing = true)
+        public SharedCounterBackend jdbcSharedCounterBackend(JdbcTemplate jdbcTemplate) {
+            return new JdbcSharedCounterBackend(jdbcTemplate);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "rate-limit.shared.backend", havingValue = "embedded")
+        public SharedCounterBackend embeddedSharedCounterBackend() {
+            return new EmbeddedSharedCounterBackend();
+        }
+    }
+}
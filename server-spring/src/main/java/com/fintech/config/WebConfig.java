@@ -1,5 +1,6 @@
 package com.fintech.config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -8,8 +9,9 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Built from Boot's builder so calls are timed and carry the trace context
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        return builder.build();
     }
 }
@@ -0,0 +1,102 @@
+package com.fintech.controller;
+
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.PriceAlert;
+import com.fintech.entity.User;
+import com.fintech.service.AlertStreamService;
+import com.fintech.service.PriceAlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertController.class);
+
+    @Autowired
+    private PriceAlertService priceAlertService;
+
+    @Autowired
+    private AlertStreamService alertStreamService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // ---------------------- List Alerts ----------------------
+    @GetMapping
+    public ResponseEntity<?> getAlerts(@RequestHeader(value = "Authorization", required = false) String token,
+                                       @RequestParam(required = false) String status) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            PriceAlert.Status filter = status == null ? null : PriceAlert.Status.valueOf(status.toUpperCase());
+            return ResponseEntity.ok(priceAlertService.list(userOpt.get(), filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown status: " + status));
+        }
+    }
+
+    // ---------------------- Create Alert ----------------------
+    @PostMapping
+    public ResponseEntity<?> createAlert(@RequestHeader(value = "Authorization", required = false) String token,
+                                         @RequestBody Map<String, Object> request) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            return ResponseEntity.ok(priceAlertService.create(userOpt.get(), request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error creating price alert: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to create alert"));
+        }
+    }
+
+    // ---------------------- Cancel Alert ----------------------
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelAlert(@RequestHeader(value = "Authorization", required = false) String token,
+                                         @PathVariable Long id) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        if (!priceAlertService.cancel(id, userOpt.get())) {
+            return ResponseEntity.status(404).body(Map.of("error", "Active alert not found"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Alert cancelled"));
+    }
+
+    // ---------------------- Fired Alert Stream ----------------------
+    @GetMapping("/stream")
+    public Object stream(@RequestHeader(value = "Authorization", required = false) String token) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        return alertStreamService.open(userOpt.get().getId());
+    }
+
+    @GetMapping("/engine/status")
+    public ResponseEntity<Map<String, Object>> engineStatus() {
+        return ResponseEntity.ok(priceAlertService.engineStatus());
+    }
+
+    // ---------------------- Helper Methods ----------------------
+    private Optional<User> validateTokenAndGetUser(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return jwtUtils.getUserFromToken(token);
+    }
+}
@@ -1,21 +1,36 @@
 package com.fintech.controller;
 
 import com.fintech.dto.AssetDto;
+import com.fintech.dto.AssetFilter;
 import com.fintech.entity.Asset;
 import com.fintech.entity.User;
 import com.fintech.entity.JwtUtils;
+import com.fintech.service.AssetListingService;
 import com.fintech.service.AssetService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.service.DividendService;
+import com.fintech.service.FxRateService;
+import com.fintech.service.LedgerService;
+import com.fintech.service.PortfolioImportService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -30,14 +45,35 @@ public class AssetController {
     @Autowired
     private JwtUtils jwtUtils;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private DividendService dividendService;
+
+    @Autowired
+    private PortfolioImportService portfolioImportService;
+
+    @Autowired
+    private AssetListingService assetListingService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private FxRateService fxRateService;
 
     // ---------------------- GET ALL ----------------------
 
+    // Without sort/limit/cursor every matching holding is returned as before. With any of them the
+    // result is a keyset page: pass nextCursor back (with the same sort) for the following one
     @GetMapping
     public ResponseEntity<?> getAssets(
             @RequestHeader(value = "Authorization", required = false) String token,
-            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich
+            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "sector", required = false) String sector,
+            @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
 
         Optional<User> userOpt = validateTokenAndGetUser(token);
@@ -45,14 +81,25 @@ public class AssetController {
 
         try {
             User user = userOpt.get();
-            List<Asset> assets = assetService.getAssetsByUser(user);
-
-            if (!enrich) {
-                List<AssetDto> dtos = assets.stream().map(AssetDto::fromEntity).collect(Collectors.toList());
-                return ResponseEntity.ok(Map.of("assets", dtos));
+            AssetFilter filter = new AssetFilter(
+                    parseType(type),
+                    blankToNull(sector),
+                    blankToNull(tag));
+
+            if (sort == null && limit == null && cursor == null) {
+                List<Asset> assets = filter.isEmpty()
+                        ? assetService.getAssetsByUser(user)
+                        : assetListingService.listAll(user, filter);
+                return ResponseEntity.ok(assetsBody(assets, enrich));
             }
 
-            return ResponseEntity.ok(enrichAssetsData(assets));
+            AssetListingService.Page page = assetListingService.list(user, filter, AssetListingService.Sort.parse(sort), cursor, limit);
+            Map<String, Object> body = new HashMap<>(assetsBody(page.assets(), enrich));
+            body.put("nextCursor", page.nextCursor());
+            return ResponseEntity.ok(body);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
 
         } catch (Exception e) {
             logger.error("Error fetching assets: {}", e.getMessage(), e);
@@ -61,6 +108,24 @@ public class AssetController {
         }
     }
 
+    // Enrichment prices only the holdings passed in, i.e. just the page when paginating (and
+    // totalMarketValue then covers that page)
+    private Map<String, Object> assetsBody(List<Asset> assets, boolean enrich) {
+        if (enrich) return enrichAssetsData(assets);
+        List<AssetDto> dtos = assets.stream().map(AssetDto::fromEntity).collect(Collectors.toList());
+        return Map.of("assets", dtos);
+    }
+
+    // ---------------------- TAGS ----------------------
+
+    @GetMapping("/tags")
+    public ResponseEntity<?> getTags(@RequestHeader(value = "Authorization", required = false) String token) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) return unauthorized("Invalid token for getTags");
+
+        return ResponseEntity.ok(Map.of("tags", assetService.getTagCounts(userOpt.get())));
+    }
+
     // ---------------------- CREATE ----------------------
 
     @PostMapping
@@ -80,6 +145,7 @@ public class AssetController {
             asset.setCreatedAt(LocalDateTime.now());
 
             Asset saved = assetService.saveAsset(asset);
+            dividendService.evictUpcomingIncome(userOpt.get().getId());
             return ResponseEntity.ok(AssetDto.fromEntity(saved));
 
         } catch (IllegalArgumentException e) {
@@ -112,6 +178,7 @@ public class AssetController {
             populateAssetFromRequest(asset, req);
 
             Asset updated = assetService.saveAsset(asset);
+            dividendService.evictUpcomingIncome(user.getId());
             return ResponseEntity.ok(AssetDto.fromEntity(updated));
 
         } catch (IllegalArgumentException e) {
@@ -141,6 +208,8 @@ public class AssetController {
                     .orElseThrow(() -> new IllegalArgumentException("Asset not found or unauthorized"));
 
             assetService.deleteAsset(asset.getId());
+            ledgerService.closeOpenLots(user, asset.getSymbol());
+            dividendService.evictUpcomingIncome(user.getId());
 
             return ResponseEntity.ok(Map.of("message", "Asset deleted"));
 
@@ -154,6 +223,55 @@ public class AssetController {
         }
     }
 
+    // ---------------------- BULK IMPORT ----------------------
+
+    // CSV upload as a multipart form field named "file"
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importAssetsMultipart(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "mode", defaultValue = "merge") String mode,
+            @RequestParam(value = "defaultType", defaultValue = "stock") String defaultType
+    ) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return importAssets(token, in, mode, defaultType);
+        }
+    }
+
+    // Raw CSV request body, streamed straight from the socket
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> importAssetsRaw(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestParam(value = "mode", defaultValue = "merge") String mode,
+            @RequestParam(value = "defaultType", defaultValue = "stock") String defaultType,
+            HttpServletRequest request
+    ) throws IOException {
+        return importAssets(token, request.getInputStream(), mode, defaultType);
+    }
+
+    private ResponseEntity<?> importAssets(String token, InputStream in, String mode, String defaultType) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) return unauthorized("Invalid token for importAssets");
+
+        try {
+            PortfolioImportService.Mode importMode = PortfolioImportService.Mode.valueOf(mode.toUpperCase());
+            Asset.AssetType type = Asset.AssetType.valueOf(defaultType);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+
+            Map<String, Object> result = portfolioImportService.importCsv(userOpt.get(), reader, importMode, type);
+            dividendService.evictUpcomingIncome(userOpt.get().getId());
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+
+        } catch (Exception e) {
+            logger.error("Error importing assets: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Could not import assets", "details", e.getMessage()));
+        }
+    }
+
     // ---------------------- HELPERS ----------------------
 
     private Optional<User> validateTokenAndGetUser(String token) {
@@ -180,11 +298,15 @@ public class AssetController {
                 .distinct()
                 .collect(Collectors.toList());
 
-        Map<String, BigDecimal> stockPrices = assetService.getLivePrices(stockSymbols);
-        Map<String, BigDecimal> cryptoPrices = assetService.getCryptoPrices(cryptoSymbols);
+        // Both lookups in flight at once; the page waits for the slower one
+        CompletableFuture<Map<String, BigDecimal>> stockFuture = assetService.getLivePricesAsync(stockSymbols);
+        CompletableFuture<Map<String, BigDecimal>> cryptoFuture = assetService.getCryptoPricesAsync(cryptoSymbols);
+        Map<String, BigDecimal> stockPrices = stockFuture.join();
+        Map<String, BigDecimal> cryptoPrices = cryptoFuture.join();
 
         List<Map<String, Object>> enriched = new ArrayList<>();
         double total = 0.0;
+        double[] fxRates = fxRateService.ratesToInr();
 
         for (Asset a : assets) {
             Map<String, Object> m = new HashMap<>();
@@ -201,10 +323,14 @@ public class AssetController {
                 live = (bd != null) ? bd.doubleValue() : 0.0;
             }
 
+            FxRateService.Currency currency = fxRateService.currencyOf(a.getType(), sym);
+            double fx = fxRates[currency.ordinal()];
+            live *= fx;
+
             double marketValue = (a.getQuantity() != null) ? a.getQuantity().doubleValue() * live : 0.0;
             total += marketValue;
 
-            double cost = (a.getQuantity() != null && a.getAvgBuyPrice() != null) ? a.getQuantity().doubleValue() * a.getAvgBuyPrice().doubleValue() : 0.0;
+            double cost = (a.getQuantity() != null && a.getAvgBuyPrice() != null) ? a.getQuantity().doubleValue() * a.getAvgBuyPrice().doubleValue() * fx : 0.0;
             double pnl = marketValue - cost;
             double returnPct = cost > 0 ? (pnl / cost) * 100 : 0.0;
 
@@ -214,9 +340,11 @@ public class AssetController {
             m.put("symbol", a.getSymbol());
             m.put("quantity", a.getQuantity());
             m.put("avgBuyPrice", a.getAvgBuyPrice());
+            m.put("currency", currency.name());
             m.put("lastPriceINR", live);
             m.put("marketValue", marketValue);
             m.put("pnl", pnl);
+            m.put("realizedPnl", a.getRealizedPnl().doubleValue() * fx);
             m.put("returnPct", returnPct);
 
             enriched.add(m);
@@ -251,6 +379,22 @@ public class AssetController {
 
         if (req.containsKey("sector")) asset.setSector(String.valueOf(req.get("sector")));
         asset.setTags(parseTags(req.get("tags")));
+
+        String method = getString(req, "costBasisMethod");
+        if (method != null) asset.setCostBasisMethod(Asset.CostBasisMethod.valueOf(method.toUpperCase()));
+    }
+
+    private static Asset.AssetType parseType(String type) {
+        if (type == null || type.isBlank()) return null;
+        try {
+            return Asset.AssetType.valueOf(type.trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown asset type: " + type);
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
     }
 
     private String getString(Map<String, Object> req, String key) {
@@ -260,17 +404,7 @@ public class AssetController {
         return null;
     }
 
-    private String parseTags(Object raw) {
-        try {
-            if (raw instanceof List<?> list) {
-                List<String> tags = list.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.toList());
-
-                return objectMapper.writeValueAsString(tags);
-            }
-        } catch (Exception ignored) {}
-
-        return "[]";
+    private List<?> parseTags(Object raw) {
+        return raw instanceof List<?> list ? list : List.of();
     }
 }
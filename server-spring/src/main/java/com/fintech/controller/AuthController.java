@@ -3,6 +3,8 @@ package com.fintech.controller;
 import com.fintech.entity.JwtUtils;
 import com.fintech.entity.User;
 import com.fintech.dto.UserDto;
+import com.fintech.repository.UserCredentials;
+import com.fintech.service.HashingCapacityExceededException;
 import com.fintech.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +37,13 @@ public class AuthController {
         return UserDto.fromEntity(user);
     }
 
+    // Password hashing pool is saturated; ask the client to back off briefly
+    private ResponseEntity<?> busy(HashingCapacityExceededException e) {
+        return ResponseEntity.status(503)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
     // ---------------- Register ----------------
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody Map<String, String> request) {
@@ -58,6 +67,9 @@ public class AuthController {
                     "token", token,
                     "user", buildUserPayload(user)
                 ));
+        } catch (HashingCapacityExceededException e) {
+            logger.warn("Registration rejected for {}: hashing pool saturated", email);
+            return busy(e);
         } catch (RuntimeException e) {
             logger.warn("Registration error for {}: {}", email, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -75,9 +87,19 @@ public class AuthController {
         if (password == null || password.isBlank())
             return ResponseEntity.badRequest().body(Map.of("error", "Password is required"));
 
-        Optional<User> userOpt = userService.findByEmail(email);
-        if (userOpt.isPresent() && userService.validatePassword(password, userOpt.get().getPasswordHash())) {
-            User user = userOpt.get();
+        Optional<UserCredentials> credentialsOpt = userService.findCredentialsByEmail(email);
+        boolean valid;
+        try {
+            valid = credentialsOpt.isPresent() && userService.validatePassword(password, credentialsOpt.get().getPasswordHash());
+        } catch (HashingCapacityExceededException e) {
+            logger.warn("Login rejected for {}: hashing pool saturated", email);
+            return busy(e);
+        }
+
+        if (valid) {
+            UserCredentials credentials = credentialsOpt.get();
+            userService.upgradePasswordHashIfNeeded(credentials.getId(), password, credentials.getPasswordHash());
+            User user = userService.toAuthenticatedUser(credentials);
             String token = jwtUtils.generateToken(user);
 
             logger.info("User logged in: {}, User ID: {}, Token issued", email, user.getId());
@@ -155,7 +177,13 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
 
-        boolean ok = userService.resetPasswordWithToken(token, newPassword);
+        boolean ok;
+        try {
+            ok = userService.resetPasswordWithToken(token, newPassword);
+        } catch (HashingCapacityExceededException e) {
+            logger.warn("Password reset rejected: hashing pool saturated");
+            return busy(e);
+        }
         if (!ok) {
             return ResponseEntity.status(400).body(Map.of("error", "Invalid or expired token"));
         }
@@ -0,0 +1,104 @@
+package com.fintech.controller;
+
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.User;
+import com.fintech.service.CapitalGains;
+import com.fintech.service.CapitalGainsReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/gains")
+public class CapitalGainsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapitalGainsController.class);
+
+    @Autowired
+    private CapitalGainsReportService reportService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // ---------------------- Capital Gains Statement ----------------------
+
+    // fy=2025-26 (default: the current year)
+    @GetMapping("/capital")
+    public ResponseEntity<?> capitalGains(@RequestHeader(value = "Authorization", required = false) String token,
+                                          @RequestParam(required = false) String fy) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            return ResponseEntity.ok(reportService.statementFor(userOpt.get(), CapitalGains.FinancialYear.parse(fy)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // One line per realized or open lot, in the year-end file format
+    @GetMapping("/capital/csv")
+    public ResponseEntity<StreamingResponseBody> capitalGainsCsv(@RequestHeader(value = "Authorization", required = false) String token,
+                                                                 @RequestParam(required = false) String fy) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return StreamingResponses.error(HttpStatus.UNAUTHORIZED, "Invalid or missing token");
+        }
+
+        CapitalGains.FinancialYear year;
+        try {
+            year = CapitalGains.FinancialYear.parse(fy);
+        } catch (IllegalArgumentException e) {
+            return StreamingResponses.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        User user = userOpt.get();
+        StreamingResponseBody body = out -> {
+            try {
+                reportService.writeStatementCsv(user, year, out);
+            } catch (Exception e) {
+                logger.warn("Capital gains export for user {} aborted: {}", user.getId(), e.getMessage());
+                throw e;
+            }
+        };
+        String filename = "capital-gains-FY" + year.label() + ".csv";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Whether the caller's year-end statement is being computed or ready (fy defaults to the latest run's year)
+    @GetMapping("/capital/job/status")
+    public ResponseEntity<?> jobStatus(@RequestHeader(value = "Authorization", required = false) String token,
+                                       @RequestParam(required = false) String fy) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            CapitalGains.FinancialYear year = fy == null || fy.isBlank() ? null : CapitalGains.FinancialYear.parse(fy);
+            return ResponseEntity.ok(reportService.statementStatusFor(userOpt.get(), year));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Optional<User> validateTokenAndGetUser(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return jwtUtils.getUserFromToken(token);
+    }
+}
@@ -1,21 +1,30 @@
 package com.fintech.controller;
 
 import com.fintech.entity.Dividend;
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.User;
+import com.fintech.service.DividendFetcher;
 import com.fintech.service.DividendService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/dividends")
 public class DividendController {
 
     private final DividendService dividendService;
+    private final DividendFetcher dividendFetcher;
+    private final JwtUtils jwtUtils;
 
-    public DividendController(DividendService dividendService) {
+    public DividendController(DividendService dividendService, DividendFetcher dividendFetcher, JwtUtils jwtUtils) {
         this.dividendService = dividendService;
+        this.dividendFetcher = dividendFetcher;
+        this.jwtUtils = jwtUtils;
     }
 
     @GetMapping
@@ -23,6 +32,26 @@ public class DividendController {
         return ResponseEntity.ok(dividendService.listUpcoming(days));
     }
 
+    // Upcoming dividends on the caller's holdings with projected income (quantity x amount) in INR
+    @GetMapping("/mine")
+    public ResponseEntity<?> mine(@RequestHeader(value = "Authorization", required = false) String token,
+                                  @RequestParam(value = "days", defaultValue = "90") int days) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        if (days < 1 || days > DividendService.MAX_INCOME_DAYS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "days must be between 1 and " + DividendService.MAX_INCOME_DAYS));
+        }
+        return ResponseEntity.ok(dividendService.upcomingIncomeForUser(userOpt.get(), days));
+    }
+
+    // Progress and throughput of the current (or last) nightly ingestion run
+    @GetMapping("/ingestion/status")
+    public ResponseEntity<Map<String, Object>> ingestionStatus() {
+        return ResponseEntity.ok(dividendFetcher.getIngestionStatus());
+    }
+
     @GetMapping("/{ticker}")
     public ResponseEntity<List<Dividend>> byTicker(@PathVariable String ticker) {
         return ResponseEntity.ok(dividendService.findByTicker(ticker));
@@ -39,4 +68,11 @@ public class DividendController {
         dividendService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    private Optional<User> validateTokenAndGetUser(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return jwtUtils.getUserFromToken(token);
+    }
 }
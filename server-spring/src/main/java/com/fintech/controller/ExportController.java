@@ -0,0 +1,84 @@
+package com.fintech.controller;
+
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.User;
+import com.fintech.service.PortfolioExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private PortfolioExportService exportService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // ---------------------- Holdings ----------------------
+    @GetMapping("/holdings")
+    public ResponseEntity<StreamingResponseBody> exportHoldings(@RequestHeader(value = "Authorization", required = false) String token,
+                                            @RequestParam(defaultValue = "csv") String format) {
+        return export(token, format, "holdings", false);
+    }
+
+    // ---------------------- Valuations ----------------------
+    @GetMapping("/valuations")
+    public ResponseEntity<StreamingResponseBody> exportValuations(@RequestHeader(value = "Authorization", required = false) String token,
+                                              @RequestParam(defaultValue = "csv") String format) {
+        return export(token, format, "valuations", true);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String token, String format, String name, boolean valuations) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return StreamingResponses.error(HttpStatus.UNAUTHORIZED, "Invalid or missing token");
+        }
+
+        PortfolioExportService.Format fmt;
+        try {
+            fmt = PortfolioExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return StreamingResponses.error(HttpStatus.BAD_REQUEST, "format must be csv or jsonl");
+        }
+
+        User user = userOpt.get();
+        StreamingResponseBody body = out -> {
+            try {
+                if (valuations) exportService.writeValuations(user, fmt, out);
+                else exportService.writeHoldings(user, fmt, out);
+            } catch (Exception e) {
+                logger.warn("Export of {} for user {} aborted: {}", name, user.getId(), e.getMessage());
+                throw e;
+            }
+        };
+
+        String filename = name + "-" + LocalDate.now() + "." + fmt.extension;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // ---------------------- Helper Methods ----------------------
+    private Optional<User> validateTokenAndGetUser(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return jwtUtils.getUserFromToken(token);
+    }
+}
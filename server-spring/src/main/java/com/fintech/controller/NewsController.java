@@ -1,19 +1,28 @@
 package com.fintech.controller;
 
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.User;
 import com.fintech.service.NewsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/news")
@@ -24,10 +33,44 @@ public class NewsController {
     @Autowired
     private NewsService newsService;
 
+    @Autowired
+    private JwtUtils jwtUtils;
+
     @GetMapping
-    public ResponseEntity<?> getNews(@RequestHeader(value = "Authorization", required = false) String token) {
+    public ResponseEntity<?> getNews(@RequestHeader(value = "Authorization", required = false) String token,
+                                     @RequestParam(required = false) String tickers,
+                                     @RequestParam(defaultValue = "false") boolean mine,
+                                     WebRequest request) {
         try {
-            return ResponseEntity.ok(newsService.fetchNews());
+            NewsService.NewsSnapshot snap = newsService.currentSnapshot();
+
+            // /api/news is public, so the token is only checked when a personalized feed is asked for
+            Collection<String> filter = null;
+            if (mine) {
+                Optional<User> userOpt = validateTokenAndGetUser(token);
+                if (userOpt.isEmpty()) {
+                    return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+                }
+                filter = newsService.symbolsForUser(userOpt.get());
+            } else if (tickers != null && !tickers.isBlank()) {
+                filter = Arrays.stream(tickers.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+            }
+
+            // The filter is part of the representation, so it goes into the validator
+            String etag = filter == null
+                    ? snap.etag()
+                    : "\"" + snap.etag().replace("\"", "") + "-" + Integer.toHexString(filter.toString().toUpperCase().hashCode()) + "\"";
+            long lastModified = snap.fallback() ? -1 : snap.refreshedAt().toEpochMilli();
+            if (request.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+
+            CacheControl cacheControl = mine
+                    ? CacheControl.maxAge(60, TimeUnit.SECONDS).cachePrivate()
+                    : CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+            return ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .body(newsService.buildResponse(snap, filter));
         } catch (Exception e) {
             logger.error("Failed to fetch news: {}", e.toString(), e);
             Map<String, Object> resp = new HashMap<>();
@@ -37,4 +80,12 @@ public class NewsController {
             return ResponseEntity.status(503).body(resp);
         }
     }
+
+    // ---------------------- Helper Methods ----------------------
+    private Optional<User> validateTokenAndGetUser(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return jwtUtils.getUserFromToken(token);
+    }
 }
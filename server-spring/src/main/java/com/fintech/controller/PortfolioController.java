@@ -1,8 +1,8 @@
 package com.fintech.controller;
 
-import com.fintech.entity.Asset;
+import com.fintech.dto.FieldProjection;
 import com.fintech.entity.User;
-import com.fintech.service.AssetService;
+import com.fintech.service.PortfolioValuationService;
 import com.fintech.entity.JwtUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,9 +10,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
-import java.util.stream.Collectors;
-
 import java.util.*;
 
 @RestController
@@ -22,14 +19,16 @@ public class PortfolioController {
     private static final Logger logger = LoggerFactory.getLogger(PortfolioController.class);
 
     @Autowired
-    private AssetService assetService;
+    private PortfolioValuationService portfolioValuationService;
 
     @Autowired
     private JwtUtils jwtUtils;
     
     // ---------------------- Get Portfolio Summary ----------------------
+    // fields= narrows the response, e.g. items.symbol,items.marketValue,allocation.weight
     @GetMapping("/summary")
-    public ResponseEntity<?> getPortfolioSummary(@RequestHeader(value = "Authorization", required = false) String token) {
+    public ResponseEntity<?> getPortfolioSummary(@RequestHeader(value = "Authorization", required = false) String token,
+                                                 @RequestParam(required = false) String fields) {
         Optional<User> userOpt = validateTokenAndGetUser(token);
         if (userOpt.isEmpty()) {
             logger.warn("Unauthorized access attempt to getPortfolioSummary");
@@ -37,81 +36,9 @@ public class PortfolioController {
         }
 
         try {
-            User user = userOpt.get();
-            List<Asset> assets = assetService.getAssetsByUser(user);
-
-            // 1. Separate assets by type and get their symbols
-            List<String> stockSymbols = assets.stream()
-                .filter(a -> a.getType() != Asset.AssetType.crypto) // Check against the enum directly
-                .map(asset -> asset.getSymbol().toUpperCase())
-                .distinct()
-                .collect(Collectors.toList());
-
-            List<String> cryptoSymbols = assets.stream()
-                .filter(a -> a.getType() == Asset.AssetType.crypto)
-                .map(Asset::getSymbol)
-                .distinct()
-                .collect(Collectors.toList());
-
-            // 2. Fetch prices using centralized AssetService
-            Map<String, BigDecimal> stockPrices = assetService.getLivePrices(stockSymbols);
-            Map<String, BigDecimal> cryptoPrices = assetService.getCryptoPrices(cryptoSymbols);
-
-            // 3. Calculate summary and allocation in a single loop
-            List<Map<String, Object>> items = new ArrayList<>();
-            List<Map<String, Object>> allocation = new ArrayList<>();
-            double totalPortfolioValue = 0.0;
-
-            for (Asset asset : assets) {
-                Map<String, Object> itemMap = new HashMap<>();
-                String symbol = asset.getSymbol() != null ? asset.getSymbol() : "";
-                String symbolUpper = symbol.toUpperCase();
-                
-                double livePrice = 0.0;
-                if (asset.getType() == Asset.AssetType.crypto) {
-                    BigDecimal bd = cryptoPrices.get(symbolUpper);
-                    if (bd == null) bd = cryptoPrices.get(symbol);
-                    livePrice = (bd != null) ? bd.doubleValue() : 0.0;
-                } else {
-                    BigDecimal bd = stockPrices.get(symbolUpper);
-                    livePrice = (bd != null) ? bd.doubleValue() : 0.0;
-                }
-                
-                Double marketValue = asset.getQuantity() != null ? asset.getQuantity().doubleValue() * livePrice : 0.0;
-
-                itemMap.put("id", asset.getId());
-                itemMap.put("type", asset.getType() != null ? asset.getType() : Asset.AssetType.stock);
-                itemMap.put("name", asset.getName());
-                itemMap.put("symbol", asset.getSymbol());
-                itemMap.put("quantity", asset.getQuantity());
-                itemMap.put("avgBuyPrice", asset.getAvgBuyPrice());
-                itemMap.put("lastPriceINR", livePrice);
-                itemMap.put("marketValue", marketValue);
-                totalPortfolioValue += marketValue;
-
-                Double costPrice = (asset.getQuantity() != null && asset.getAvgBuyPrice() != null) ? asset.getQuantity().doubleValue() * asset.getAvgBuyPrice().doubleValue() : 0.0;
-                Double pnl = marketValue - costPrice;
-                itemMap.put("pnl", pnl);
-
-                Double returnPct = costPrice > 0 ? (pnl / costPrice) * 100 : 0.0;
-                itemMap.put("returnPct", returnPct);
-
-                items.add(itemMap);
-            }
-
-            for (Map<String, Object> item : items) {
-                Map<String, Object> allocationItem = new HashMap<>();
-                allocationItem.put("name", item.get("name"));
-                allocationItem.put("symbol", item.get("symbol"));
-                Double itemMarketValue = (Double) item.get("marketValue");
-                Double weight = totalPortfolioValue > 0 ? (itemMarketValue / totalPortfolioValue) * 100 : 0.0;
-                allocationItem.put("value", itemMarketValue);
-                allocationItem.put("weight", weight);
-                allocation.add(allocationItem);
-            }
-
-            return ResponseEntity.ok(Map.of("allocation", allocation, "items", items));
-
+            return ResponseEntity.ok(FieldProjection.apply(portfolioValuationService.getPortfolioSummary(userOpt.get()), fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching portfolio summary: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -0,0 +1,27 @@
+package com.fintech.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Spring MVC only streams a body when the handler is declared as returning
+ * {@code ResponseEntity<StreamingResponseBody>}, so download endpoints send their
+ * {@code {"error": ...}} replies through the same type.
+ */
+final class StreamingResponses {
+
+    private StreamingResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        byte[] json = ("{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(json));
+    }
+}
@@ -0,0 +1,106 @@
+package com.fintech.controller;
+
+import com.fintech.dto.AssetDto;
+import com.fintech.entity.JwtUtils;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.service.AssetService;
+import com.fintech.service.DividendService;
+import com.fintech.service.LedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/transactions")
+public class TransactionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private DividendService dividendService;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // ---------------------- List Transactions ----------------------
+    @GetMapping
+    public ResponseEntity<?> getTransactions(@RequestHeader(value = "Authorization", required = false) String token,
+                                             @RequestParam(required = false) String symbol,
+                                             @RequestParam(required = false) Integer limit) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            String filter = symbol == null || symbol.isBlank() ? null : symbol.trim();
+            return ResponseEntity.ok(ledgerService.listTransactions(userOpt.get(), filter, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ---------------------- Record Buy / Sell ----------------------
+    @PostMapping
+    public ResponseEntity<?> recordTransaction(@RequestHeader(value = "Authorization", required = false) String token,
+                                               @RequestBody Map<String, Object> request) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            LedgerService.Recorded recorded = ledgerService.record(userOpt.get(), request);
+            dividendService.evictUpcomingIncome(userOpt.get().getId());
+            if (recorded.holding() != null && recorded.holding().getType() == Asset.AssetType.stock) {
+                assetService.resolveQuoteCurrencies(List.of(recorded.holding().getSymbol()), 1);
+            }
+
+            // holding is null once a sell closes the position
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("transaction", recorded.transaction());
+            body.put("holding", recorded.holding() != null ? AssetDto.fromEntity(recorded.holding()) : null);
+            body.put("realized", recorded.realized());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error recording transaction: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to record transaction"));
+        }
+    }
+
+    // ---------------------- Open Lots ----------------------
+    @GetMapping("/lots")
+    public ResponseEntity<?> getOpenLots(@RequestHeader(value = "Authorization", required = false) String token,
+                                         @RequestParam String symbol) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        try {
+            return ResponseEntity.ok(ledgerService.openLots(userOpt.get(), symbol.trim()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Optional<User> validateTokenAndGetUser(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return jwtUtils.getUserFromToken(token);
+    }
+}
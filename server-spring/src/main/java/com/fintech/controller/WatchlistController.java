@@ -6,6 +6,7 @@ import com.fintech.entity.Watchlist;
 import com.fintech.service.WatchlistService;
 import com.fintech.entity.JwtUtils;
 import com.fintech.service.AssetService;
+import com.fintech.service.FxRateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,6 +24,8 @@ public class WatchlistController {
 
     private static final Logger logger = LoggerFactory.getLogger(WatchlistController.class);
 
+    private static final int MAX_BULK_ITEMS = 500;
+
     @Autowired
     private WatchlistService watchlistService;
 
@@ -31,6 +35,9 @@ public class WatchlistController {
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private FxRateService fxRateService;
+
     // ---------------------- Get User Watchlist ----------------------
     @GetMapping
     public ResponseEntity<?> getWatchlist(@RequestHeader(value = "Authorization", required = false) String token) {
@@ -57,11 +64,14 @@ public class WatchlistController {
                 .distinct()
                 .collect(Collectors.toList());
 
-            // Fetch prices for both types utilizing the centralized AssetService
-            Map<String, BigDecimal> stockPrices = assetService.getLivePrices(stockSymbols);
-            Map<String, BigDecimal> cryptoPrices = assetService.getCryptoPrices(cryptoIds);
+            // Fetch prices for both types concurrently utilizing the centralized AssetService
+            CompletableFuture<Map<String, BigDecimal>> stockFuture = assetService.getLivePricesAsync(stockSymbols);
+            CompletableFuture<Map<String, BigDecimal>> cryptoFuture = assetService.getCryptoPricesAsync(cryptoIds);
+            Map<String, BigDecimal> stockPrices = stockFuture.join();
+            Map<String, BigDecimal> cryptoPrices = cryptoFuture.join();
 
             // Create response with prices
+            double[] fxRates = fxRateService.ratesToInr();
             List<Map<String, Object>> responseItems = watchlistItems.stream().map(item -> {
                 Map<String, Object> map = new HashMap<>();
                 map.put("id", item.getId());
@@ -81,8 +91,10 @@ public class WatchlistController {
                     BigDecimal bd = stockPrices.get(symUp);
                     if (bd != null) price = bd.doubleValue();
                 }
-                
-                map.put("lastPriceINR", price);
+
+                FxRateService.Currency currency = fxRateService.currencyOf(item.getType(), sym);
+                map.put("currency", currency.name());
+                map.put("lastPriceINR", price * fxRates[currency.ordinal()]);
                 return map;
             }).collect(Collectors.toList());
 
@@ -117,6 +129,7 @@ public class WatchlistController {
             item.setCreatedAt(java.time.LocalDateTime.now());
 
             Watchlist savedItem = watchlistService.save(item);
+            if (savedItem.getType() == Asset.AssetType.stock) assetService.resolveQuoteCurrencies(List.of(savedItem.getSymbol()), 1);
             logger.info("Item added to watchlist: {}", request.get("symbol"));
             return ResponseEntity.ok(savedItem);
 
@@ -137,15 +150,9 @@ public class WatchlistController {
         }
 
         try {
-            User user = userOpt.get();
-
-            Watchlist item = watchlistService.getWatchlistByUser(user)
-                    .stream()
-                    .filter(w -> w.getId().equals(id))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Watchlist item not found or does not belong to user"));
-
-            watchlistService.delete(item.getId());
+            if (!watchlistService.deleteForUser(id, userOpt.get())) {
+                return ResponseEntity.status(404).body(Map.of("error", "Watchlist item not found or does not belong to user"));
+            }
             logger.info("Item deleted from watchlist: {}", id);
             return ResponseEntity.ok(Map.of("message", "Item removed from watchlist"));
 
@@ -155,6 +162,80 @@ public class WatchlistController {
         }
     }
 
+    // ---------------------- Bulk Add ----------------------
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addWatchlistItems(@RequestHeader(value = "Authorization", required = false) String token,
+                                               @RequestBody Map<String, Object> request) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            logger.warn("Unauthorized access attempt to addWatchlistItems");
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+
+        if (!(request.get("items") instanceof List<?> rawItems) || rawItems.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "items must be a non-empty list"));
+        }
+        if (rawItems.size() > MAX_BULK_ITEMS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BULK_ITEMS + " items per request"));
+        }
+
+        try {
+            List<Watchlist> items = new ArrayList<>();
+            for (Object raw : rawItems) {
+                if (!(raw instanceof Map<?, ?> m) || m.get("type") == null || m.get("symbol") == null || m.get("name") == null) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Each item needs type, symbol and name"));
+                }
+                String symbol = m.get("symbol").toString().trim();
+                if (symbol.isEmpty()) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Symbol must not be blank"));
+                }
+                Watchlist item = new Watchlist();
+                item.setType(Asset.AssetType.valueOf(m.get("type").toString()));
+                item.setSymbol(symbol);
+                item.setName(m.get("name").toString());
+                items.add(item);
+            }
+
+            List<String> added = watchlistService.addAll(userOpt.get(), items);
+            logger.info("Bulk watchlist add: {} requested, {} added", items.size(), added.size());
+            return ResponseEntity.ok(Map.of("added", added, "skipped", items.size() - added.size()));
+
+        } catch (Exception e) {
+            logger.error("Error adding watchlist items: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ---------------------- Bulk Remove ----------------------
+    @DeleteMapping
+    public ResponseEntity<?> removeWatchlistSymbols(@RequestHeader(value = "Authorization", required = false) String token,
+                                                    @RequestParam List<String> symbols) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            logger.warn("Unauthorized access attempt to removeWatchlistSymbols");
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+
+        List<String> cleaned = symbols.stream().map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        if (cleaned.size() > MAX_BULK_ITEMS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BULK_ITEMS + " symbols per request"));
+        }
+
+        int removed = watchlistService.removeAll(userOpt.get(), cleaned);
+        return ResponseEntity.ok(Map.of("removed", removed));
+    }
+
+    // ---------------------- Membership Check ----------------------
+    @GetMapping("/contains")
+    public ResponseEntity<?> containsSymbol(@RequestHeader(value = "Authorization", required = false) String token,
+                                            @RequestParam String symbol) {
+        Optional<User> userOpt = validateTokenAndGetUser(token);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or missing token"));
+        }
+        return ResponseEntity.ok(Map.of("symbol", symbol, "inWatchlist", watchlistService.contains(userOpt.get(), symbol.trim())));
+    }
+
     // ---------------------- Helper Methods ----------------------
     private Optional<User> validateTokenAndGetUser(String token) {
         if (token == null || token.isBlank()) {
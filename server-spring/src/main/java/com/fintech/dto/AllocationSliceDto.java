@@ -0,0 +1,12 @@
+package com.fintech.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+// Share of portfolio value held in one asset ("allocation")
+@JsonFilter("allocation")
+public record AllocationSliceDto(
+    String name,
+    String symbol,
+    double value,
+    double weight
+) {}
@@ -0,0 +1,18 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.PriceAlert;
+
+import java.math.BigDecimal;
+
+/**
+ * Just the columns the alert engine needs to arm an active alert.
+ */
+public record ArmedAlertRow(
+    Long id,
+    Long userId,
+    Asset.AssetType assetType,
+    String symbol,
+    PriceAlert.Condition condition,
+    BigDecimal triggerPrice
+) {}
@@ -2,15 +2,11 @@ package com.fintech.dto;
 
 import com.fintech.entity.Asset;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-
 public record AssetDto(
     Long id,
     Asset.AssetType type,
@@ -18,6 +14,8 @@ public record AssetDto(
     String name,
     BigDecimal quantity,
     BigDecimal avgBuyPrice,
+    BigDecimal realizedPnl,
+    Asset.CostBasisMethod costBasisMethod,
     LocalDateTime createdAt,
     LocalDateTime updatedAt,
     String sector,
@@ -25,19 +23,8 @@ public record AssetDto(
     @JsonProperty("userId") Long userId
 ) {
 
-    private static final ObjectMapper mapper = new ObjectMapper();
-
     public static AssetDto fromEntity(Asset asset) {
-        List<String> tags = List.of();
-
-        // Parses the tags from JSON string to List<String>
-        if (asset.getTags() != null && !asset.getTags().isBlank() && !asset.getTags().equals("[]")) {
-            try {
-                tags = mapper.readValue(asset.getTags(), new TypeReference<List<String>>() {});
-            } catch (JsonProcessingException e) {
-                tags = List.of();
-            }
-        }
+        List<String> tags = asset.getTags() != null ? List.copyOf(asset.getTags()) : List.of();
 
         return new AssetDto(
                 asset.getId(),
@@ -46,6 +33,8 @@ public record AssetDto(
                 asset.getName(),
                 asset.getQuantity(),
                 asset.getAvgBuyPrice(),
+                asset.getRealizedPnl(),
+                asset.getCostBasisMethod(),
                 asset.getCreatedAt(),
                 asset.getUpdatedAt(),
                 asset.getSector(),
@@ -0,0 +1,19 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Unmanaged holding row for exports; nothing accumulates in the persistence context while streaming
+public record AssetExportRow(
+    Long id,
+    Asset.AssetType type,
+    String symbol,
+    String name,
+    BigDecimal quantity,
+    BigDecimal avgBuyPrice,
+    String sector,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {}
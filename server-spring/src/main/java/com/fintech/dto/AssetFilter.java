@@ -0,0 +1,11 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+
+// Optional filters for listing holdings; null fields don't constrain
+public record AssetFilter(Asset.AssetType type, String sector, String tag) {
+
+    public boolean isEmpty() {
+        return type == null && sector == null && tag == null;
+    }
+}
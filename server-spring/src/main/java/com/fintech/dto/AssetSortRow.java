@@ -0,0 +1,14 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+
+import java.math.BigDecimal;
+
+// The columns needed to rank a holding by live value, without loading the entity or its tags
+public record AssetSortRow(
+    Long id,
+    Asset.AssetType type,
+    String symbol,
+    BigDecimal quantity,
+    BigDecimal avgBuyPrice
+) {}
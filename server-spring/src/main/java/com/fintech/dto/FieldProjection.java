@@ -0,0 +1,82 @@
+package com.fintech.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code ?fields=} support for record responses annotated with {@link JsonFilter}. Accepts
+ * top-level components ({@code items}) and components of a nested record or list of records
+ * ({@code items.symbol,items.marketValue}); a nested name without siblings keeps the whole object.
+ * Unknown names are rejected with {@link IllegalArgumentException} so typos don't silently
+ * return empty objects.
+ */
+public final class FieldProjection {
+
+    private FieldProjection() {
+    }
+
+    public static MappingJacksonValue apply(Object body, String fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields == null || fields.isBlank()) return value;
+
+        Map<String, Set<String>> included = new LinkedHashMap<>();
+        Class<?> rootType = body.getClass();
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty()) continue;
+
+            int dot = field.indexOf('.');
+            String head = dot < 0 ? field : field.substring(0, dot);
+            RecordComponent component = component(rootType, head);
+            included.computeIfAbsent(filterId(rootType), k -> new LinkedHashSet<>()).add(head);
+
+            if (dot >= 0) {
+                String child = field.substring(dot + 1);
+                Class<?> nestedType = elementType(component);
+                component(nestedType, child);
+                included.computeIfAbsent(filterId(nestedType), k -> new LinkedHashSet<>()).add(child);
+            }
+        }
+
+        // Filters with no entry (nested objects requested whole) fall through to "serialize all"
+        SimpleFilterProvider filters = new SimpleFilterProvider().setFailOnUnknownId(false);
+        included.forEach((id, names) -> filters.addFilter(id, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        value.setFilters(filters);
+        return value;
+    }
+
+    private static RecordComponent component(Class<?> type, String name) {
+        if (type.isRecord()) {
+            for (RecordComponent c : type.getRecordComponents()) {
+                if (c.getName().equals(name)) return c;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+
+    private static String filterId(Class<?> type) {
+        JsonFilter filter = type.getAnnotation(JsonFilter.class);
+        if (filter == null) throw new IllegalArgumentException("Fields of " + type.getSimpleName() + " cannot be selected");
+        return filter.value();
+    }
+
+    // List<X> -> X, otherwise the component's own type
+    private static Class<?> elementType(RecordComponent component) {
+        Type generic = component.getGenericType();
+        if (generic instanceof ParameterizedType p && p.getActualTypeArguments().length == 1
+                && p.getActualTypeArguments()[0] instanceof Class<?> element) {
+            return element;
+        }
+        return component.getType();
+    }
+}
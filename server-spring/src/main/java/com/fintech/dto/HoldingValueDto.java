@@ -0,0 +1,24 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.math.BigDecimal;
+
+// One valued holding in the portfolio summary ("items"); avgBuyPrice is in the holding's own
+// currency, every price and amount after it in INR
+@JsonFilter("holding")
+public record HoldingValueDto(
+    Long id,
+    Asset.AssetType type,
+    String name,
+    String symbol,
+    BigDecimal quantity,
+    BigDecimal avgBuyPrice,
+    String currency,
+    double lastPriceINR,
+    double marketValue,
+    double pnl,
+    double realizedPnl,
+    double returnPct
+) {}
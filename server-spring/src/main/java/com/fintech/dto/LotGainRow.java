@@ -0,0 +1,17 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+
+import java.time.LocalDate;
+
+// A realized gain slice, or an open lot (soldOn null, proceeds 0), read for capital gains statements
+public record LotGainRow(
+    long userId,
+    Asset.AssetType type,
+    String symbol,
+    LocalDate acquiredOn,
+    LocalDate soldOn,
+    double quantity,
+    double proceeds,
+    double costBasis
+) {}
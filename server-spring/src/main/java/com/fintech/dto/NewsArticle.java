@@ -0,0 +1,27 @@
+package com.fintech.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An ingested news item with the per-ticker sentiment AlphaVantage attaches to it.
+ */
+public record NewsArticle(
+    String id,
+    String title,
+    String url,
+    String source,
+    String summary,
+    Instant publishedAt,
+    Double sentimentScore,
+    String sentimentLabel,
+    List<TickerSentiment> tickers
+) {
+
+    public record TickerSentiment(
+        String ticker,
+        double relevance,
+        double sentimentScore,
+        String sentimentLabel
+    ) {}
+}
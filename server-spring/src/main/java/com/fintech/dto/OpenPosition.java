@@ -0,0 +1,21 @@
+package com.fintech.dto;
+
+import com.fintech.entity.Asset;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One holding's open lots, oldest first, with the holding's current quantity, read for capital
+ * gains statements. {@code held} is 0 when the holding is gone and {@code lots} is empty when it
+ * was never traded through the ledger; {@code openedOn} is the holding's creation date, if any.
+ */
+public record OpenPosition(
+    long userId,
+    Asset.AssetType type,
+    String symbol,
+    double held,
+    double avgBuyPrice,
+    LocalDate openedOn,
+    List<LotGainRow> lots
+) {}
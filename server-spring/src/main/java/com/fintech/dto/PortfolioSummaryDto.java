@@ -0,0 +1,11 @@
+package com.fintech.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.util.List;
+
+@JsonFilter("portfolioSummary")
+public record PortfolioSummaryDto(
+    List<HoldingValueDto> items,
+    List<AllocationSliceDto> allocation
+) {}
@@ -0,0 +1,4 @@
+package com.fintech.dto;
+
+// A tag and how many of the user's holdings carry it
+public record TagCount(String tag, long count) {}
@@ -0,0 +1,16 @@
+package com.fintech.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// One (holding, upcoming dividend) pair from the holdings x dividends join
+public record UpcomingDividendRow(
+    Long assetId,
+    String symbol,
+    String name,
+    BigDecimal quantity,
+    Double amount,
+    String currency,
+    Instant exDate,
+    Instant payDate
+) {}
@@ -0,0 +1,39 @@
+package com.fintech.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+public record UpcomingIncomeDto(
+    Long assetId,
+    String symbol,
+    String name,
+    BigDecimal quantity,
+    Double amountPerShare,
+    String currency,
+    Instant exDate,
+    Instant payDate,
+    BigDecimal projectedIncome,
+    BigDecimal projectedIncomeINR
+) {
+
+    public static UpcomingIncomeDto fromRow(UpcomingDividendRow row, BigDecimal rateToInr) {
+        BigDecimal perShare = row.amount() != null ? BigDecimal.valueOf(row.amount()) : BigDecimal.ZERO;
+        BigDecimal quantity = row.quantity() != null ? row.quantity() : BigDecimal.ZERO;
+        BigDecimal income = quantity.multiply(perShare).setScale(4, RoundingMode.HALF_UP);
+        BigDecimal incomeInr = income.multiply(rateToInr).setScale(2, RoundingMode.HALF_UP);
+
+        return new UpcomingIncomeDto(
+                row.assetId(),
+                row.symbol(),
+                row.name(),
+                quantity,
+                row.amount(),
+                row.currency(),
+                row.exDate(),
+                row.payDate(),
+                income,
+                incomeInr
+        );
+    }
+}
@@ -6,11 +6,15 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
@@ -55,6 +59,15 @@ public class Asset {
     @Column(nullable = false, precision = 18, scale = 8)
     private BigDecimal avgBuyPrice;
 
+    // Running total of gains booked by sells; maintained by the ledger, never recomputed from it
+    @Column(precision = 19, scale = 4)
+    private BigDecimal realizedPnl;
+
+    // How sells are costed; null means FIFO
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private CostBasisMethod costBasisMethod;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -65,14 +78,29 @@ public class Asset {
     // Can be null
     private String sector;
 
-    // JSON stored as String
-    @Column(columnDefinition = "JSON")
-    private String tags;
+    // One row per tag in asset_tags; the (tag, asset_id) index serves ?tag= filters. Loaded lazily
+    // in batches, so listing holdings costs one tag query per 100 assets rather than one per asset
+    @ElementCollection
+    @CollectionTable(
+            name = "asset_tags",
+            joinColumns = @JoinColumn(name = "asset_id"),
+            indexes = @Index(name = "idx_asset_tags_tag", columnList = "tag, asset_id")
+    )
+    @Column(name = "tag", nullable = false, length = AssetTags.MAX_LENGTH)
+    @Convert(converter = AssetTags.Interner.class)
+    @OrderBy
+    @BatchSize(size = 100)
+    private Set<String> tags = new LinkedHashSet<>();
 
     public enum AssetType {
         stock, mutual, crypto, real_estate, fd, cash
     }
 
+    // FIFO costs a sell at the lots it consumes; AVERAGE at the position's average cost
+    public enum CostBasisMethod {
+        FIFO, AVERAGE
+    }
+
     // ------------------ Custom JSON Fields ------------------
 
     // Optional: expose userId safely to frontend
@@ -104,6 +132,12 @@ public class Asset {
     public BigDecimal getAvgBuyPrice() { return avgBuyPrice; }
     public void setAvgBuyPrice(BigDecimal avgBuyPrice) { this.avgBuyPrice = avgBuyPrice; }
 
+    public BigDecimal getRealizedPnl() { return realizedPnl != null ? realizedPnl : BigDecimal.ZERO; }
+    public void setRealizedPnl(BigDecimal realizedPnl) { this.realizedPnl = realizedPnl; }
+
+    public CostBasisMethod getCostBasisMethod() { return costBasisMethod != null ? costBasisMethod : CostBasisMethod.FIFO; }
+    public void setCostBasisMethod(CostBasisMethod costBasisMethod) { this.costBasisMethod = costBasisMethod; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -113,6 +147,12 @@ public class Asset {
     public String getSector() { return sector; }
     public void setSector(String sector) { this.sector = sector; }
 
-    public String getTags() { return tags; }
-    public void setTags(String tags) { this.tags = tags; }
+    public Set<String> getTags() { return tags; }
+
+    // Replaces the contents so Hibernate diffs the managed collection instead of rewriting it
+    public void setTags(Collection<?> tags) {
+        Set<String> normalized = AssetTags.normalize(tags);
+        this.tags.retainAll(normalized);
+        this.tags.addAll(normalized);
+    }
 }
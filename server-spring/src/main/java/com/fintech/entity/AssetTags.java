@@ -0,0 +1,92 @@
+package com.fintech.entity;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tag normalization for {@code asset_tags}. Users reuse a handful of labels across thousands of
+ * holdings, so tags read from the database are interned through a small dictionary and every
+ * asset carrying "long-term" shares one String.
+ */
+public final class AssetTags {
+
+    public static final int MAX_LENGTH = 64;
+
+    // Stop interning past this many distinct tags; new ones are still returned, just not shared
+    private static final int DICTIONARY_LIMIT = 10_000;
+    private static final ConcurrentHashMap<String, String> DICTIONARY = new ConcurrentHashMap<>();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AssetTags() {
+    }
+
+    public static String intern(String tag) {
+        if (tag == null) return null;
+        String shared = DICTIONARY.get(tag);
+        if (shared != null) return shared;
+        if (DICTIONARY.size() >= DICTIONARY_LIMIT) return tag;
+        shared = DICTIONARY.putIfAbsent(tag, tag);
+        return shared != null ? shared : tag;
+    }
+
+    /**
+     * Trimmed, non-blank, capped at MAX_LENGTH, input order kept. Duplicates are dropped the way
+     * the (asset_id, tag) key compares them under MySQL's default case- and accent-insensitive
+     * collation, so "Core"/"core" or "café"/"cafe" keep only the first spelling instead of
+     * failing the insert.
+     */
+    public static Set<String> normalize(Collection<?> raw) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (raw == null) return tags;
+        Set<String> seen = new HashSet<>();
+        for (Object o : raw) {
+            if (o == null) continue;
+            String t = o.toString().trim();
+            if (t.isEmpty()) continue;
+            if (t.length() > MAX_LENGTH) t = t.substring(0, MAX_LENGTH);
+            if (seen.add(collationKey(t))) tags.add(intern(t));
+        }
+        return tags;
+    }
+
+    // Accents stripped and case folded, close to what utf8mb4_0900_ai_ci treats as equal
+    static String collationKey(String tag) {
+        String decomposed = Normalizer.normalize(tag, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return decomposed.toLowerCase(Locale.ROOT);
+    }
+
+    // The JSON array format tags were stored in before asset_tags; malformed input yields no tags
+    public static Set<String> fromJson(String json) {
+        if (json == null || json.isBlank()) return new LinkedHashSet<>();
+        try {
+            return normalize(MAPPER.readValue(json, new TypeReference<List<Object>>() {}));
+        } catch (Exception e) {
+            return new LinkedHashSet<>();
+        }
+    }
+
+    @Converter
+    public static class Interner implements AttributeConverter<String, String> {
+
+        @Override
+        public String convertToDatabaseColumn(String tag) {
+            return tag;
+        }
+
+        @Override
+        public String convertToEntityAttribute(String tag) {
+            return intern(tag);
+        }
+    }
+}
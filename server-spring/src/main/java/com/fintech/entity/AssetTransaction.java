@@ -0,0 +1,91 @@
+package com.fintech.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One buy or sell in the ledger. Keyed by (user, symbol) rather than by the {@link Asset} row,
+ * so history survives the position being closed and reopened.
+ */
+@Entity
+@Table(
+        name = "asset_transactions",
+        indexes = @Index(name = "idx_asset_tx_user_symbol_date", columnList = "user_id, symbol, trade_date")
+)
+public class AssetTransaction {
+
+    public enum Side { BUY, SELL }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Asset.AssetType assetType;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Side side;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal quantity;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal price;
+
+    // Brokerage and charges: added to cost on a buy, deducted from proceeds on a sell
+    @Column(nullable = false, precision = 18, scale = 4)
+    private BigDecimal fees = BigDecimal.ZERO;
+
+    @Column(name = "trade_date", nullable = false)
+    private LocalDate tradeDate;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // ---------------------- Getters & Setters ----------------------
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Asset.AssetType getAssetType() { return assetType; }
+    public void setAssetType(Asset.AssetType assetType) { this.assetType = assetType; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public Side getSide() { return side; }
+    public void setSide(Side side) { this.side = side; }
+
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public BigDecimal getFees() { return fees; }
+    public void setFees(BigDecimal fees) { this.fees = fees; }
+
+    public LocalDate getTradeDate() { return tradeDate; }
+    public void setTradeDate(LocalDate tradeDate) { this.tradeDate = tradeDate; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,85 @@
+package com.fintech.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A user's capital gains for one financial year as computed by the year-end run. Written in bulk
+ * by {@code CapitalGainsReportService}; re-running a year overwrites its rows.
+ * Amounts are in INR, with foreign lots converted at the rates current when the run computed them.
+ */
+@Entity
+@Table(
+        name = "capital_gains_statements",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "financial_year"})
+)
+public class CapitalGainsStatement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // "2025-26"
+    @Column(name = "financial_year", nullable = false, length = 7)
+    private String financialYear;
+
+    private double shortTermGain;
+    private double longTermGain;
+    private double vdaGain;
+
+    // Open lots at the price snapshot when the run happened
+    private double unrealizedShortTerm;
+    private double unrealizedLongTerm;
+    private double unrealizedVda;
+
+    private double proceeds;
+    private double costBasis;
+    private int realizedLots;
+
+    @Column(nullable = false)
+    private Instant computedAt;
+
+    // ---------------------- Getters & Setters ----------------------
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getFinancialYear() { return financialYear; }
+    public void setFinancialYear(String financialYear) { this.financialYear = financialYear; }
+
+    public double getShortTermGain() { return shortTermGain; }
+    public void setShortTermGain(double shortTermGain) { this.shortTermGain = shortTermGain; }
+
+    public double getLongTermGain() { return longTermGain; }
+    public void setLongTermGain(double longTermGain) { this.longTermGain = longTermGain; }
+
+    public double getVdaGain() { return vdaGain; }
+    public void setVdaGain(double vdaGain) { this.vdaGain = vdaGain; }
+
+    public double getUnrealizedShortTerm() { return unrealizedShortTerm; }
+    public void setUnrealizedShortTerm(double unrealizedShortTerm) { this.unrealizedShortTerm = unrealizedShortTerm; }
+
+    public double getUnrealizedLongTerm() { return unrealizedLongTerm; }
+    public void setUnrealizedLongTerm(double unrealizedLongTerm) { this.unrealizedLongTerm = unrealizedLongTerm; }
+
+    public double getUnrealizedVda() { return unrealizedVda; }
+    public void setUnrealizedVda(double unrealizedVda) { this.unrealizedVda = unrealizedVda; }
+
+    public double getProceeds() { return proceeds; }
+    public void setProceeds(double proceeds) { this.proceeds = proceeds; }
+
+    public double getCostBasis() { return costBasis; }
+    public void setCostBasis(double costBasis) { this.costBasis = costBasis; }
+
+    public int getRealizedLots() { return realizedLots; }
+    public void setRealizedLots(int realizedLots) { this.realizedLots = realizedLots; }
+
+    public Instant getComputedAt() { return computedAt; }
+    public void setComputedAt(Instant computedAt) { this.computedAt = computedAt; }
+}
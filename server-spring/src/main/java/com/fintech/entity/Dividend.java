@@ -4,7 +4,16 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "dividends")
+@Table(
+        name = "dividends",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_dividends_ticker_ex_date", columnNames = {"ticker", "ex_date"})
+        },
+        // ticker lookups use the unique key's leading column; calendar windows scan by ex_date
+        indexes = {
+                @Index(name = "idx_dividends_ex_date", columnList = "ex_date")
+        }
+)
 public class Dividend {
 
     @Id
@@ -0,0 +1,46 @@
+package com.fintech.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Per-ticker high-water mark for dividend ingestion: how far back the daily series has
+ * already been scanned, and the newest ex-date found. Nightly runs only parse newer days.
+ */
+@Entity
+@Table(name = "dividend_watermarks")
+public class DividendWatermark {
+
+    @Id
+    @Column(length = 64)
+    private String ticker;
+
+    // Newest ex-date ingested for this ticker (null if it has never paid one)
+    private LocalDate lastExDate;
+
+    // Newest trading day already scanned; everything up to here is known
+    @Column(nullable = false)
+    private LocalDate scannedThrough;
+
+    private Instant updatedAt;
+
+    public DividendWatermark() {}
+
+    public DividendWatermark(String ticker) {
+        this.ticker = ticker;
+    }
+
+    // Getters and setters
+    public String getTicker() { return ticker; }
+    public void setTicker(String ticker) { this.ticker = ticker; }
+
+    public LocalDate getLastExDate() { return lastExDate; }
+    public void setLastExDate(LocalDate lastExDate) { this.lastExDate = lastExDate; }
+
+    public LocalDate getScannedThrough() { return scannedThrough; }
+    public void setScannedThrough(LocalDate scannedThrough) { this.scannedThrough = scannedThrough; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,71 @@
+package com.fintech.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Progress marker for long-running batch jobs so a restart can pick up where the last run stopped.
+ * {@code cursor} is the last key (in job order) below which every item has been processed.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    public enum Status {
+        RUNNING, COMPLETED
+    }
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    // CURSOR is reserved in MySQL
+    @Column(name = "resume_cursor")
+    private String cursor;
+
+    private long total;
+
+    private long processed;
+
+    private long failed;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+    public JobCheckpoint() {}
+
+    public JobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    // Getters and setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
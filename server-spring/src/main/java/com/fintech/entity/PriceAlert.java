@@ -0,0 +1,118 @@
+package com.fintech.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "price_alerts",
+        // The engine reloads active alerts at startup; users list their own
+        indexes = {
+                @Index(name = "idx_price_alerts_status", columnList = "status"),
+                @Index(name = "idx_price_alerts_user_status", columnList = "user_id, status")
+        }
+)
+public class PriceAlert {
+
+    public enum Condition {
+        ABOVE, BELOW, PCT_UP, PCT_DOWN;
+
+        // Fires when the price rises to the trigger price (as opposed to falling to it)
+        public boolean isUpward() {
+            return this == ABOVE || this == PCT_UP;
+        }
+
+        public boolean isPercent() {
+            return this == PCT_UP || this == PCT_DOWN;
+        }
+    }
+
+    public enum Status { ACTIVE, TRIGGERED, CANCELLED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Asset.AssetType assetType;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_condition", nullable = false)
+    private Condition condition;
+
+    // Absolute price for ABOVE/BELOW, percent for PCT_UP/PCT_DOWN
+    @Column(name = "threshold_value", nullable = false, precision = 18, scale = 8)
+    private BigDecimal value;
+
+    // Price when a percent alert was created
+    @Column(precision = 18, scale = 8)
+    private BigDecimal referencePrice;
+
+    // Absolute level the engine compares ticks against
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal triggerPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.ACTIVE;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private Instant triggeredAt;
+
+    @Column(precision = 18, scale = 8)
+    private BigDecimal triggeredPrice;
+
+    // ---------------------- Getters & Setters ----------------------
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Asset.AssetType getAssetType() { return assetType; }
+    public void setAssetType(Asset.AssetType assetType) { this.assetType = assetType; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public Condition getCondition() { return condition; }
+    public void setCondition(Condition condition) { this.condition = condition; }
+
+    public BigDecimal getValue() { return value; }
+    public void setValue(BigDecimal value) { this.value = value; }
+
+    public BigDecimal getReferencePrice() { return referencePrice; }
+    public void setReferencePrice(BigDecimal referencePrice) { this.referencePrice = referencePrice; }
+
+    public BigDecimal getTriggerPrice() { return triggerPrice; }
+    public void setTriggerPrice(BigDecimal triggerPrice) { this.triggerPrice = triggerPrice; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Instant getTriggeredAt() { return triggeredAt; }
+    public void setTriggeredAt(Instant triggeredAt) { this.triggeredAt = triggeredAt; }
+
+    public BigDecimal getTriggeredPrice() { return triggeredPrice; }
+    public void setTriggeredPrice(BigDecimal triggeredPrice) { this.triggeredPrice = triggeredPrice; }
+}
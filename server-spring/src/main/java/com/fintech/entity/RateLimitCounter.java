@@ -0,0 +1,39 @@
+package com.fintech.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Row backing the shared rate-limit store. Only written through native upserts in
+ * {@link com.fintech.ratelimit.JdbcSharedCounterBackend}; mapped here so the table is
+ * managed alongside the rest of the schema.
+ */
+@Entity
+@Table(
+        name = "rate_limit_counters",
+        indexes = {
+                @Index(name = "idx_rate_limit_counters_expires_at", columnList = "expires_at")
+        }
+)
+public class RateLimitCounter {
+
+    // bucket key + window index, e.g. "api:10.0.0.1:28930211"
+    @Id
+    @Column(name = "bucket_key", length = 191)
+    private String bucketKey;
+
+    @Column(nullable = false)
+    private long tokens;
+
+    // epoch millis when the window ends
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    public String getBucketKey() { return bucketKey; }
+    public void setBucketKey(String bucketKey) { this.bucketKey = bucketKey; }
+
+    public long getTokens() { return tokens; }
+    public void setTokens(long tokens) { this.tokens = tokens; }
+
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+}
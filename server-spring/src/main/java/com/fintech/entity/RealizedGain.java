@@ -0,0 +1,107 @@
+package com.fintech.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The part of a sell matched against one lot. Acquisition and sale dates are kept on the row so
+ * holding-period reports don't need to join back to lots or transactions.
+ */
+@Entity
+@Table(
+        name = "realized_gains",
+        indexes = @Index(name = "idx_realized_gains_user_sold", columnList = "user_id, sold_on")
+)
+public class RealizedGain {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Asset.AssetType assetType;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sell_transaction_id", nullable = false)
+    @JsonIgnore
+    private AssetTransaction sellTransaction;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lot_id", nullable = false)
+    @JsonIgnore
+    private TaxLot lot;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal quantity;
+
+    @Column(name = "acquired_on", nullable = false)
+    private LocalDate acquiredOn;
+
+    @Column(name = "sold_on", nullable = false)
+    private LocalDate soldOn;
+
+    // Net of the sell's fees, apportioned by quantity
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal proceeds;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal costBasis;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal gain;
+
+    @JsonProperty("lotId")
+    public Long getLotId() {
+        return lot != null ? lot.getId() : null;
+    }
+
+    // ---------------------- Getters & Setters ----------------------
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Asset.AssetType getAssetType() { return assetType; }
+    public void setAssetType(Asset.AssetType assetType) { this.assetType = assetType; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public AssetTransaction getSellTransaction() { return sellTransaction; }
+    public void setSellTransaction(AssetTransaction sellTransaction) { this.sellTransaction = sellTransaction; }
+
+    public TaxLot getLot() { return lot; }
+    public void setLot(TaxLot lot) { this.lot = lot; }
+
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+
+    public LocalDate getAcquiredOn() { return acquiredOn; }
+    public void setAcquiredOn(LocalDate acquiredOn) { this.acquiredOn = acquiredOn; }
+
+    public LocalDate getSoldOn() { return soldOn; }
+    public void setSoldOn(LocalDate soldOn) { this.soldOn = soldOn; }
+
+    public BigDecimal getProceeds() { return proceeds; }
+    public void setProceeds(BigDecimal proceeds) { this.proceeds = proceeds; }
+
+    public BigDecimal getCostBasis() { return costBasis; }
+    public void setCostBasis(BigDecimal costBasis) { this.costBasis = costBasis; }
+
+    public BigDecimal getGain() { return gain; }
+    public void setGain(BigDecimal gain) { this.gain = gain; }
+}
@@ -0,0 +1,43 @@
+package com.fintech.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Currency a listing is quoted in, as Yahoo last reported it. Kept per symbol rather than per
+ * holding: every holding and watchlist entry of a listing shares it, and it survives restarts so
+ * bare symbols (AAPL, MSFT) are converted before the first quote of the day arrives.
+ */
+@Entity
+@Table(name = "symbol_currencies")
+public class SymbolCurrency {
+
+    // Upper-cased Yahoo symbol
+    @Id
+    @Column(length = 64)
+    private String symbol;
+
+    // Code as Yahoo reports it ("GBp" for pence), including codes no FX rate is carried for
+    @Column(nullable = false, length = 8)
+    private String currency;
+
+    private Instant updatedAt;
+
+    public SymbolCurrency() {}
+
+    public SymbolCurrency(String symbol, String currency, Instant updatedAt) {
+        this.symbol = symbol;
+        this.currency = currency;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,87 @@
+package com.fintech.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units acquired together at one cost. Buys open a lot; sells draw lots down. A lot without a
+ * buy transaction is an opening lot for quantity that was entered directly on the holding.
+ */
+@Entity
+@Table(
+        name = "tax_lots",
+        // Sells read a position's open lots oldest first
+        indexes = @Index(name = "idx_tax_lots_user_symbol_acquired", columnList = "user_id, symbol, acquired_on")
+)
+public class TaxLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Asset.AssetType assetType;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "buy_transaction_id")
+    @JsonIgnore
+    private AssetTransaction buyTransaction;
+
+    @Column(name = "acquired_on", nullable = false)
+    private LocalDate acquiredOn;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal quantity;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal remainingQuantity;
+
+    // Buy price plus the buy's fees spread over its units
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal unitCost;
+
+    @JsonIgnore
+    public boolean isOpen() {
+        return remainingQuantity.signum() > 0;
+    }
+
+    // ---------------------- Getters & Setters ----------------------
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Asset.AssetType getAssetType() { return assetType; }
+    public void setAssetType(Asset.AssetType assetType) { this.assetType = assetType; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public AssetTransaction getBuyTransaction() { return buyTransaction; }
+    public void setBuyTransaction(AssetTransaction buyTransaction) { this.buyTransaction = buyTransaction; }
+
+    public LocalDate getAcquiredOn() { return acquiredOn; }
+    public void setAcquiredOn(LocalDate acquiredOn) { this.acquiredOn = acquiredOn; }
+
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+
+    public BigDecimal getRemainingQuantity() { return remainingQuantity; }
+    public void setRemainingQuantity(BigDecimal remainingQuantity) { this.remainingQuantity = remainingQuantity; }
+
+    public BigDecimal getUnitCost() { return unitCost; }
+    public void setUnitCost(BigDecimal unitCost) { this.unitCost = unitCost; }
+}
@@ -0,0 +1,39 @@
+package com.fintech.metrics;
+
+import io.micrometer.common.KeyValue;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+import java.util.regex.Pattern;
+
+/**
+ * RestTemplate observations for provider calls. The services pass fully built URLs (or pre-encoded
+ * {@code java.net.URI}s with no template at all), so the default {@code uri} tag would carry every
+ * symbol and query string, one time series per ticker; this keeps the path only and collapses the
+ * chart symbol. API keys are masked in the {@code http.url} span attribute.
+ */
+public class UpstreamClientRequestObservationConvention extends DefaultClientRequestObservationConvention {
+
+    private static final Pattern CHART_SYMBOL = Pattern.compile("(/finance/chart/)[^/]+");
+    private static final Pattern API_KEY = Pattern.compile("(?i)(apikey=)[^&]*");
+
+    @Override
+    protected KeyValue uri(ClientRequestObservationContext context) {
+        KeyValue uri = super.uri(context);
+        String path = uri.getValue();
+        // Requests sent as a java.net.URI have no template; use the request path instead of "none"
+        if (context.getUriTemplate() == null && context.getCarrier() != null) {
+            path = context.getCarrier().getURI().getRawPath();
+        }
+        int query = path.indexOf('?');
+        if (query >= 0) path = path.substring(0, query);
+        path = CHART_SYMBOL.matcher(path).replaceFirst("$1{symbol}");
+        return KeyValue.of(uri.getKey(), path.isEmpty() ? "/" : path);
+    }
+
+    @Override
+    protected KeyValue requestUri(ClientRequestObservationContext context) {
+        KeyValue url = super.requestUri(context);
+        return KeyValue.of(url.getKey(), API_KEY.matcher(url.getValue()).replaceAll("$1****"));
+    }
+}
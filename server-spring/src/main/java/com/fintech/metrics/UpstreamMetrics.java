@@ -0,0 +1,166 @@
+package com.fintech.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Instrumentation for calls to market-data providers. Each call is an observation named
+ * {@code upstream.requests}: a timer tagged {@code provider}, {@code operation} and {@code outcome},
+ * and a span that is a child of the current HTTP request (and the parent of the RestTemplate's
+ * client span). Whole lookups that fan out over several providers are timed as {@code upstream.lookups},
+ * and served hard-coded data is counted in {@code upstream.fallbacks}.
+ */
+@Component
+public class UpstreamMetrics {
+
+    public enum Outcome {
+        HIT, MISS, ERROR, RATE_LIMITED;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @FunctionalInterface
+    public interface UpstreamCall<T> {
+        T call() throws Exception;
+    }
+
+    // For providers that signal quota exhaustion in the body of a 200 response
+    public static class RateLimitedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        public RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    private final ObservationRegistry observations;
+    private final MeterRegistry meters;
+
+    public UpstreamMetrics(ObservationRegistry observations, MeterRegistry meters) {
+        this.observations = observations;
+        this.meters = meters;
+    }
+
+    // Empty/null results count as a miss
+    public <T> T observe(String provider, String operation, UpstreamCall<T> call) throws Exception {
+        return observe(provider, operation, call, UpstreamMetrics::classify);
+    }
+
+    public <T> T observe(String provider, String operation, UpstreamCall<T> call,
+                         Function<? super T, Outcome> classifier) throws Exception {
+        Observation observation = startRequest(provider, operation);
+        try {
+            T result = observation.scopedChecked(call::call);
+            observation.lowCardinalityKeyValue("outcome", classifier.apply(result).tag());
+            return result;
+        } catch (Exception e) {
+            failed(observation, e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    // Same as observe, for calls made on a non-blocking client: the observation stops when the future completes
+    public <T> CompletableFuture<T> observeAsync(String provider, String operation,
+                                                 Supplier<CompletableFuture<T>> call,
+                                                 Function<? super T, Outcome> classifier) {
+        Observation observation = startRequest(provider, operation);
+        CompletableFuture<T> future;
+        try {
+            future = observation.scoped(call);
+        } catch (RuntimeException e) {
+            failed(observation, e);
+            observation.stop();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            if (error == null) {
+                observation.lowCardinalityKeyValue("outcome", classifier.apply(result).tag());
+            } else {
+                failed(observation, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+            observation.stop();
+        });
+    }
+
+    // End-to-end time of a lookup that may fan out to several providers and fallbacks
+    public <T> T observeLookup(String operation, Supplier<T> lookup) {
+        return Observation.createNotStarted("upstream.lookups", observations)
+                .contextualName(operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .observe(lookup);
+    }
+
+    public <T> CompletableFuture<T> observeLookupAsync(String operation, Supplier<CompletableFuture<T>> lookup) {
+        Observation observation = Observation.createNotStarted("upstream.lookups", observations)
+                .contextualName(operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+        CompletableFuture<T> future;
+        try {
+            future = observation.scoped(lookup);
+        } catch (RuntimeException e) {
+            observation.error(e);
+            observation.stop();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            if (error != null) observation.error(error);
+            observation.stop();
+        });
+    }
+
+    // Hard-coded data was served because every provider came up empty
+    public void fallback(String operation) {
+        Counter.builder("upstream.fallbacks")
+                .description("Responses served from hard-coded data after all providers failed")
+                .tag("operation", operation)
+                .register(meters)
+                .increment();
+    }
+
+    private Observation startRequest(String provider, String operation) {
+        return Observation.createNotStarted("upstream.requests", observations)
+                .contextualName(provider + " " + operation)
+                .lowCardinalityKeyValue("provider", provider)
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+    }
+
+    private static void failed(Observation observation, Throwable error) {
+        Outcome outcome = error instanceof HttpClientErrorException.TooManyRequests || error instanceof RateLimitedException
+                ? Outcome.RATE_LIMITED : Outcome.ERROR;
+        observation.lowCardinalityKeyValue("outcome", outcome.tag());
+        observation.error(error);
+    }
+
+    // AlphaVantage answers quota exhaustion with a 200 and a "Note"/"Information" message
+    public static Outcome classifyAlphaVantage(String body) {
+        if (body == null || body.isEmpty()) return Outcome.MISS;
+        if (body.contains("\"Note\"") || body.contains("\"Information\"")) return Outcome.RATE_LIMITED;
+        return Outcome.HIT;
+    }
+
+    public static Outcome classify(Object result) {
+        if (result == null) return Outcome.MISS;
+        if (result instanceof CharSequence s && s.length() == 0) return Outcome.MISS;
+        if (result instanceof Collection<?> c && c.isEmpty()) return Outcome.MISS;
+        if (result instanceof Map<?, ?> m && m.isEmpty()) return Outcome.MISS;
+        return Outcome.HIT;
+    }
+}
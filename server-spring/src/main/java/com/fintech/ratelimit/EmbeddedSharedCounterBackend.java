@@ -0,0 +1,33 @@
+package com.fintech.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a shared counter store. Several {@link LeasingRateLimitStore}
+ * instances pointed at one of these behave like separate nodes sharing a real backend,
+ * which is how the leasing logic is exercised locally without a database.
+ */
+public class EmbeddedSharedCounterBackend implements SharedCounterBackend {
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final class Counter {
+        final long expiresAtMillis;
+        final AtomicLong total = new AtomicLong();
+
+        Counter(long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    @Override
+    public long addAndGet(String key, long delta, long expiresAtMillis) {
+        return counters.computeIfAbsent(key, k -> new Counter(expiresAtMillis)).total.addAndGet(delta);
+    }
+
+    @Override
+    public void purgeExpired(long nowMillis) {
+        counters.entrySet().removeIf(entry -> entry.getValue().expiresAtMillis < nowMillis);
+    }
+}
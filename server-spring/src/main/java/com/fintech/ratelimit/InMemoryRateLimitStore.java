@@ -0,0 +1,45 @@
+package com.fintech.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-JVM fixed-window counters. Each node enforces the full limit on its own,
+ * so behind a load balancer a client effectively gets limit x node count.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final ConcurrentHashMap<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    private record Window(long startMillis, int count) {}
+
+    @Override
+    public boolean tryAcquire(String bucketKey, int maxPerWindow, long windowMillis) {
+        long now = System.currentTimeMillis();
+
+        AtomicReference<Window> ref = windows.get(bucketKey);
+        if (ref == null) {
+            ref = windows.computeIfAbsent(bucketKey, k -> new AtomicReference<>(new Window(now, 0)));
+        }
+
+        // Compare-and-set instead of a monitor: every request passes through here, and contended
+        // monitors park the carrier thread when requests run on virtual threads
+        while (true) {
+            Window current = ref.get();
+            Window next;
+            if (now - current.startMillis() >= windowMillis) {
+                next = new Window(now, 1);
+            } else if (current.count() >= maxPerWindow) {
+                return false;
+            } else {
+                next = new Window(current.startMillis(), current.count() + 1);
+            }
+            if (ref.compareAndSet(current, next)) return true;
+        }
+    }
+
+    @Override
+    public void evictExpired(long nowMillis, long windowMillis) {
+        windows.entrySet().removeIf(entry -> nowMillis - entry.getValue().get().startMillis() > windowMillis);
+    }
+}
@@ -0,0 +1,52 @@
+package com.fintech.ratelimit;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Shared counters kept in the application's MySQL database (table {@code rate_limit_counters},
+ * created from {@link com.fintech.entity.RateLimitCounter}). Every node already talks to this
+ * database, so no extra infrastructure is needed to share limits.
+ */
+public class JdbcSharedCounterBackend implements SharedCounterBackend {
+
+    // LAST_INSERT_ID(expr) stores the new total on this connection, so the follow-up read
+    // sees exactly our increment even when other nodes update the same row concurrently.
+    private static final String UPSERT_SQL =
+            "INSERT INTO rate_limit_counters (bucket_key, tokens, expires_at) VALUES (?, LAST_INSERT_ID(?), ?) "
+                    + "ON DUPLICATE KEY UPDATE tokens = LAST_INSERT_ID(tokens + ?)";
+
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_counters WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcSharedCounterBackend(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long addAndGet(String key, long delta, long expiresAtMillis) {
+        Long total = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(UPSERT_SQL)) {
+                ps.setString(1, key);
+                ps.setLong(2, delta);
+                ps.setLong(3, expiresAtMillis);
+                ps.setLong(4, delta);
+                ps.executeUpdate();
+            }
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+                return rs.next() ? rs.getLong(1) : delta;
+            }
+        });
+        return total != null ? total : delta;
+    }
+
+    @Override
+    public void purgeExpired(long nowMillis) {
+        jdbcTemplate.update(PURGE_SQL, nowMillis);
+    }
+}
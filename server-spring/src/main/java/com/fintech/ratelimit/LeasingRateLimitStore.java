@@ -0,0 +1,110 @@
+package com.fintech.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cluster-wide fixed-window limiting on top of a {@link SharedCounterBackend}.
+ *
+ * <p>Instead of a round trip per request, each node leases a batch of tokens from the
+ * shared counter and serves requests from that lease locally. Windows are aligned to the
+ * epoch ({@code now / window}) so every node agrees on which window a request falls in.
+ * Tokens left in a lease when the window ends are simply dropped, so the worst case is a
+ * client getting slightly fewer than the limit, never more.
+ *
+ * <p>If the backend is unreachable the store degrades to per-node limiting rather than
+ * failing requests.
+ */
+public class LeasingRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeasingRateLimitStore.class);
+
+    // A single lease never takes more than this fraction of a window's budget,
+    // so one node can't strand most of a small limit (e.g. 25/min on auth).
+    private static final int MAX_LEASE_FRACTION = 4;
+
+    private final SharedCounterBackend backend;
+    private final int leaseSize;
+    private final RateLimitStore fallback = new InMemoryRateLimitStore();
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicBoolean backendHealthy = new AtomicBoolean(true);
+
+    private static final class Lease {
+        final long windowIndex;
+        final ReentrantLock lock = new ReentrantLock();
+        int remaining;
+        boolean exhausted;
+
+        Lease(long windowIndex) {
+            this.windowIndex = windowIndex;
+        }
+    }
+
+    public LeasingRateLimitStore(SharedCounterBackend backend, int leaseSize) {
+        this.backend = backend;
+        this.leaseSize = Math.max(1, leaseSize);
+    }
+
+    @Override
+    public boolean tryAcquire(String bucketKey, int maxPerWindow, long windowMillis) {
+        long window = System.currentTimeMillis() / windowMillis;
+        Lease lease = leases.compute(bucketKey, (k, l) -> l == null || l.windowIndex != window ? new Lease(window) : l);
+
+        lease.lock.lock();
+        try {
+            if (lease.remaining > 0) {
+                lease.remaining--;
+                return true;
+            }
+            // Another node (or this one) already used up the shared budget for this window
+            if (lease.exhausted) {
+                return false;
+            }
+
+            int requested = leaseSizeFor(maxPerWindow);
+            long total;
+            try {
+                total = backend.addAndGet(bucketKey + ":" + window, requested, (window + 1) * windowMillis);
+                if (backendHealthy.compareAndSet(false, true)) {
+                    logger.info("Shared rate-limit backend reachable again");
+                }
+            } catch (RuntimeException e) {
+                if (backendHealthy.compareAndSet(true, false)) {
+                    logger.warn("Shared rate-limit backend unavailable, limiting per node: {}", e.getMessage());
+                }
+                return fallback.tryAcquire(bucketKey, maxPerWindow, windowMillis);
+            }
+
+            long usedBefore = total - requested;
+            int granted = (int) Math.max(0, Math.min(requested, maxPerWindow - usedBefore));
+            if (granted == 0) {
+                lease.exhausted = true;
+                return false;
+            }
+            lease.remaining = granted - 1;
+            return true;
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    @Override
+    public void evictExpired(long nowMillis, long windowMillis) {
+        long currentWindow = nowMillis / windowMillis;
+        leases.entrySet().removeIf(entry -> entry.getValue().windowIndex < currentWindow);
+        fallback.evictExpired(nowMillis, windowMillis);
+        try {
+            backend.purgeExpired(nowMillis);
+        } catch (RuntimeException e) {
+            logger.debug("Could not purge expired rate-limit counters: {}", e.getMessage());
+        }
+    }
+
+    private int leaseSizeFor(int maxPerWindow) {
+        return Math.max(1, Math.min(leaseSize, maxPerWindow / MAX_LEASE_FRACTION));
+    }
+}
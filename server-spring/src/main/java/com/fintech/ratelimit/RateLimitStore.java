@@ -0,0 +1,20 @@
+package com.fintech.ratelimit;
+
+/**
+ * Backing store for the request counters used by {@link com.fintech.RateLimitFilter}.
+ * The in-memory store limits per JVM; the leasing store shares one budget across all nodes.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one request out of the bucket's current window.
+     *
+     * @return true if the request fits within {@code maxPerWindow}
+     */
+    boolean tryAcquire(String bucketKey, int maxPerWindow, long windowMillis);
+
+    /**
+     * Drops state for windows that have already ended.
+     */
+    void evictExpired(long nowMillis, long windowMillis);
+}
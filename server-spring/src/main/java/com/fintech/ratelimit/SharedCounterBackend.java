@@ -0,0 +1,19 @@
+package com.fintech.ratelimit;
+
+/**
+ * Cluster-wide atomic counters used by {@link LeasingRateLimitStore}.
+ * Every node must talk to the same backend for limits to be shared.
+ */
+public interface SharedCounterBackend {
+
+    /**
+     * Atomically adds {@code delta} to the counter for {@code key} and returns the new total.
+     * A missing counter starts at zero and may be discarded once {@code expiresAtMillis} has passed.
+     */
+    long addAndGet(String key, long delta, long expiresAtMillis);
+
+    /**
+     * Removes counters whose expiry is before {@code nowMillis}.
+     */
+    void purgeExpired(long nowMillis);
+}
@@ -0,0 +1,63 @@
+package com.fintech.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking token bucket for pacing outbound calls to a provider's quota
+ * (e.g. AlphaVantage's requests per minute). Callers block in {@link #acquire()}
+ * until a token is available instead of burning a request on a rate-limit response.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double tokensPerMinute, int burst) {
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = tokensPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            lock.lock();
+            try {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            } finally {
+                lock.unlock();
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1_000_000L));
+        }
+    }
+
+    // Takes a token only if one is available now; for callers that would rather skip than wait
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            refill();
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -1,15 +1,53 @@
 package com.fintech.repository;
 
+import com.fintech.dto.AssetExportRow;
+import com.fintech.dto.TagCount;
 import com.fintech.entity.Asset;
 import com.fintech.entity.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AssetRepository extends JpaRepository<Asset, Long> {
+public interface AssetRepository extends JpaRepository<Asset, Long>, AssetRepositoryCustom {
     List<Asset> findByUser(User user);
     List<Asset> findByUserAndType(User user, Asset.AssetType type);
     Optional<Asset> findByIdAndUser(Long id, User user);
+    Optional<Asset> findByUserAndSymbolIgnoreCase(User user, String symbol);
+
+    // Row lock on the position so concurrent trades on one holding apply one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Asset a where a.user = :user and upper(a.symbol) = upper(:symbol)")
+    Optional<Asset> findForUpdate(@Param("user") User user, @Param("symbol") String symbol);
+
+    @Query("select new com.fintech.dto.TagCount(t, count(a)) from Asset a join a.tags t where a.user = :user group by t order by t")
+    List<TagCount> countTagsByUser(@Param("user") User user);
+
+    @Query("select distinct a.symbol from Asset a where a.user = :user")
+    List<String> findSymbolsByUser(@Param("user") User user);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time instead of buffering the result;
+    // must be consumed inside a read-only transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.fintech.dto.AssetExportRow(a.id, a.type, a.symbol, a.name, a.quantity, a.avgBuyPrice, a.sector, a.createdAt, a.updatedAt) "
+            + "from Asset a where a.user = :user order by a.id")
+    Stream<AssetExportRow> streamExportRowsByUser(@Param("user") User user);
+
+    // Symbol universe across all users, in collation order; jobs that checkpoint by symbol re-sort in Java
+    @Query("select distinct upper(a.symbol) from Asset a where a.type in :types order by upper(a.symbol)")
+    List<String> findDistinctSymbolsByTypeIn(@Param("types") Collection<Asset.AssetType> types);
 }
@@ -0,0 +1,40 @@
+package com.fintech.repository;
+
+import com.fintech.dto.AssetFilter;
+import com.fintech.dto.AssetSortRow;
+import com.fintech.entity.Asset;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AssetRepositoryCustom {
+
+    /**
+     * Inserts or updates a user's holdings keyed on (user_id, symbol) using batched
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} statements. Bypasses Hibernate, whose
+     * IDENTITY ids rule out insert batching. Tags are replaced for rows that carry any and
+     * left alone otherwise.
+     *
+     * @return number of rows written
+     */
+    int upsertAll(Long userId, Collection<Asset> assets);
+
+    /**
+     * Copies up to {@code limit} assets' tags from the JSON {@code assets.tags} column used before
+     * {@code asset_tags} into the join table and clears the column, so each row migrates once.
+     *
+     * @return number of assets migrated; 0 once done or when the column never existed
+     */
+    int migrateLegacyJsonTags(int limit);
+
+    /**
+     * One keyset page of a user's holdings matching {@code filter}, ordered by (name, id) or by id
+     * alone. Rows strictly after ({@code afterName}, {@code afterId}) in that order are returned;
+     * pass nulls for the first page.
+     */
+    List<Asset> findPage(Long userId, AssetFilter filter, boolean byName, boolean descending,
+                         String afterName, Long afterId, int limit);
+
+    // Every holding matching the filter, for orderings computed from live prices
+    List<AssetSortRow> findSortRows(Long userId, AssetFilter filter);
+}
@@ -0,0 +1,185 @@
+package com.fintech.repository;
+
+import com.fintech.dto.AssetFilter;
+import com.fintech.dto.AssetSortRow;
+import com.fintech.entity.Asset;
+import com.fintech.entity.AssetTags;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Spring Data picks this up as the implementation of AssetRepositoryCustom
+public class AssetRepositoryImpl implements AssetRepositoryCustom {
+
+    // Sector and tags only change when the new row carries them
+    private static final String UPSERT_SQL =
+            "INSERT INTO assets (user_id, type, symbol, name, quantity, avg_buy_price, sector, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "type = VALUES(type), "
+                    + "name = VALUES(name), "
+                    + "quantity = VALUES(quantity), "
+                    + "avg_buy_price = VALUES(avg_buy_price), "
+                    + "sector = COALESCE(VALUES(sector), sector), "
+                    + "updated_at = VALUES(updated_at)";
+
+    // Upserted rows have no ids client-side, so tags are keyed through (user_id, symbol)
+    private static final String DELETE_TAGS_SQL =
+            "DELETE FROM asset_tags WHERE asset_id = (SELECT id FROM assets WHERE user_id = ? AND symbol = ?)";
+    private static final String INSERT_TAG_SQL =
+            "INSERT INTO asset_tags (asset_id, tag) SELECT id, ? FROM assets WHERE user_id = ? AND symbol = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    public AssetRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int upsertAll(Long userId, Collection<Asset> assets) {
+        if (assets == null || assets.isEmpty()) return 0;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(assets), batchSize, (ps, a) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, a.getType().name());
+            ps.setString(3, a.getSymbol());
+            ps.setString(4, a.getName());
+            ps.setBigDecimal(5, a.getQuantity());
+            ps.setBigDecimal(6, a.getAvgBuyPrice());
+            if (a.getSector() != null) ps.setString(7, a.getSector()); else ps.setNull(7, Types.VARCHAR);
+            ps.setTimestamp(8, a.getCreatedAt() != null ? Timestamp.valueOf(a.getCreatedAt()) : now);
+            ps.setTimestamp(9, now);
+        });
+        replaceTags(userId, assets);
+        int written = 0;
+        for (int[] batch : counts) {
+            for (int c : batch) {
+                // MySQL reports 1 per insert, 2 per update, or SUCCESS_NO_INFO with rewritten batches
+                written += c == Statement.SUCCESS_NO_INFO ? 1 : Math.min(c, 1);
+            }
+        }
+        return written;
+    }
+
+    private void replaceTags(Long userId, Collection<Asset> assets) {
+        List<Asset> tagged = new ArrayList<>();
+        List<Object[]> tagRows = new ArrayList<>();
+        for (Asset a : assets) {
+            if (a.getTags() == null || a.getTags().isEmpty()) continue;
+            tagged.add(a);
+            for (String tag : a.getTags()) tagRows.add(new Object[]{tag, userId, a.getSymbol()});
+        }
+        if (tagged.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(DELETE_TAGS_SQL, tagged, batchSize, (ps, a) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, a.getSymbol());
+        });
+        jdbcTemplate.batchUpdate(INSERT_TAG_SQL, tagRows, batchSize, (ps, row) -> {
+            ps.setString(1, (String) row[0]);
+            ps.setLong(2, (Long) row[1]);
+            ps.setString(3, (String) row[2]);
+        });
+    }
+
+    @Override
+    @Transactional
+    public int migrateLegacyJsonTags(int limit) {
+        List<Map.Entry<Long, String>> rows;
+        try {
+            rows = jdbcTemplate.query("SELECT id, tags FROM assets WHERE tags IS NOT NULL LIMIT ?",
+                    (rs, i) -> Map.entry(rs.getLong(1), rs.getString(2)), limit);
+        } catch (BadSqlGrammarException e) {
+            // Schema created after the switch to asset_tags
+            return 0;
+        }
+        if (rows.isEmpty()) return 0;
+
+        List<Object[]> tagRows = new ArrayList<>();
+        for (Map.Entry<Long, String> row : rows) {
+            for (String tag : AssetTags.fromJson(row.getValue())) tagRows.add(new Object[]{row.getKey(), tag});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO asset_tags (asset_id, tag) VALUES (?, ?)", tagRows, batchSize, (ps, row) -> {
+            ps.setLong(1, (Long) row[0]);
+            ps.setString(2, (String) row[1]);
+        });
+        jdbcTemplate.batchUpdate("UPDATE assets SET tags = NULL WHERE id = ?", rows, batchSize,
+                (ps, row) -> ps.setLong(1, row.getKey()));
+        return rows.size();
+    }
+
+    @Override
+    public List<Asset> findPage(Long userId, AssetFilter filter, boolean byName, boolean descending,
+                                String afterName, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Asset> query = cb.createQuery(Asset.class);
+        Root<Asset> a = query.from(Asset.class);
+        List<Predicate> where = filterPredicates(cb, a, userId, filter);
+
+        Path<String> name = a.get("name");
+        Path<Long> id = a.get("id");
+        if (afterId != null) {
+            Predicate idAfter = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+            if (byName && afterName != null) {
+                Predicate nameAfter = descending ? cb.lessThan(name, afterName) : cb.greaterThan(name, afterName);
+                where.add(cb.or(nameAfter, cb.and(cb.equal(name, afterName), idAfter)));
+            } else {
+                where.add(idAfter);
+            }
+        }
+
+        query.select(a).where(where.toArray(new Predicate[0]));
+        if (byName) {
+            query.orderBy(descending ? cb.desc(name) : cb.asc(name), descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        }
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<AssetSortRow> findSortRows(Long userId, AssetFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AssetSortRow> query = cb.createQuery(AssetSortRow.class);
+        Root<Asset> a = query.from(Asset.class);
+        query.select(cb.construct(AssetSortRow.class,
+                        a.get("id"), a.get("type"), a.get("symbol"), a.get("quantity"), a.get("avgBuyPrice")))
+                .where(filterPredicates(cb, a, userId, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // The tag join goes through idx_asset_tags_tag; (asset_id, tag) is unique, so it can't duplicate rows
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Asset> a, Long userId, AssetFilter filter) {
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(a.get("user").get("id"), userId));
+        if (filter == null) return where;
+        if (filter.type() != null) where.add(cb.equal(a.get("type"), filter.type()));
+        if (filter.sector() != null) where.add(cb.equal(a.get("sector"), filter.sector()));
+        if (filter.tag() != null) where.add(cb.equal(a.join("tags"), filter.tag()));
+        return where;
+    }
+}
@@ -0,0 +1,15 @@
+package com.fintech.repository;
+
+import com.fintech.entity.AssetTransaction;
+import com.fintech.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AssetTransactionRepository extends JpaRepository<AssetTransaction, Long> {
+    List<AssetTransaction> findByUserOrderByTradeDateDescIdDesc(User user, Pageable page);
+    List<AssetTransaction> findByUserAndSymbolIgnoreCaseOrderByTradeDateDescIdDesc(User user, String symbol, Pageable page);
+}
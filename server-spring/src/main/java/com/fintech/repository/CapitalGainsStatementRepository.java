@@ -0,0 +1,12 @@
+package com.fintech.repository;
+
+import com.fintech.entity.CapitalGainsStatement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CapitalGainsStatementRepository extends JpaRepository<CapitalGainsStatement, Long>, CapitalGainsStatementRepositoryCustom {
+    Optional<CapitalGainsStatement> findByUserIdAndFinancialYear(Long userId, String financialYear);
+}
@@ -0,0 +1,15 @@
+package com.fintech.repository;
+
+import com.fintech.service.CapitalGains;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface CapitalGainsStatementRepositoryCustom {
+
+    /**
+     * Inserts or replaces the statements for {@code financialYear}, keyed on (user_id,
+     * financial_year), using batched {@code INSERT ... ON DUPLICATE KEY UPDATE} statements.
+     */
+    void upsertAll(String financialYear, Collection<CapitalGains.Totals> statements, Instant computedAt);
+}
@@ -0,0 +1,53 @@
+package com.fintech.repository;
+
+import com.fintech.service.CapitalGains;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+
+// Spring Data picks this up as the implementation of CapitalGainsStatementRepositoryCustom
+public class CapitalGainsStatementRepositoryImpl implements CapitalGainsStatementRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO capital_gains_statements (user_id, financial_year, short_term_gain, long_term_gain, vda_gain, "
+                    + "unrealized_short_term, unrealized_long_term, unrealized_vda, proceeds, cost_basis, realized_lots, computed_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "short_term_gain = VALUES(short_term_gain), long_term_gain = VALUES(long_term_gain), vda_gain = VALUES(vda_gain), "
+                    + "unrealized_short_term = VALUES(unrealized_short_term), unrealized_long_term = VALUES(unrealized_long_term), "
+                    + "unrealized_vda = VALUES(unrealized_vda), proceeds = VALUES(proceeds), cost_basis = VALUES(cost_basis), "
+                    + "realized_lots = VALUES(realized_lots), computed_at = VALUES(computed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    public CapitalGainsStatementRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(String financialYear, Collection<CapitalGains.Totals> statements, Instant computedAt) {
+        if (statements.isEmpty()) return;
+        Timestamp at = Timestamp.from(computedAt);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(statements), batchSize, (ps, t) -> {
+            ps.setLong(1, t.userId);
+            ps.setString(2, financialYear);
+            ps.setDouble(3, t.realized(CapitalGains.Term.SHORT));
+            ps.setDouble(4, t.realized(CapitalGains.Term.LONG));
+            ps.setDouble(5, t.realized(CapitalGains.Term.VDA));
+            ps.setDouble(6, t.unrealized(CapitalGains.Term.SHORT));
+            ps.setDouble(7, t.unrealized(CapitalGains.Term.LONG));
+            ps.setDouble(8, t.unrealized(CapitalGains.Term.VDA));
+            ps.setDouble(9, t.proceeds);
+            ps.setDouble(10, t.costBasis);
+            ps.setInt(11, t.realizedLots);
+            ps.setTimestamp(12, at);
+        });
+    }
+}
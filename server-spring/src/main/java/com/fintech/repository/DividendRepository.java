@@ -1,14 +1,30 @@
 package com.fintech.repository;
 
+import com.fintech.dto.UpcomingDividendRow;
 import com.fintech.entity.Dividend;
+import com.fintech.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface DividendRepository extends JpaRepository<Dividend, Long> {
+public interface DividendRepository extends JpaRepository<Dividend, Long>, DividendRepositoryCustom {
     List<Dividend> findByTickerOrderByExDateDesc(String ticker);
+    Optional<Dividend> findByTickerAndExDate(String ticker, Instant exDate);
     List<Dividend> findByExDateBetweenOrderByExDateAsc(Instant start, Instant end);
+
+    // The user's holdings joined to dividends going ex in the window; served by the
+    // (user_id, symbol) and (ticker, ex_date) keys, so only matching rows leave the database
+    @Query("select new com.fintech.dto.UpcomingDividendRow(a.id, a.symbol, a.name, a.quantity, d.amount, d.currency, d.exDate, d.payDate) "
+            + "from Asset a, Dividend d "
+            + "where a.user = :user and d.ticker = upper(a.symbol) and d.exDate between :start and :end "
+            + "order by d.exDate asc")
+    List<UpcomingDividendRow> findUpcomingForUser(@Param("user") User user,
+                                                  @Param("start") Instant start,
+                                                  @Param("end") Instant end);
 }
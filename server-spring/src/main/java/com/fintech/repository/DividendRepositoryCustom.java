@@ -0,0 +1,16 @@
+package com.fintech.repository;
+
+import com.fintech.entity.Dividend;
+
+import java.util.Collection;
+
+public interface DividendRepositoryCustom {
+
+    /**
+     * Inserts or updates dividends keyed on (ticker, ex_date) using batched
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} statements.
+     *
+     * @return number of rows written
+     */
+    int upsertAll(Collection<Dividend> dividends);
+}
@@ -0,0 +1,81 @@
+package com.fintech.repository;
+
+import com.fintech.entity.Dividend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.TimeZone;
+
+// Spring Data picks this up as the implementation of DividendRepositoryCustom
+public class DividendRepositoryImpl implements DividendRepositoryCustom {
+
+    // Dates only fill in when the new row has them, so a sparse re-fetch never erases known values
+    private static final String UPSERT_SQL =
+            "INSERT INTO dividends (ticker, amount, currency, declaration_date, ex_date, record_date, pay_date, frequency, source, fetched_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "amount = VALUES(amount), "
+                    + "currency = VALUES(currency), "
+                    + "declaration_date = COALESCE(VALUES(declaration_date), declaration_date), "
+                    + "record_date = COALESCE(VALUES(record_date), record_date), "
+                    + "pay_date = COALESCE(VALUES(pay_date), pay_date), "
+                    + "frequency = COALESCE(VALUES(frequency), frequency), "
+                    + "source = VALUES(source), "
+                    + "fetched_at = VALUES(fetched_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    public DividendRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int upsertAll(Collection<Dividend> dividends) {
+        if (dividends == null || dividends.isEmpty()) return 0;
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(dividends), batchSize, this::bind);
+        int written = 0;
+        for (int[] batch : counts) {
+            for (int c : batch) {
+                // MySQL reports 1 per insert, 2 per update, or SUCCESS_NO_INFO with rewritten batches
+                written += c == Statement.SUCCESS_NO_INFO ? 1 : Math.min(c, 1);
+            }
+        }
+        return written;
+    }
+
+    private void bind(PreparedStatement ps, Dividend d) throws SQLException {
+        Instant fetchedAt = d.getFetchedAt() != null ? d.getFetchedAt() : Instant.now();
+        ps.setString(1, d.getTicker());
+        if (d.getAmount() != null) ps.setDouble(2, d.getAmount()); else ps.setNull(2, Types.DOUBLE);
+        ps.setString(3, d.getCurrency());
+        setInstant(ps, 4, d.getDeclarationDate());
+        setInstant(ps, 5, d.getExDate());
+        setInstant(ps, 6, d.getRecordDate());
+        setInstant(ps, 7, d.getPayDate());
+        ps.setString(8, d.getFrequency());
+        ps.setString(9, d.getSource());
+        setInstant(ps, 10, fetchedAt);
+    }
+
+    // Bind in UTC like Hibernate does for Instant columns, so both write paths hit the same unique key
+    private static void setInstant(PreparedStatement ps, int index, Instant value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.from(value), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+        }
+    }
+}
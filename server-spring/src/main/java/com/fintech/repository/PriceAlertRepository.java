@@ -0,0 +1,47 @@
+package com.fintech.repository;
+
+import com.fintech.dto.ArmedAlertRow;
+import com.fintech.entity.PriceAlert;
+import com.fintech.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+    List<PriceAlert> findByUserOrderByCreatedAtDesc(User user);
+    List<PriceAlert> findByUserAndStatusOrderByCreatedAtDesc(User user, PriceAlert.Status status);
+    Optional<PriceAlert> findByIdAndUser(Long id, User user);
+    long countByUserAndStatus(User user, PriceAlert.Status status);
+
+    @Query("select new com.fintech.dto.ArmedAlertRow(a.id, a.user.id, a.assetType, a.symbol, a.condition, a.triggerPrice) "
+            + "from PriceAlert a where a.status = com.fintech.entity.PriceAlert$Status.ACTIVE")
+    List<ArmedAlertRow> findArmed();
+
+    // One statement per symbol that crossed; the status guard keeps a cancel that raced the tick intact
+    @Transactional
+    @Modifying
+    @Query("update PriceAlert a set a.status = com.fintech.entity.PriceAlert$Status.TRIGGERED, "
+            + "a.triggeredAt = :at, a.triggeredPrice = :price "
+            + "where a.id in :ids and a.status = com.fintech.entity.PriceAlert$Status.ACTIVE")
+    int markTriggered(@Param("ids") Collection<Long> ids, @Param("price") BigDecimal price, @Param("at") Instant at);
+
+    // Which of the ids markTriggered actually moved, when it reports fewer rows than it was given
+    @Query("select a.id from PriceAlert a where a.id in :ids and a.status = com.fintech.entity.PriceAlert$Status.TRIGGERED")
+    List<Long> findTriggeredIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update PriceAlert a set a.status = com.fintech.entity.PriceAlert$Status.CANCELLED "
+            + "where a.id = :id and a.user = :user and a.status = com.fintech.entity.PriceAlert$Status.ACTIVE")
+    int cancel(@Param("id") Long id, @Param("user") User user);
+}
@@ -0,0 +1,9 @@
+package com.fintech.repository;
+
+import com.fintech.entity.RealizedGain;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RealizedGainRepository extends JpaRepository<RealizedGain, Long>, RealizedGainRepositoryCustom {
+}
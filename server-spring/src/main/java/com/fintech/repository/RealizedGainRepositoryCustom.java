@@ -0,0 +1,15 @@
+package com.fintech.repository;
+
+import com.fintech.dto.LotGainRow;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public interface RealizedGainRepositoryCustom {
+
+    /**
+     * Streams the gains of users {@code fromUserId..toUserId} (inclusive) sold between
+     * {@code from} and {@code to} (inclusive), ordered by user, to {@code sink}.
+     */
+    void scanRealized(long fromUserId, long toUserId, LocalDate from, LocalDate to, Consumer<LotGainRow> sink);
+}
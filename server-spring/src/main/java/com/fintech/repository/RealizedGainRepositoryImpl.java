@@ -0,0 +1,40 @@
+package com.fintech.repository;
+
+import com.fintech.dto.LotGainRow;
+import com.fintech.entity.Asset;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+// Spring Data picks this up as the implementation of RealizedGainRepositoryCustom
+public class RealizedGainRepositoryImpl implements RealizedGainRepositoryCustom {
+
+    // Served by idx_realized_gains_user_sold
+    private static final String SCAN_SQL =
+            "SELECT user_id, asset_type, symbol, acquired_on, sold_on, quantity, proceeds, cost_basis "
+                    + "FROM realized_gains WHERE user_id BETWEEN ? AND ? AND sold_on BETWEEN ? AND ? "
+                    + "ORDER BY user_id, sold_on, id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RealizedGainRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void scanRealized(long fromUserId, long toUserId, LocalDate from, LocalDate to, Consumer<LotGainRow> sink) {
+        jdbcTemplate.query(SCAN_SQL, rs -> {
+            sink.accept(new LotGainRow(
+                    rs.getLong(1),
+                    Asset.AssetType.valueOf(rs.getString(2)),
+                    rs.getString(3),
+                    rs.getDate(4).toLocalDate(),
+                    rs.getDate(5).toLocalDate(),
+                    rs.getDouble(6),
+                    rs.getDouble(7),
+                    rs.getDouble(8)));
+        }, fromUserId, toUserId, Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,9 @@
+package com.fintech.repository;
+
+import com.fintech.entity.SymbolCurrency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SymbolCurrencyRepository extends JpaRepository<SymbolCurrency, String> {
+}
@@ -0,0 +1,25 @@
+package com.fintech.repository;
+
+import com.fintech.entity.TaxLot;
+import com.fintech.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaxLotRepository extends JpaRepository<TaxLot, Long>, TaxLotRepositoryCustom {
+
+    // FIFO order; must match CostBasisEngine.LOT_ORDER
+    @Query("select l from TaxLot l where l.user = :user and l.symbol = :symbol and l.remainingQuantity > 0 "
+            + "order by l.acquiredOn, l.id")
+    List<TaxLot> findOpenLots(@Param("user") User user, @Param("symbol") String symbol);
+
+    // A deleted holding's open units are closed without booking a gain; consumed lots stay for history
+    @Modifying
+    @Query("update TaxLot l set l.remainingQuantity = 0 where l.user = :user and l.symbol = :symbol and l.remainingQuantity > 0")
+    int closeOpenLots(@Param("user") User user, @Param("symbol") String symbol);
+}
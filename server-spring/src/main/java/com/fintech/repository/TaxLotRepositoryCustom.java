@@ -0,0 +1,16 @@
+package com.fintech.repository;
+
+import com.fintech.dto.OpenPosition;
+
+import java.util.function.Consumer;
+
+public interface TaxLotRepositoryCustom {
+
+    /**
+     * Streams the holdings and open lots of users {@code fromUserId..toUserId} (inclusive) to
+     * {@code sink}, one {@link OpenPosition} per symbol: every symbol with open lots, joined to its
+     * holding, then every holding with no open lots. Lots are as stored; cost basis is the
+     * remaining quantity at the lot's unit cost.
+     */
+    void scanOpenPositions(long fromUserId, long toUserId, Consumer<OpenPosition> sink);
+}
@@ -0,0 +1,102 @@
+package com.fintech.repository;
+
+import com.fintech.dto.LotGainRow;
+import com.fintech.dto.OpenPosition;
+import com.fintech.entity.Asset;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Spring Data picks this up as the implementation of TaxLotRepositoryCustom
+public class TaxLotRepositoryImpl implements TaxLotRepositoryCustom {
+
+    // Grouped by holding through idx_tax_lots_user_symbol_acquired; a lot whose holding is gone joins to nulls
+    private static final String SCAN_OPEN_SQL =
+            "SELECT l.user_id, l.asset_type, l.symbol, l.acquired_on, l.remaining_quantity, l.unit_cost, "
+                    + "a.quantity, a.avg_buy_price, a.created_at "
+                    + "FROM tax_lots l LEFT JOIN assets a ON a.user_id = l.user_id AND a.symbol = l.symbol "
+                    + "WHERE l.user_id BETWEEN ? AND ? AND l.remaining_quantity > 0 "
+                    + "ORDER BY l.user_id, l.symbol, l.acquired_on, l.id";
+
+    // Holdings created, edited or imported without a trade, so no lot was ever opened for them
+    private static final String SCAN_UNTRACKED_SQL =
+            "SELECT a.user_id, a.type, a.symbol, a.quantity, a.avg_buy_price, a.created_at FROM assets a "
+                    + "WHERE a.user_id BETWEEN ? AND ? AND a.quantity > 0 AND NOT EXISTS ("
+                    + "SELECT 1 FROM tax_lots l WHERE l.user_id = a.user_id AND l.symbol = a.symbol AND l.remaining_quantity > 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaxLotRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void scanOpenPositions(long fromUserId, long toUserId, Consumer<OpenPosition> sink) {
+        LotGrouper grouper = new LotGrouper(sink);
+        jdbcTemplate.query(SCAN_OPEN_SQL, grouper, fromUserId, toUserId);
+        grouper.flush();
+
+        jdbcTemplate.query(SCAN_UNTRACKED_SQL, rs -> {
+            sink.accept(new OpenPosition(
+                    rs.getLong(1),
+                    Asset.AssetType.valueOf(rs.getString(2)),
+                    rs.getString(3),
+                    rs.getDouble(4),
+                    rs.getDouble(5),
+                    toDate(rs.getTimestamp(6)),
+                    List.of()));
+        }, fromUserId, toUserId);
+    }
+
+    // Rows arrive ordered by holding, so a holding's lots are collected until the symbol changes
+    private static final class LotGrouper implements RowCallbackHandler {
+        private final Consumer<OpenPosition> sink;
+        private List<LotGainRow> lots = new ArrayList<>();
+        private long userId;
+        private Asset.AssetType type;
+        private String symbol;
+        private double held;
+        private double avgBuyPrice;
+        private LocalDate openedOn;
+
+        LotGrouper(Consumer<OpenPosition> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowUser = rs.getLong(1);
+            String rowSymbol = rs.getString(3);
+            if (symbol == null || rowUser != userId || !rowSymbol.equals(symbol)) {
+                flush();
+                userId = rowUser;
+                type = Asset.AssetType.valueOf(rs.getString(2));
+                symbol = rowSymbol;
+                held = rs.getDouble(7); // 0 when the holding is gone
+                avgBuyPrice = rs.getDouble(8);
+                openedOn = toDate(rs.getTimestamp(9));
+            }
+            double quantity = rs.getDouble(5);
+            lots.add(new LotGainRow(userId, type, symbol, rs.getDate(4).toLocalDate(), null,
+                    quantity, 0.0, quantity * rs.getDouble(6)));
+        }
+
+        void flush() {
+            if (symbol == null) return;
+            sink.accept(new OpenPosition(userId, type, symbol, held, avgBuyPrice, openedOn, lots));
+            lots = new ArrayList<>();
+            symbol = null;
+        }
+    }
+
+    private static LocalDate toDate(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime().toLocalDate() : null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.fintech.repository;
+
+/**
+ * Projection of the columns needed to verify a login: everything on {@link com.fintech.entity.User}
+ * except the avatar, timestamps and reset-token fields.
+ */
+public interface UserCredentials {
+    Long getId();
+    String getEmail();
+    String getName();
+    String getPasswordHash();
+}
@@ -2,11 +2,35 @@ package com.fintech.repository;
 
 import com.fintech.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // Index-only existence check; never loads the row (or its LONGTEXT avatar)
+    boolean existsByEmail(String email);
+
+    // Login only needs these columns; the avatar is fetched separately once the password checks out
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
+    @Query("select u.avatarUrl from User u where u.id = :id")
+    Optional<String> findAvatarUrlById(@Param("id") Long id);
     Optional<User> findByPasswordResetToken(String token);
+
+    // Batch jobs partition accounts by id range
+    @Query("select u.id from User u order by u.id")
+    List<Long> findAllIdsOrdered();
+
+    // Compare-and-set on the old hash so a concurrent password reset is never overwritten
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
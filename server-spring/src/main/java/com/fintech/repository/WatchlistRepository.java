@@ -1,15 +1,42 @@
 package com.fintech.repository;
 
+import com.fintech.entity.Asset;
 import com.fintech.entity.User;
 import com.fintech.entity.Watchlist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
+public interface WatchlistRepository extends JpaRepository<Watchlist, Long>, WatchlistRepositoryCustom {
     List<Watchlist> findByUser(User user);
     Optional<Watchlist> findByIdAndUser(Long id, User user);
+    boolean existsByUserAndSymbol(User user, String symbol);
+
+    @Query("select w.symbol from Watchlist w where w.user = :user")
+    List<String> findSymbolsByUser(@Param("user") User user);
+
+    @Query("select distinct upper(w.symbol) from Watchlist w where w.type in :types")
+    List<String> findDistinctSymbolsByTypeIn(@Param("types") Collection<Asset.AssetType> types);
+
+    // Only the requested symbols that are already present, answered from the (user_id, symbol) index
+    @Query("select w.symbol from Watchlist w where w.user = :user and w.symbol in :symbols")
+    List<String> findExistingSymbols(@Param("user") User user, @Param("symbols") Collection<String> symbols);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Watchlist w where w.id = :id and w.user = :user")
+    int deleteByIdAndUser(@Param("id") Long id, @Param("user") User user);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Watchlist w where w.user = :user and w.symbol in :symbols")
+    int deleteByUserAndSymbolIn(@Param("user") User user, @Param("symbols") Collection<String> symbols);
 }
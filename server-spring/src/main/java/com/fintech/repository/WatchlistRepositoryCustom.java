@@ -0,0 +1,17 @@
+package com.fintech.repository;
+
+import com.fintech.entity.Watchlist;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WatchlistRepositoryCustom {
+
+    /**
+     * Inserts watchlist rows with one {@code INSERT IGNORE} each on a single prepared statement;
+     * rows that hit the (user_id, symbol) unique key are skipped instead of failing the call.
+     *
+     * @return the items that were actually inserted, in input order
+     */
+    List<Watchlist> insertIgnoreAll(Long userId, Collection<Watchlist> items);
+}
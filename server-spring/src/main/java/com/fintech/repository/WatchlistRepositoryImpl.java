@@ -0,0 +1,49 @@
+package com.fintech.repository;
+
+import com.fintech.entity.Watchlist;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Spring Data picks this up as the implementation of WatchlistRepositoryCustom
+public class WatchlistRepositoryImpl implements WatchlistRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO watchlist (user_id, type, symbol, name, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WatchlistRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Watchlist> insertIgnoreAll(Long userId, Collection<Watchlist> items) {
+        if (items == null || items.isEmpty()) return List.of();
+
+        // Executed row by row rather than as a JDBC batch: rewriteBatchedStatements turns a batch
+        // into one multi-row statement whose per-row counts come back as SUCCESS_NO_INFO, while a
+        // single INSERT IGNORE reports exactly 1 (inserted) or 0 (skipped)
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.execute((ConnectionCallback<List<Watchlist>>) con -> {
+            List<Watchlist> inserted = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL)) {
+                for (Watchlist w : items) {
+                    ps.setLong(1, userId);
+                    ps.setString(2, w.getType().name());
+                    ps.setString(3, w.getSymbol());
+                    ps.setString(4, w.getName());
+                    ps.setTimestamp(5, Timestamp.valueOf(w.getCreatedAt() != null ? w.getCreatedAt() : now));
+                    if (ps.executeUpdate() > 0) inserted.add(w);
+                }
+            }
+            return inserted;
+        });
+    }
+}
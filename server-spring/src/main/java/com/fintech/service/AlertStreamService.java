@@ -0,0 +1,83 @@
+package com.fintech.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Open server-sent event streams per user. Sends run on a dedicated thread so a slow client
+ * never holds up price evaluation.
+ */
+@Service
+public class AlertStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStreamService.class);
+
+    private final ConcurrentHashMap<Long, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "alert-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${alerts.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public SseEmitter open(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        CopyOnWriteArrayList<SseEmitter> list = emitters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        Runnable remove = () -> remove(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    public void publish(Long userId, List<Map<String, Object>> events) {
+        List<SseEmitter> targets = emitters.get(userId);
+        if (targets == null || targets.isEmpty()) return;
+
+        sender.execute(() -> {
+            for (SseEmitter emitter : targets) {
+                try {
+                    for (Map<String, Object> event : events) {
+                        emitter.send(SseEmitter.event().name("alert").data(event));
+                    }
+                } catch (Exception e) {
+                    logger.debug("Dropping alert stream for user {}: {}", userId, e.getMessage());
+                    remove(userId, emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    public int openStreams() {
+        int n = 0;
+        for (List<SseEmitter> list : emitters.values()) n += list.size();
+        return n;
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,211 @@
+package com.fintech.service;
+
+import com.fintech.dto.AssetFilter;
+import com.fintech.dto.AssetSortRow;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.repository.AssetRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Filtered, sorted, keyset-paginated holdings for {@code GET /api/assets}. Name and default (id)
+ * order page in the database. Value, P&L and return order ranks lightweight rows by the shared
+ * price snapshot, so no upstream call is made to sort and only the returned page is loaded.
+ */
+@Service
+public class AssetListingService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    public enum SortKey {
+        ID, NAME, VALUE, PNL, RETURN;
+
+        boolean byPrice() {
+            return this == VALUE || this == PNL || this == RETURN;
+        }
+    }
+
+    // "name", "-value", ...; a leading '-' sorts descending. Null means insertion (id) order
+    public record Sort(SortKey key, boolean descending) {
+
+        public static Sort parse(String raw) {
+            if (raw == null || raw.isBlank()) return new Sort(SortKey.ID, false);
+            String s = raw.trim();
+            boolean descending = s.startsWith("-");
+            if (descending) s = s.substring(1);
+            try {
+                return new Sort(SortKey.valueOf(s.toUpperCase(Locale.ROOT)), descending);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort: " + raw + " (use name, value, pnl or return)");
+            }
+        }
+
+        String token() {
+            return (descending ? "-" : "") + key.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // nextCursor is null on the last page
+    public record Page(List<Asset> assets, String nextCursor) {}
+
+    private record Ranked(long id, double key) {}
+
+    private final AssetRepository assetRepository;
+    private final PriceSnapshotService priceSnapshotService;
+    private final FxRateService fxRateService;
+
+    public AssetListingService(AssetRepository assetRepository, PriceSnapshotService priceSnapshotService,
+                               FxRateService fxRateService) {
+        this.assetRepository = assetRepository;
+        this.priceSnapshotService = priceSnapshotService;
+        this.fxRateService = fxRateService;
+    }
+
+    // Every matching holding in id order, for unpaginated filtered listings
+    @Transactional(readOnly = true)
+    public List<Asset> listAll(User user, AssetFilter filter) {
+        return assetRepository.findPage(user.getId(), filter, false, false, null, null, Integer.MAX_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public Page list(User user, AssetFilter filter, Sort sort, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        String[] after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, sort);
+
+        return sort.key().byPrice()
+                ? pageByPrice(user, filter, sort, after, size)
+                : pageInDatabase(user, filter, sort, after, size);
+    }
+
+    private Page pageInDatabase(User user, AssetFilter filter, Sort sort, String[] after, int size) {
+        boolean byName = sort.key() == SortKey.NAME;
+        String afterName = after != null && byName ? after[0] : null;
+        Long afterId = after != null ? parseId(after[1]) : null;
+
+        // One extra row tells whether another page follows
+        List<Asset> rows = assetRepository.findPage(user.getId(), filter, byName, sort.descending(), afterName, afterId, size + 1);
+        if (rows.size() <= size) return new Page(rows, null);
+
+        List<Asset> page = new ArrayList<>(rows.subList(0, size));
+        Asset last = page.get(size - 1);
+        return new Page(page, encodeCursor(sort, byName ? last.getName() : "", last.getId()));
+    }
+
+    private Page pageByPrice(User user, AssetFilter filter, Sort sort, String[] after, int size) {
+        List<AssetSortRow> rows = assetRepository.findSortRows(user.getId(), filter);
+        Map<String, BigDecimal> prices = priceSnapshotService.latestPrices(
+                rows.stream().map(AssetSortRow::symbol).collect(Collectors.toSet()));
+
+        Comparator<Ranked> order = rankOrder(sort.descending());
+        double[] fxRates = fxRateService.ratesToInr();
+        List<Ranked> ranked = new ArrayList<>(rows.size());
+        for (AssetSortRow r : rows) ranked.add(new Ranked(r.id(), rankKey(sort.key(), r, prices, fxRates)));
+        ranked.sort(order);
+
+        // Seek past the cursor position; prices move between requests, so this is by key, not offset
+        int from = 0;
+        if (after != null) {
+            Ranked cursorRow = new Ranked(parseId(after[1]), parseKey(after[0]));
+            while (from < ranked.size() && order.compare(ranked.get(from), cursorRow) <= 0) from++;
+        }
+        int to = Math.min(from + size, ranked.size());
+        List<Ranked> slice = ranked.subList(from, to);
+
+        Map<Long, Asset> byId = assetRepository.findAllById(slice.stream().map(Ranked::id).toList()).stream()
+                .collect(Collectors.toMap(Asset::getId, Function.identity()));
+        List<Asset> page = new ArrayList<>(slice.size());
+        for (Ranked r : slice) {
+            Asset a = byId.get(r.id());
+            if (a != null) page.add(a);
+        }
+
+        String next = null;
+        if (to < ranked.size() && !slice.isEmpty()) {
+            Ranked last = slice.get(slice.size() - 1);
+            next = encodeCursor(sort, Double.toString(last.key()), last.id());
+        }
+        return new Page(page, next);
+    }
+
+    // In INR, as the summary values them, so holdings in different currencies rank together.
+    // Holdings with no snapshot price yet rank as NaN, which sorts last in either direction
+    private double rankKey(SortKey key, AssetSortRow row, Map<String, BigDecimal> prices, double[] fxRates) {
+        BigDecimal price = prices.get(row.symbol() != null ? row.symbol().toUpperCase() : "");
+        if (price == null || row.quantity() == null) return Double.NaN;
+
+        double fx = fxRates[fxRateService.currencyOf(row.type(), row.symbol()).ordinal()];
+        double value = row.quantity().doubleValue() * price.doubleValue() * fx;
+        double cost = row.avgBuyPrice() != null ? row.quantity().doubleValue() * row.avgBuyPrice().doubleValue() * fx : 0.0;
+        return switch (key) {
+            case VALUE -> value;
+            case PNL -> value - cost;
+            case RETURN -> cost > 0 ? (value - cost) / cost * 100 : 0.0;
+            default -> throw new IllegalArgumentException("Not a price sort: " + key);
+        };
+    }
+
+    private static Comparator<Ranked> rankOrder(boolean descending) {
+        return (x, y) -> {
+            boolean xMissing = Double.isNaN(x.key()), yMissing = Double.isNaN(y.key());
+            int c;
+            if (xMissing || yMissing) {
+                c = Boolean.compare(xMissing, yMissing);
+            } else {
+                c = Double.compare(x.key(), y.key());
+                if (descending) c = -c;
+            }
+            return c != 0 ? c : Long.compare(x.id(), y.id());
+        };
+    }
+
+    // ---------------------- Cursor ----------------------
+    // Opaque to clients: base64url of "sort \n key \n id", bound to the sort it was issued for
+
+    private static String encodeCursor(Sort sort, String key, long id) {
+        String raw = sort.token() + "\n" + key + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, Sort sort) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split("\n", -1);
+        if (parts.length != 3) throw new IllegalArgumentException("Invalid cursor");
+        if (!parts[0].equals(sort.token())) throw new IllegalArgumentException("Cursor was issued for sort=" + parts[0]);
+        return new String[]{parts[1], parts[2]};
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static double parseKey(String key) {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
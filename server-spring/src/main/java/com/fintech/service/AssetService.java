@@ -1,29 +1,56 @@
 package com.fintech.service;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.fintech.config.IoThreadFactory;
+import com.fintech.dto.TagCount;
 import com.fintech.entity.Asset;
+import com.fintech.metrics.UpstreamMetrics;
+import com.fintech.ratelimit.TokenBucket;
 import com.fintech.entity.User;
 import com.fintech.repository.AssetRepository;
 
 @Service
 public class AssetService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AssetService.class);
+
     @Autowired
     private AssetRepository assetRepository;
 
+    @Autowired
+    private FxRateService fxRateService;
+
     @Value("${alphavantage.api-key}")
     private String alphavantageApiKey;
 
@@ -34,19 +61,63 @@ public class AssetService {
     @Value("${yahoo.quote-base:https://query1.finance.yahoo.com}")
     private String yahooQuoteBaseUrl;
 
-    private final String URL = alphavantageBaseUrl + "?function=GLOBAL_QUOTE&symbol=%s&apikey=%s";
+    @Value("${yahoo.search-base:https://query2.finance.yahoo.com}")
+    private String yahooSearchBaseUrl;
+
+    @Value("${coingecko.base:https://api.coingecko.com/api/v3}")
+    private String coingeckoBaseUrl;
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
 
     private final RestTemplate restTemplate;
+    private final UpstreamMetrics upstreamMetrics;
+
+    // Async lookups: the bulk Yahoo/CoinGecko calls go through the non-blocking client (which
+    // completes on ioExecutor), per-symbol fallback chains run on the bounded fallbackExecutor
+    private final HttpClient httpClient;
+    private final ExecutorService ioExecutor;
+    private final ExecutorService fallbackExecutor;
+    private final Duration asyncTimeout;
+
+    // The AlphaVantage tier shares a per-minute quota (free tier: 5): one call at a time, and
+    // skipped rather than waited for once the quota is spent
+    private final TokenBucket alphaQuota;
+    private final ReentrantLock alphaLock = new ReentrantLock();
 
     @Autowired
-    public AssetService(RestTemplateBuilder builder) {
+    public AssetService(RestTemplateBuilder builder, UpstreamMetrics upstreamMetrics, IoThreadFactory ioThreads,
+                        @Value("${upstream.async.timeout-ms:10000}") long asyncTimeoutMillis,
+                        @Value("${upstream.fallback.concurrency:8}") int fallbackConcurrency,
+                        @Value("${alphavantage.quote.requests-per-minute:5}") double alphaRequestsPerMinute) {
+        this.upstreamMetrics = upstreamMetrics;
         this.restTemplate = builder
             .interceptors((request, body, execution) -> {
-                request.getHeaders().set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
+                request.getHeaders().set("User-Agent", USER_AGENT);
                 request.getHeaders().set("Accept", "application/json");
                 return execution.execute(request, body);
             })
             .build();
+        this.ioExecutor = ContextExecutorService.wrap(
+                Executors.newCachedThreadPool(ioThreads.named("price-fetch-")),
+                ContextSnapshotFactory.builder().build()::captureAll);
+        // Fixed size, so a page with many unquoted symbols queues them instead of opening a thread
+        // (and upstream connection) per symbol; the size still caps them on virtual threads
+        this.fallbackExecutor = ContextExecutorService.wrap(
+                Executors.newFixedThreadPool(Math.max(1, fallbackConcurrency), ioThreads.named("price-fallback-")),
+                ContextSnapshotFactory.builder().build()::captureAll);
+        this.alphaQuota = new TokenBucket(alphaRequestsPerMinute, 1);
+        this.asyncTimeout = Duration.ofMillis(asyncTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .executor(ioExecutor)
+                .connectTimeout(asyncTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fallbackExecutor.shutdownNow();
+        ioExecutor.shutdownNow();
     }
 
     // ----------------------- CRUD ------------------------
@@ -56,7 +127,9 @@ public class AssetService {
     }
 
     public Asset saveAsset(Asset asset) {
-        return assetRepository.save(asset);
+        Asset saved = assetRepository.save(asset);
+        if (saved.getType() == Asset.AssetType.stock) resolveQuoteCurrencies(List.of(saved.getSymbol()), 1);
+        return saved;
     }
 
     public void deleteAsset(Long id) {
@@ -67,6 +140,20 @@ public class AssetService {
         return assetRepository.findByIdAndUser(id, user);
     }
 
+    // ----------------------- TAGS ------------------------
+
+    public List<TagCount> getTagCounts(User user) {
+        return assetRepository.countTagsByUser(user);
+    }
+
+    // Moves tags still held in the old JSON column into asset_tags, a chunk per transaction
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyTags() {
+        int migrated = 0;
+        for (int n; (n = assetRepository.migrateLegacyJsonTags(500)) > 0; ) migrated += n;
+        if (migrated > 0) logger.info("Moved tags of {} assets from assets.tags into asset_tags", migrated);
+    }
+
     // ---------------------- STOCK PRICE FETCH ----------------------
 
     public BigDecimal getLivePrice(String symbol) {
@@ -74,34 +161,22 @@ public class AssetService {
         if (price != null) return price;
 
         // Fallback to static prices if API fails
-        return getFallbackPrice(symbol);
+        BigDecimal fallback = getFallbackPrice(symbol);
+        if (fallback != null) upstreamMetrics.fallback("stock-price");
+        return fallback;
     }
 
     // Batch helper to fetch live prices for multiple symbols
     public Map<String, BigDecimal> getLivePrices(List<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) return new HashMap<>();
+        return upstreamMetrics.observeLookup("stock-prices", () -> lookUpLivePrices(symbols));
+    }
+
+    private Map<String, BigDecimal> lookUpLivePrices(List<String> symbols) {
         Map<String, BigDecimal> map = new HashMap<>();
-        if (symbols == null || symbols.isEmpty()) return map;
 
         // 1. Bulk Fetch from Yahoo to prevent rate limits
-        try {
-            String joined = String.join(",", symbols);
-            String url = yahooQuoteBaseUrl + "/v7/finance/quote?symbols=" + java.net.URLEncoder.encode(joined, java.nio.charset.StandardCharsets.UTF_8);
-            String resp = restTemplate.getForObject(url, String.class);
-            if (resp != null && !resp.isEmpty()) {
-                JSONObject root = new JSONObject(resp);
-                if (root.has("quoteResponse")) {
-                    JSONArray res = root.getJSONObject("quoteResponse").optJSONArray("result");
-                    if (res != null) {
-                        for (int i = 0; i < res.length(); i++) {
-                            JSONObject quote = res.getJSONObject(i);
-                            if (quote.has("symbol") && quote.has("regularMarketPrice")) {
-                                map.put(quote.getString("symbol").toUpperCase(), new BigDecimal(quote.getDouble("regularMarketPrice")));
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception ignored) {}
+        map.putAll(getBulkQuotes(symbols));
 
         // 2. Fallback for any missed symbols (e.g., requires .NS suffix or AlphaVantage)
         for (String s : symbols) {
@@ -115,48 +190,277 @@ public class AssetService {
         return map;
     }
 
-    // ---------------------- CRYPTO PRICE FETCH ----------------------
-    public Map<String, BigDecimal> getCryptoPrices(List<String> cryptoIds) {
+    // Pre-encoded URLs below go out as java.net.URI: passed as a String, RestTemplate would encode
+    // them again (symbols=A%252CB), so Yahoo saw one unknown symbol and every holding fell back
+    // to a per-symbol lookup
+
+    // Price and quote currency (ISO code, "GBp" for pence; null when Yahoo omits it) of one symbol
+    public record Quote(BigDecimal price, String currency) {}
+
+    // Yahoo bulk quotes only, no per-symbol fallback; background refreshers use this so
+    // a missing symbol never turns into an AlphaVantage call
+    public Map<String, BigDecimal> getBulkQuotes(List<String> symbols) {
         Map<String, BigDecimal> map = new HashMap<>();
-        if (cryptoIds == null || cryptoIds.isEmpty()) return map;
+        getBulkQuoteDetails(symbols).forEach((symbol, quote) -> map.put(symbol, quote.price()));
+        return map;
+    }
+
+    // Same as getBulkQuotes, keeping the currency each symbol is quoted in
+    public Map<String, Quote> getBulkQuoteDetails(List<String> symbols) {
+        Map<String, Quote> map = new HashMap<>();
+        if (symbols == null || symbols.isEmpty()) return map;
 
         try {
-            String ids = String.join(",", cryptoIds).toLowerCase();
-            String url = "https://api.coingecko.com/api/v3/simple/price?ids=" + ids + "&vs_currencies=inr";
-            String response = restTemplate.getForObject(url, String.class);
-            if (response != null && !response.isEmpty()) {
-                JSONObject root = new JSONObject(response);
-                java.util.Iterator<String> keys = root.keys();
-                while (keys.hasNext()) {
-                    String id = keys.next();
-                    try {
-                        JSONObject obj = root.getJSONObject(id);
-                        if (obj.has("inr")) {
-                            map.put(id.toUpperCase(), new BigDecimal(obj.getDouble("inr")));
-                        }
-                    } catch (Exception e) {
-                        // skip malformed entries
+            String joined = String.join(",", symbols);
+            String url = yahooQuoteBaseUrl + "/v7/finance/quote?symbols=" + java.net.URLEncoder.encode(joined, java.nio.charset.StandardCharsets.UTF_8);
+            map.putAll(upstreamMetrics.observe("yahoo", "quote",
+                    () -> parseQuotes(restTemplate.getForObject(java.net.URI.create(url), String.class))));
+        } catch (Exception ignored) {}
+        return recordCurrencies(map);
+    }
+
+    // Hands every currency a quote carried to FxRateService, which persists the ones it didn't know
+    private Map<String, Quote> recordCurrencies(Map<String, Quote> quotes) {
+        Map<String, String> currencies = new HashMap<>();
+        quotes.forEach((symbol, quote) -> {
+            if (quote.currency() != null) currencies.put(symbol, quote.currency());
+        });
+        if (!currencies.isEmpty()) fxRateService.recordQuoteCurrencies(currencies);
+        return quotes;
+    }
+
+    /**
+     * Looks up the quote currency of each listing FxRateService doesn't know yet: one bulk quote
+     * for all of them, then the chart endpoint, which keeps answering when the quote endpoint
+     * refuses, for at most maxLookups of the rest. Whatever is found is recorded and persisted.
+     */
+    public void resolveQuoteCurrencies(Collection<String> symbols, int maxLookups) {
+        List<String> unknown = symbols.stream()
+                .filter(s -> s != null && !s.isBlank() && !fxRateService.knowsCurrency(s))
+                .map(String::toUpperCase)
+                .distinct()
+                .collect(Collectors.toList());
+        if (unknown.isEmpty()) return;
+
+        for (int from = 0; from < unknown.size(); from += 50) {
+            getBulkQuoteDetails(unknown.subList(from, Math.min(from + 50, unknown.size())));
+        }
+        int lookups = 0;
+        for (String s : unknown) {
+            if (lookups >= maxLookups) break;
+            if (fxRateService.knowsCurrency(s)) continue;
+            fetchChartMeta(s);
+            lookups++;
+        }
+    }
+
+    // Symbol -> regularMarketPrice from a Yahoo /v7/finance/quote body; static so benchmarks can feed it fixtures
+    public static Map<String, BigDecimal> parseQuotePrices(String resp) {
+        Map<String, BigDecimal> map = new HashMap<>();
+        parseQuotes(resp).forEach((symbol, quote) -> map.put(symbol, quote.price()));
+        return map;
+    }
+
+    public static Map<String, Quote> parseQuotes(String resp) {
+        Map<String, Quote> map = new HashMap<>();
+        if (resp == null || resp.isEmpty()) return map;
+
+        JSONObject root = new JSONObject(resp);
+        if (root.has("quoteResponse")) {
+            JSONArray res = root.getJSONObject("quoteResponse").optJSONArray("result");
+            if (res != null) {
+                for (int i = 0; i < res.length(); i++) {
+                    JSONObject quote = res.getJSONObject(i);
+                    if (quote.has("symbol") && quote.has("regularMarketPrice")) {
+                        map.put(quote.getString("symbol").toUpperCase(), new Quote(
+                                new BigDecimal(quote.getDouble("regularMarketPrice")),
+                                quote.optString("currency", null)));
                     }
                 }
             }
-        } catch (Exception ignored) {}
+        }
+        return map;
+    }
+
+    // Names and exchanges for many symbols in one quote request per chunk; symbols Yahoo
+    // doesn't know are simply absent from the result
+    public Map<String, Map<String, Object>> getBulkSymbolDetails(List<String> symbols) {
+        Map<String, Map<String, Object>> map = new HashMap<>();
+        if (symbols == null || symbols.isEmpty()) return map;
+
+        for (int from = 0; from < symbols.size(); from += 50) {
+            List<String> chunk = symbols.subList(from, Math.min(from + 50, symbols.size()));
+            try {
+                String url = yahooQuoteBaseUrl + "/v7/finance/quote?symbols=" + java.net.URLEncoder.encode(String.join(",", chunk), java.nio.charset.StandardCharsets.UTF_8);
+                String resp = upstreamMetrics.observe("yahoo", "quote", () -> restTemplate.getForObject(java.net.URI.create(url), String.class));
+                if (resp == null || resp.isEmpty()) continue;
+                JSONObject root = new JSONObject(resp);
+                if (!root.has("quoteResponse")) continue;
+                JSONArray res = root.getJSONObject("quoteResponse").optJSONArray("result");
+                if (res == null) continue;
+                for (int i = 0; i < res.length(); i++) {
+                    JSONObject quote = res.getJSONObject(i);
+                    if (!quote.has("symbol")) continue;
+                    String name = quote.optString("longName", null);
+                    if (name == null || name.isBlank()) name = quote.optString("shortName", null);
+                    Map<String, Object> info = new HashMap<>();
+                    if (name != null && !name.isBlank()) info.put("name", name);
+                    info.put("exchange", quote.optString("fullExchangeName", quote.optString("exchange", "")));
+                    if (quote.has("regularMarketPrice")) info.put("price", quote.optDouble("regularMarketPrice"));
+                    map.put(quote.getString("symbol").toUpperCase(), info);
+                    fxRateService.recordQuoteCurrency(quote.getString("symbol"), quote.optString("currency", null));
+                }
+            } catch (Exception ignored) {}
+        }
+        return map;
+    }
 
+    // ---------------------- CRYPTO PRICE FETCH ----------------------
+    public Map<String, BigDecimal> getCryptoPrices(List<String> cryptoIds) {
+        if (cryptoIds == null || cryptoIds.isEmpty()) return new HashMap<>();
+
+        return upstreamMetrics.observeLookup("crypto-prices",
+                () -> withCryptoFallbacks(cryptoIds, getBulkCryptoQuotes(cryptoIds)));
+    }
+
+    private Map<String, BigDecimal> withCryptoFallbacks(List<String> cryptoIds, Map<String, BigDecimal> quotes) {
+        Map<String, BigDecimal> map = new HashMap<>(quotes);
         for (String id : cryptoIds) {
             if (!map.containsKey(id.toUpperCase())) {
                 BigDecimal fallback = getFallbackPrice(id);
-                if (fallback != null) map.put(id.toUpperCase(), fallback);
+                if (fallback != null) {
+                    map.put(id.toUpperCase(), fallback);
+                    upstreamMetrics.fallback("crypto-price");
+                }
             }
         }
         return map;
     }
+
+    // CoinGecko prices in INR without the static fallback, so stale demo prices never look like live ticks
+    public Map<String, BigDecimal> getBulkCryptoQuotes(List<String> cryptoIds) {
+        Map<String, BigDecimal> map = new HashMap<>();
+        if (cryptoIds == null || cryptoIds.isEmpty()) return map;
+
+        try {
+            String ids = String.join(",", cryptoIds).toLowerCase();
+            String url = coingeckoBaseUrl + "/simple/price?ids=" + ids + "&vs_currencies=inr";
+            map.putAll(upstreamMetrics.observe("coingecko", "price",
+                    () -> parseCryptoPrices(restTemplate.getForObject(url, String.class))));
+        } catch (Exception ignored) {}
+        return map;
+    }
+
+    private static Map<String, BigDecimal> parseCryptoPrices(String response) {
+        Map<String, BigDecimal> map = new HashMap<>();
+        if (response == null || response.isEmpty()) return map;
+
+        JSONObject root = new JSONObject(response);
+        java.util.Iterator<String> keys = root.keys();
+        while (keys.hasNext()) {
+            String id = keys.next();
+            try {
+                JSONObject obj = root.getJSONObject(id);
+                if (obj.has("inr")) {
+                    map.put(id.toUpperCase(), new BigDecimal(obj.getDouble("inr")));
+                }
+            } catch (Exception e) {
+                // skip malformed entries
+            }
+        }
+        return map;
+    }
+
+    // ---------------------- ASYNC PRICE FETCH ----------------------
+    // Callers start the stock and crypto lookups together and combine them, so a page waits for
+    // the slower provider instead of both in turn
+
+    public CompletableFuture<BigDecimal> getLivePriceAsync(String symbol) {
+        return CompletableFuture.supplyAsync(() -> getLivePrice(symbol), fallbackExecutor);
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> getLivePricesAsync(List<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+        return upstreamMetrics.observeLookupAsync("stock-prices",
+                () -> getBulkQuotesAsync(symbols).thenCompose(bulk -> fillMissingPrices(symbols, bulk)));
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> getBulkQuotesAsync(List<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+        String url = yahooQuoteBaseUrl + "/v7/finance/quote?symbols=" + java.net.URLEncoder.encode(String.join(",", symbols), java.nio.charset.StandardCharsets.UTF_8);
+        return upstreamMetrics.observeAsync("yahoo", "quote",
+                        () -> fetchAsync(url).thenApply(resp -> {
+                            Map<String, BigDecimal> map = new HashMap<>();
+                            recordCurrencies(parseQuotes(resp)).forEach((symbol, quote) -> map.put(symbol, quote.price()));
+                            return map;
+                        }), UpstreamMetrics::classify)
+                .exceptionally(e -> new HashMap<>());
+    }
+
+    // Symbols the bulk quote missed go through the blocking per-symbol chain, a bounded number at a time
+    private CompletableFuture<Map<String, BigDecimal>> fillMissingPrices(List<String> symbols, Map<String, BigDecimal> bulk) {
+        Map<String, CompletableFuture<BigDecimal>> missing = symbols.stream()
+                .map(String::toUpperCase)
+                .filter(s -> !bulk.containsKey(s))
+                .distinct()
+                .collect(Collectors.toMap(s -> s, s -> getLivePriceAsync(s).exceptionally(e -> null)));
+        if (missing.isEmpty()) return CompletableFuture.completedFuture(bulk);
+
+        return CompletableFuture.allOf(missing.values().toArray(CompletableFuture<?>[]::new)).thenApply(done -> {
+            Map<String, BigDecimal> map = new HashMap<>(bulk);
+            missing.forEach((symbol, price) -> {
+                BigDecimal p = price.join();
+                if (p != null) map.put(symbol, p);
+            });
+            return map;
+        });
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> getCryptoPricesAsync(List<String> cryptoIds) {
+        if (cryptoIds == null || cryptoIds.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+        return upstreamMetrics.observeLookupAsync("crypto-prices",
+                () -> getBulkCryptoQuotesAsync(cryptoIds).thenApply(quotes -> withCryptoFallbacks(cryptoIds, quotes)));
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> getBulkCryptoQuotesAsync(List<String> cryptoIds) {
+        if (cryptoIds == null || cryptoIds.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+        String ids = cryptoIds.stream()
+                .map(id -> java.net.URLEncoder.encode(id.toLowerCase(), java.nio.charset.StandardCharsets.UTF_8))
+                .collect(Collectors.joining(","));
+        String url = coingeckoBaseUrl + "/simple/price?ids=" + ids + "&vs_currencies=inr";
+        return upstreamMetrics.observeAsync("coingecko", "price",
+                        () -> fetchAsync(url).thenApply(AssetService::parseCryptoPrices), UpstreamMetrics::classify)
+                .exceptionally(e -> new HashMap<>());
+    }
+
+    public CompletableFuture<Map<String, Object>> resolveSymbolDetailsAsync(String symbol) {
+        return CompletableFuture.supplyAsync(() -> resolveSymbolDetails(symbol), fallbackExecutor);
+    }
+
+    // GET on the non-blocking client; 429 and other error statuses complete the future exceptionally
+    private CompletableFuture<String> fetchAsync(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(asyncTimeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            int status = response.statusCode();
+            if (status == 429) throw new UpstreamMetrics.RateLimitedException("HTTP 429 from " + request.uri().getHost());
+            if (status >= 400) throw new IllegalStateException("HTTP " + status + " from " + request.uri().getHost());
+            return response.body();
+        });
+    }
+
     // Resolving symbol details using Yahoo Search/Quote 
     public Map<String, Object> resolveSymbolDetails(String symbol) {
         Map<String, Object> info = new HashMap<>();
         if (symbol == null || symbol.isBlank()) return info;
 
         try {
-            String url = "https://query2.finance.yahoo.com/v1/finance/search?q=" + java.net.URLEncoder.encode(symbol, java.nio.charset.StandardCharsets.UTF_8);
-            String resp = restTemplate.getForObject(url, String.class);
+            String url = yahooSearchBaseUrl + "/v1/finance/search?q=" + java.net.URLEncoder.encode(symbol, java.nio.charset.StandardCharsets.UTF_8);
+            String resp = upstreamMetrics.observe("yahoo", "search", () -> restTemplate.getForObject(java.net.URI.create(url), String.class));
             if (resp != null && !resp.isEmpty()) {
                 org.json.JSONObject root = new org.json.JSONObject(resp);
                 if (root.has("quotes")) {
@@ -174,13 +478,14 @@ public class AssetService {
             // Trying to also get price via quote endpoint
             try {
                 String qUrl = yahooQuoteBaseUrl + "/v7/finance/quote?symbols=" + java.net.URLEncoder.encode(symbol, java.nio.charset.StandardCharsets.UTF_8);
-                String qResp = restTemplate.getForObject(qUrl, String.class);
+                String qResp = upstreamMetrics.observe("yahoo", "quote", () -> restTemplate.getForObject(java.net.URI.create(qUrl), String.class));
                 if (qResp != null && !qResp.isEmpty()) {
                     org.json.JSONObject rroot = new org.json.JSONObject(qResp);
                     if (rroot.has("quoteResponse")) {
                         org.json.JSONArray res = rroot.getJSONObject("quoteResponse").optJSONArray("result");
                         if (res != null && res.length() > 0) {
                             org.json.JSONObject first = res.getJSONObject(0);
+                            fxRateService.recordQuoteCurrency(symbol, first.optString("currency", null));
                             if (first.has("regularMarketPrice")) info.put("price", first.optDouble("regularMarketPrice"));
                         }
                     }
@@ -198,43 +503,42 @@ public class AssetService {
         // Try Yahoo Quote API first 
         try {
             String yUrl = yahooQuoteBaseUrl + "/v7/finance/quote?symbols=" + java.net.URLEncoder.encode(sym, java.nio.charset.StandardCharsets.UTF_8);
-            String resp = restTemplate.getForObject(yUrl, String.class);
-            if (resp != null && !resp.isEmpty()) {
-                org.json.JSONObject root = new org.json.JSONObject(resp);
-                if (root.has("quoteResponse")) {
-                    org.json.JSONArray arr = root.getJSONObject("quoteResponse").optJSONArray("result");
-                    if (arr != null && arr.length() > 0) {
-                        org.json.JSONObject r = arr.getJSONObject(0);
-                        if (r.has("regularMarketPrice")) {
-                            return new BigDecimal(r.getDouble("regularMarketPrice"));
+            BigDecimal price = upstreamMetrics.observe("yahoo", "quote", () -> {
+                String resp = restTemplate.getForObject(java.net.URI.create(yUrl), String.class);
+                if (resp != null && !resp.isEmpty()) {
+                    org.json.JSONObject root = new org.json.JSONObject(resp);
+                    if (root.has("quoteResponse")) {
+                        org.json.JSONArray arr = root.getJSONObject("quoteResponse").optJSONArray("result");
+                        if (arr != null && arr.length() > 0) {
+                            org.json.JSONObject r = arr.getJSONObject(0);
+                            fxRateService.recordQuoteCurrency(sym, r.optString("currency", null));
+                            if (r.has("regularMarketPrice")) {
+                                return new BigDecimal(r.getDouble("regularMarketPrice"));
+                            }
                         }
                     }
                 }
-            }
+                return null;
+            });
+            if (price != null) return price;
         } catch (Exception ignored) {}
 
         // Try Yahoo Chart API 
         try {
-            String yChartUrl = yahooQuoteBaseUrl + "/v8/finance/chart/" + java.net.URLEncoder.encode(sym, java.nio.charset.StandardCharsets.UTF_8);
-            String resp = restTemplate.getForObject(yChartUrl, String.class);
-            if (resp != null && !resp.isEmpty()) {
-                org.json.JSONObject root = new org.json.JSONObject(resp);
-                if (root.has("chart")) {
-                    org.json.JSONArray res = root.getJSONObject("chart").optJSONArray("result");
-                    if (res != null && res.length() > 0) {
-                        org.json.JSONObject meta = res.getJSONObject(0).optJSONObject("meta");
-                        if (meta != null && meta.has("regularMarketPrice")) {
-                            return new BigDecimal(meta.getDouble("regularMarketPrice"));
-                        }
-                    }
-                }
+            org.json.JSONObject meta = fetchChartMeta(sym);
+            if (meta != null && meta.has("regularMarketPrice")) {
+                return new BigDecimal(meta.getDouble("regularMarketPrice"));
             }
         } catch (Exception ignored) {}
 
         // Fallback: AlphaVantage
+        if (!alphaQuota.tryAcquire()) return null;
+        alphaLock.lock();
         try {
-            String finalUrl = String.format(URL, sym, alphavantageApiKey);
-            String json = restTemplate.getForObject(finalUrl, String.class);
+            String finalUrl = alphavantageBaseUrl + "?function=GLOBAL_QUOTE&symbol=" + java.net.URLEncoder.encode(sym, java.nio.charset.StandardCharsets.UTF_8)
+                    + "&apikey=" + alphavantageApiKey;
+            String json = upstreamMetrics.observe("alphavantage", "quote",
+                    () -> restTemplate.getForObject(java.net.URI.create(finalUrl), String.class), UpstreamMetrics::classifyAlphaVantage);
             if (json == null || json.isEmpty()) return null;
 
             JSONObject obj = new JSONObject(json);
@@ -247,6 +551,30 @@ public class AssetService {
 
             return new BigDecimal(quote.getString("05. price"));
 
+        } catch (Exception e) {
+            return null;
+        } finally {
+            alphaLock.unlock();
+        }
+    }
+
+    // "meta" block of a symbol's Yahoo chart (price and quote currency), or null; the currency is recorded
+    private org.json.JSONObject fetchChartMeta(String sym) {
+        try {
+            String yChartUrl = yahooQuoteBaseUrl + "/v8/finance/chart/" + java.net.URLEncoder.encode(sym, java.nio.charset.StandardCharsets.UTF_8);
+            org.json.JSONObject meta = upstreamMetrics.observe("yahoo", "chart", () -> {
+                String resp = restTemplate.getForObject(java.net.URI.create(yChartUrl), String.class);
+                if (resp != null && !resp.isEmpty()) {
+                    org.json.JSONObject root = new org.json.JSONObject(resp);
+                    if (root.has("chart")) {
+                        org.json.JSONArray res = root.getJSONObject("chart").optJSONArray("result");
+                        if (res != null && res.length() > 0) return res.getJSONObject(0).optJSONObject("meta");
+                    }
+                }
+                return null;
+            });
+            if (meta != null) fxRateService.recordQuoteCurrency(sym, meta.optString("currency", null));
+            return meta;
         } catch (Exception e) {
             return null;
         }
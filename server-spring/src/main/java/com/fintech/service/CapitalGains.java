@@ -0,0 +1,222 @@
+package com.fintech.service;
+
+import com.fintech.dto.LotGainRow;
+import com.fintech.dto.OpenPosition;
+import com.fintech.entity.Asset;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indian capital gains rules and the arithmetic of a statement, kept free of I/O so the batch
+ * pipeline and the per-user endpoint share it.
+ *
+ * <p>Holding periods: listed shares and mutual funds are long term after 12 months, everything
+ * else after 24 months. Crypto is a virtual digital asset (section 115BBH), taxed flat whatever
+ * the holding period, so it is totalled separately. Amounts are gains, not tax.
+ */
+public final class CapitalGains {
+
+    public enum Term { SHORT, LONG, VDA }
+
+    // Half the smallest quantity step (scale 8); differences below it are double rounding
+    private static final double QUANTITY_EPSILON = 0.5e-8;
+
+    // April to March, labelled "2025-26"
+    public record FinancialYear(int startYear) {
+
+        public static FinancialYear of(LocalDate date) {
+            return new FinancialYear(date.getMonthValue() >= Month.APRIL.getValue() ? date.getYear() : date.getYear() - 1);
+        }
+
+        public static FinancialYear parse(String label) {
+            if (label == null || label.isBlank()) return of(LocalDate.now());
+            String s = label.trim().toUpperCase().replace("FY", "");
+            try {
+                int start = Integer.parseInt(s.substring(0, 4));
+                if (s.length() > 4) {
+                    int end = Integer.parseInt(s.substring(5));
+                    if (end != (start + 1) % 100 && end != start + 1) throw new NumberFormatException();
+                }
+                return new FinancialYear(start);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Financial year must look like 2025-26");
+            }
+        }
+
+        public LocalDate start() {
+            return LocalDate.of(startYear, Month.APRIL, 1);
+        }
+
+        public LocalDate end() {
+            return LocalDate.of(startYear + 1, Month.MARCH, 31);
+        }
+
+        public String label() {
+            return startYear + "-" + String.format("%02d", (startYear + 1) % 100);
+        }
+    }
+
+    private CapitalGains() {
+    }
+
+    public static Term classify(Asset.AssetType type, LocalDate acquiredOn, LocalDate soldOn) {
+        if (type == Asset.AssetType.crypto) return Term.VDA;
+        int months = type == Asset.AssetType.stock || type == Asset.AssetType.mutual ? 12 : 24;
+        return soldOn.isAfter(acquiredOn.plusMonths(months)) ? Term.LONG : Term.SHORT;
+    }
+
+    /**
+     * The lots to mark for a holding: its open lots brought in line with its quantity, as
+     * {@link CostBasisEngine#reconcile} does before a trade. Holdings created, edited or imported
+     * directly only reach their lots on the next trade, so without this a statement would miss
+     * units that were never traded or count units edited away. Missing units become an opening
+     * lot at the average price dated when the holding was created; surplus units come off the
+     * newest lots.
+     */
+    public static List<LotGainRow> reconcile(OpenPosition position) {
+        double inLots = 0;
+        for (LotGainRow lot : position.lots()) inLots += lot.quantity();
+        double missing = position.held() - inLots;
+        if (Math.abs(missing) < QUANTITY_EPSILON) return position.lots();
+
+        List<LotGainRow> lots = new ArrayList<>(position.lots());
+        if (missing > 0) {
+            LocalDate opened = position.openedOn() != null ? position.openedOn() : LocalDate.now();
+            int at = lots.size();
+            while (at > 0 && lots.get(at - 1).acquiredOn().isAfter(opened)) at--;
+            lots.add(at, new LotGainRow(position.userId(), position.type(), position.symbol(), opened, null,
+                    missing, 0.0, missing * position.avgBuyPrice()));
+            return lots;
+        }
+
+        double surplus = -missing;
+        for (int i = lots.size() - 1; i >= 0 && surplus >= QUANTITY_EPSILON; i--) {
+            LotGainRow lot = lots.get(i);
+            double take = Math.min(lot.quantity(), surplus);
+            surplus -= take;
+            double left = lot.quantity() - take;
+            if (left < QUANTITY_EPSILON) {
+                lots.remove(i);
+            } else {
+                lots.set(i, new LotGainRow(lot.userId(), lot.type(), lot.symbol(), lot.acquiredOn(), null,
+                        left, 0.0, lot.costBasis() * left / lot.quantity()));
+            }
+        }
+        return lots;
+    }
+
+    /**
+     * One user's statement for a year, accumulated lot by lot in primitives. Unrealized figures
+     * mark open lots at a current price and classify them as if sold on the as-of date. Amounts are
+     * in INR: {@code fx} converts a lot from its quote currency at the rates current when the
+     * statement is computed, not those of the trade dates, so a statement with converted lots is
+     * approximate.
+     */
+    public static final class Totals {
+        public final long userId;
+        public final double[] realized = new double[Term.values().length];
+        public final double[] unrealized = new double[Term.values().length];
+        public double proceeds;
+        public double costBasis;
+        public int realizedLots;
+        public int unrealizedLots;
+        public int unpricedLots;
+        public int convertedLots;
+
+        public Totals(long userId) {
+            this.userId = userId;
+        }
+
+        public Term addRealized(LotGainRow row, double fx) {
+            Term term = classify(row.type(), row.acquiredOn(), row.soldOn());
+            realized[term.ordinal()] += (row.proceeds() - row.costBasis()) * fx;
+            proceeds += row.proceeds() * fx;
+            costBasis += row.costBasis() * fx;
+            realizedLots++;
+            if (fx != 1.0) convertedLots++;
+            return term;
+        }
+
+        // NaN price: the lot has no quote in the current snapshot and is left out
+        public Term addUnrealized(LotGainRow row, double price, LocalDate asOf, double fx) {
+            if (Double.isNaN(price)) {
+                unpricedLots++;
+                return null;
+            }
+            Term term = classify(row.type(), row.acquiredOn(), asOf);
+            unrealized[term.ordinal()] += (row.quantity() * price - row.costBasis()) * fx;
+            unrealizedLots++;
+            if (fx != 1.0) convertedLots++;
+            return term;
+        }
+
+        public double realized(Term term) {
+            return realized[term.ordinal()];
+        }
+
+        public double unrealized(Term term) {
+            return unrealized[term.ordinal()];
+        }
+    }
+
+    // ---------------------- CSV ----------------------
+
+    public static final String CSV_HEADER =
+            "user_id,financial_year,kind,term,type,symbol,acquired_on,sold_on,quantity,proceeds,cost_basis,gain\r\n";
+
+    // Hand-formatted: this runs once per lot across every account at year end. Amounts are
+    // converted to INR by fx, as in Totals; the quantity is not
+    public static void writeCsvLine(Writer out, FinancialYear fy, LotGainRow row, Term term,
+                                    double proceeds, double fx) throws IOException {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(row.userId()).append(',').append(fy.label()).append(',')
+                .append(row.soldOn() != null ? "REALIZED" : "UNREALIZED").append(',')
+                .append(term).append(',').append(row.type()).append(',');
+        appendSymbol(sb, row.symbol());
+        sb.append(',').append(row.acquiredOn()).append(',');
+        if (row.soldOn() != null) sb.append(row.soldOn());
+        sb.append(',');
+        appendFixed(sb, row.quantity(), 8);
+        sb.append(',');
+        appendFixed(sb, proceeds * fx, 2);
+        sb.append(',');
+        appendFixed(sb, row.costBasis() * fx, 2);
+        sb.append(',');
+        appendFixed(sb, (proceeds - row.costBasis()) * fx, 2);
+        sb.append("\r\n");
+        out.write(sb.toString());
+    }
+
+    private static void appendSymbol(StringBuilder sb, String symbol) {
+        if (symbol.indexOf(',') < 0 && symbol.indexOf('"') < 0) {
+            sb.append(symbol);
+        } else {
+            sb.append('"').append(symbol.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    // Plain decimal with trailing zeros trimmed (never exponent notation)
+    static void appendFixed(StringBuilder sb, double value, int scale) {
+        long unit = 1;
+        for (int i = 0; i < scale; i++) unit *= 10;
+        long scaled = Math.round(Math.abs(value) * unit);
+        if (value < 0 && scaled != 0) sb.append('-');
+        sb.append(scaled / unit);
+        long frac = scaled % unit;
+        if (frac == 0) return;
+        int digits = scale;
+        while (frac % 10 == 0) {
+            frac /= 10;
+            digits--;
+        }
+        sb.append('.');
+        String f = Long.toString(frac);
+        for (int i = f.length(); i < digits; i++) sb.append('0');
+        sb.append(f);
+    }
+}
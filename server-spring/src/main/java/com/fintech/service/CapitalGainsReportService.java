@@ -0,0 +1,455 @@
+package com.fintech.service;
+
+import com.fintech.config.IoThreadFactory;
+import com.fintech.dto.LotGainRow;
+import com.fintech.entity.CapitalGainsStatement;
+import com.fintech.entity.JobCheckpoint;
+import com.fintech.entity.User;
+import com.fintech.repository.CapitalGainsStatementRepository;
+import com.fintech.repository.JobCheckpointRepository;
+import com.fintech.repository.RealizedGainRepository;
+import com.fintech.repository.TaxLotRepository;
+import com.fintech.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Year-end capital gains statements for every account. Users are split into id-range partitions
+ * that a dedicated fork-join pool works through; each partition scans its realized gains and open
+ * lots once, writes a per-lot CSV file and upserts one statement row per user, so re-running a
+ * partition is harmless. The checkpoint advances over the contiguous prefix of finished
+ * partitions, and a run interrupted by a restart resumes from it.
+ */
+@Service
+public class CapitalGainsReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CapitalGainsReportService.class);
+
+    private static final String JOB_NAME = "capital-gains";
+
+    // Persist the checkpoint every N finished partitions
+    private static final int CHECKPOINT_EVERY = 10;
+
+    private final UserRepository userRepository;
+    private final RealizedGainRepository realizedGainRepository;
+    private final TaxLotRepository taxLotRepository;
+    private final CapitalGainsStatementRepository statementRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final PriceSnapshotService priceSnapshotService;
+    private final FxRateService fxRateService;
+    private final IoThreadFactory ioThreads;
+    private final ForkJoinPool pool;
+    private final Path outputDir;
+    private final int partitionSize;
+    private final Duration resumeWindow;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Run lastRun;
+
+    public CapitalGainsReportService(UserRepository userRepository,
+                                     RealizedGainRepository realizedGainRepository,
+                                     TaxLotRepository taxLotRepository,
+                                     CapitalGainsStatementRepository statementRepository,
+                                     JobCheckpointRepository checkpointRepository,
+                                     PriceSnapshotService priceSnapshotService,
+                                     FxRateService fxRateService,
+                                     IoThreadFactory ioThreads,
+                                     @Value("${capital-gains.output-dir:reports/capital-gains}") String outputDir,
+                                     @Value("${capital-gains.parallelism:4}") int parallelism,
+                                     @Value("${capital-gains.partition-size:500}") int partitionSize,
+                                     @Value("${capital-gains.resume-window-hours:24}") long resumeWindowHours) {
+        this.userRepository = userRepository;
+        this.realizedGainRepository = realizedGainRepository;
+        this.taxLotRepository = taxLotRepository;
+        this.statementRepository = statementRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.priceSnapshotService = priceSnapshotService;
+        this.fxRateService = fxRateService;
+        this.ioThreads = ioThreads;
+        this.outputDir = Path.of(outputDir);
+        this.partitionSize = Math.max(1, partitionSize);
+        this.resumeWindow = Duration.ofHours(resumeWindowHours);
+
+        // Partitions block on JDBC, so parallelism should stay below the connection pool size
+        ForkJoinPool.ForkJoinWorkerThreadFactory threads = p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("capital-gains-" + t.getPoolIndex());
+            return t;
+        };
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), threads, null, false);
+    }
+
+    // ---------------------- Year-end run ----------------------
+
+    // Defaults to 1 April, covering the year that ended the day before
+    // The run blocks in pool.invoke until every user is done, so it gets its own thread rather than a scheduler one
+    @Scheduled(cron = "${capital-gains.cron:0 0 3 1 4 ?}")
+    public void scheduledRun() {
+        CapitalGains.FinancialYear fy = CapitalGains.FinancialYear.of(LocalDate.now().minusDays(1));
+        ioThreads.named("capital-gains-run-").newThread(() -> {
+            log.info("Starting capital gains run for FY {}", fy.label());
+            try {
+                runForYear(fy);
+            } catch (Exception e) {
+                log.error("Capital gains run for FY {} failed", fy.label(), e);
+            }
+        }).start();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        checkpointRepository.findById(JOB_NAME)
+                .filter(this::isResumable)
+                .ifPresent(cp -> {
+                    CapitalGains.FinancialYear fy = CapitalGains.FinancialYear.parse(cp.getCursor().split("/", 2)[0]);
+                    log.info("Resuming capital gains run for FY {} ({} of {} users done)", fy.label(), cp.getProcessed(), cp.getTotal());
+                    ioThreads.named("capital-gains-resume-").newThread(() -> {
+                        try {
+                            runForYear(fy);
+                        } catch (Exception e) {
+                            log.error("Resumed capital gains run for FY {} failed", fy.label(), e);
+                        }
+                    }).start();
+                });
+    }
+
+    public void runForYear(CapitalGains.FinancialYear fy) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Capital gains run already in progress, skipping");
+            return;
+        }
+        try {
+            run(fy);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(CapitalGains.FinancialYear fy) throws IOException {
+        List<Long> userIds = userRepository.findAllIdsOrdered();
+        String cursorPrefix = fy.label() + "/";
+
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+        long resumeAfter = Long.MIN_VALUE;
+        if (checkpoint != null && isResumable(checkpoint) && checkpoint.getCursor().startsWith(cursorPrefix)) {
+            String last = checkpoint.getCursor().substring(cursorPrefix.length());
+            if (!last.isEmpty()) resumeAfter = Long.parseLong(last);
+        } else {
+            checkpoint = new JobCheckpoint(JOB_NAME);
+            checkpoint.setStartedAt(Instant.now());
+            checkpoint.setCursor(cursorPrefix);
+        }
+
+        // [first id, last id, user count] per partition, in id order
+        List<long[]> partitions = new ArrayList<>();
+        List<Long> pending = new ArrayList<>();
+        for (Long id : userIds) {
+            if (id > resumeAfter) pending.add(id);
+        }
+        for (int i = 0; i < pending.size(); i += partitionSize) {
+            List<Long> chunk = pending.subList(i, Math.min(i + partitionSize, pending.size()));
+            partitions.add(new long[]{chunk.get(0), chunk.get(chunk.size() - 1), chunk.size()});
+        }
+
+        checkpoint.setStatus(JobCheckpoint.Status.RUNNING);
+        checkpoint.setTotal(userIds.size());
+        checkpoint.setProcessed(userIds.size() - pending.size());
+        checkpoint.setFailed(0);
+        saveCheckpoint(checkpoint);
+
+        Path dir = outputDir.resolve("FY" + fy.label());
+        Files.createDirectories(dir);
+        Run run = new Run(fy, checkpoint, cursorPrefix, partitions, asOf(fy), Instant.now(), dir);
+        lastRun = run;
+        log.info("Capital gains FY {}: {} users, {} to process in {} partitions", fy.label(), userIds.size(),
+                pending.size(), partitions.size());
+
+        if (!partitions.isEmpty()) pool.invoke(new PartitionTask(run, 0, partitions.size()));
+        run.finish();
+        log.info("Capital gains FY {} finished in {} s: {} users, {} failed partitions", fy.label(),
+                Duration.between(run.startedAt, run.finishedAt).toSeconds(), checkpoint.getProcessed(), run.failedPartitions);
+    }
+
+    // Splits the partition range in halves until one partition is left
+    private final class PartitionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks only live inside one pool.invoke; they are never serialized
+        private final transient Run run;
+        private final int from;
+        private final int to;
+
+        PartitionTask(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                long[] p = run.partitions.get(from);
+                boolean ok = processPartitionSafely(run, p[0], p[1]);
+                run.done(from, ok);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PartitionTask(run, from, mid), new PartitionTask(run, mid, to));
+        }
+    }
+
+    private boolean processPartitionSafely(Run run, long firstUserId, long lastUserId) {
+        try {
+            processPartition(run, firstUserId, lastUserId);
+            return true;
+        } catch (Exception e) {
+            log.warn("Capital gains partition {}..{} failed: {}", firstUserId, lastUserId, e.getMessage());
+            return false;
+        }
+    }
+
+    // Written to a temp file and moved into place so a crash never leaves a half-written partition
+    private void processPartition(Run run, long firstUserId, long lastUserId) throws IOException {
+        Map<Long, CapitalGains.Totals> totals = new LinkedHashMap<>();
+        Path file = run.dir.resolve(String.format("part-%012d-%012d.csv", firstUserId, lastUserId));
+        Path tmp = run.dir.resolve(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            out.write(CapitalGains.CSV_HEADER);
+            collect(run.fy, run.asOf, firstUserId, lastUserId, totals, out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        statementRepository.upsertAll(run.fy.label(), totals.values(), run.computedAt);
+    }
+
+    /**
+     * Accumulates realized gains sold in {@code fy} and open lots acquired by its end for users
+     * {@code firstUserId..lastUserId}, writing one CSV line per lot when {@code out} is given.
+     * Open lots are first reconciled with the holdings' current quantities, then marked at the
+     * latest price snapshot. Amounts convert to INR at the current rate table, as valuations do,
+     * so a statement never adds dollars to rupees.
+     */
+    private void collect(CapitalGains.FinancialYear fy, LocalDate asOf, long firstUserId, long lastUserId,
+                         Map<Long, CapitalGains.Totals> totals, Writer out) throws IOException {
+        double[] fxRates = fxRateService.ratesToInr();
+        try {
+            realizedGainRepository.scanRealized(firstUserId, lastUserId, fy.start(), fy.end(), row -> {
+                double fx = fxRates[fxRateService.currencyOf(row.type(), row.symbol()).ordinal()];
+                CapitalGains.Totals t = totals.computeIfAbsent(row.userId(), CapitalGains.Totals::new);
+                CapitalGains.Term term = t.addRealized(row, fx);
+                writeLine(out, fy, row, term, row.proceeds(), fx);
+            });
+
+            Map<String, Double> prices = new HashMap<>();
+            taxLotRepository.scanOpenPositions(firstUserId, lastUserId, position -> {
+                for (LotGainRow row : CapitalGains.reconcile(position)) {
+                    if (row.acquiredOn().isAfter(fy.end())) continue;
+                    double price = prices.computeIfAbsent(row.symbol().toUpperCase(), s ->
+                            priceSnapshotService.latestPrice(s).map(BigDecimal::doubleValue).orElse(Double.NaN));
+                    double fx = fxRates[fxRateService.currencyOf(row.type(), row.symbol()).ordinal()];
+                    CapitalGains.Totals t = totals.computeIfAbsent(row.userId(), CapitalGains.Totals::new);
+                    CapitalGains.Term term = t.addUnrealized(row, price, asOf, fx);
+                    if (term != null) writeLine(out, fy, row, term, row.quantity() * price, fx);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeLine(Writer out, CapitalGains.FinancialYear fy, LotGainRow row, CapitalGains.Term term,
+                                  double proceeds, double fx) {
+        if (out == null) return;
+        try {
+            CapitalGains.writeCsvLine(out, fy, row, term, proceeds, fx);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ---------------------- Per-user statement ----------------------
+
+    public Map<String, Object> statementFor(User user, CapitalGains.FinancialYear fy) {
+        Map<Long, CapitalGains.Totals> totals = new HashMap<>();
+        LocalDate asOf = asOf(fy);
+        try {
+            collect(fy, asOf, user.getId(), user.getId(), totals, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CapitalGains.Totals t = totals.getOrDefault(user.getId(), new CapitalGains.Totals(user.getId()));
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("financialYear", fy.label());
+        m.put("from", fy.start());
+        m.put("to", fy.end());
+        m.put("currency", FxRateService.BASE_CURRENCY);
+        m.put("realized", byTerm(t.realized));
+        m.put("proceeds", round2(t.proceeds));
+        m.put("costBasis", round2(t.costBasis));
+        m.put("realizedLots", t.realizedLots);
+        m.put("unrealizedAsOf", asOf);
+        m.put("unrealized", byTerm(t.unrealized));
+        m.put("unrealizedLots", t.unrealizedLots);
+        m.put("unpricedLots", t.unpricedLots);
+        // Foreign lots use today's rates, not those of the trade dates: an estimate, not a tax figure
+        m.put("approximate", t.convertedLots > 0);
+        if (t.convertedLots > 0) {
+            m.put("note", "Amounts in other currencies are converted at current exchange rates, not the rates on the trade dates");
+        }
+        statementRepository.findByUserIdAndFinancialYear(user.getId(), fy.label())
+                .ifPresent(s -> m.put("yearEndStatementAt", s.getComputedAt()));
+        return m;
+    }
+
+    public void writeStatementCsv(User user, CapitalGains.FinancialYear fy, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(CapitalGains.CSV_HEADER);
+        collect(fy, asOf(fy), user.getId(), user.getId(), new HashMap<>(), writer);
+        writer.flush();
+    }
+
+    private static LocalDate asOf(CapitalGains.FinancialYear fy) {
+        return LocalDate.now().isBefore(fy.end()) ? LocalDate.now() : fy.end();
+    }
+
+    private static Map<String, Object> byTerm(double[] amounts) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        double total = 0;
+        for (CapitalGains.Term term : CapitalGains.Term.values()) {
+            m.put(term.name().toLowerCase(), round2(amounts[term.ordinal()]));
+            total += amounts[term.ordinal()];
+        }
+        m.put("total", round2(total));
+        return m;
+    }
+
+    private static double round2(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+
+    // ---------------------- Checkpoint & progress ----------------------
+
+    private boolean isResumable(JobCheckpoint cp) {
+        return cp.getStatus() == JobCheckpoint.Status.RUNNING
+                && cp.getCursor() != null
+                && cp.getStartedAt() != null
+                && cp.getStartedAt().isAfter(Instant.now().minus(resumeWindow));
+    }
+
+    private void saveCheckpoint(JobCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(Instant.now());
+        try {
+            checkpointRepository.save(checkpoint);
+        } catch (Exception e) {
+            log.warn("Could not persist capital gains checkpoint: {}", e.getMessage());
+        }
+    }
+
+    // State of one run; partitions finish out of order on the pool's workers
+    private final class Run {
+        final CapitalGains.FinancialYear fy;
+        final JobCheckpoint checkpoint;
+        final String cursorPrefix;
+        final List<long[]> partitions;
+        final LocalDate asOf;
+        final Instant computedAt;
+        final Path dir;
+        final Instant startedAt = Instant.now();
+        final boolean[] ok;
+        int contiguous;
+        int done;
+        int failedPartitions;
+        volatile Instant finishedAt;
+
+        Run(CapitalGains.FinancialYear fy, JobCheckpoint checkpoint, String cursorPrefix, List<long[]> partitions,
+            LocalDate asOf, Instant computedAt, Path dir) {
+            this.fy = fy;
+            this.checkpoint = checkpoint;
+            this.cursorPrefix = cursorPrefix;
+            this.partitions = partitions;
+            this.asOf = asOf;
+            this.computedAt = computedAt;
+            this.dir = dir;
+            this.ok = new boolean[partitions.size()];
+        }
+
+        // The cursor only moves over partitions that succeeded, so a resume retries a failed one
+        synchronized void done(int index, boolean succeeded) {
+            ok[index] = succeeded;
+            done++;
+            long users = partitions.get(index)[2];
+            checkpoint.setProcessed(checkpoint.getProcessed() + users);
+            if (!succeeded) {
+                checkpoint.setFailed(checkpoint.getFailed() + users);
+                failedPartitions++;
+            }
+            while (contiguous < ok.length && ok[contiguous]) contiguous++;
+            if (done % CHECKPOINT_EVERY == 0 || done == partitions.size()) {
+                if (contiguous > 0) checkpoint.setCursor(cursorPrefix + partitions.get(contiguous - 1)[1]);
+                saveCheckpoint(checkpoint);
+                log.info("Capital gains FY {} progress: {}/{} partitions", fy.label(), done, partitions.size());
+            }
+        }
+
+        // A run with failed partitions stays RUNNING so the next start picks them up
+        synchronized void finish() {
+            finishedAt = Instant.now();
+            if (failedPartitions == 0) checkpoint.setStatus(JobCheckpoint.Status.COMPLETED);
+            saveCheckpoint(checkpoint);
+        }
+    }
+
+    /**
+     * Where the caller's year-end statement stands: whether a run for that year is in progress
+     * and when the stored statement was computed. A null year means the latest run's year, or
+     * the current one before any run.
+     */
+    public Map<String, Object> statementStatusFor(User user, CapitalGains.FinancialYear fy) {
+        Run run = lastRun;
+        CapitalGains.FinancialYear year = fy != null ? fy : run != null ? run.fy : CapitalGains.FinancialYear.of(LocalDate.now());
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("financialYear", year.label());
+        m.put("running", running.get() && run != null && run.fy.equals(year) && run.finishedAt == null);
+        Instant computedAt = statementRepository.findByUserIdAndFinancialYear(user.getId(), year.label())
+                .map(CapitalGainsStatement::getComputedAt)
+                .orElse(null);
+        m.put("statementReady", computedAt != null);
+        m.put("computedAt", computedAt);
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,220 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.AssetTransaction;
+import com.fintech.entity.TaxLot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Incremental cost basis. The {@link Asset} row is the running aggregate of its ledger: a buy
+ * opens a lot and folds its cost into quantity and average price, a sell draws lots down and
+ * books the gain into {@code realizedPnl}. Each trade touches the position and the lots it
+ * matches, never the transaction history, so valuation reads one row per holding however many
+ * trades produced it.
+ *
+ * <p>Sells match lots oldest first, or the lots named by the caller (specific identification).
+ * Under {@link Asset.CostBasisMethod#AVERAGE} the matched units are costed at the position's
+ * average instead of the lot's own cost; lots are still drawn down so holding periods stay known.
+ */
+public final class CostBasisEngine {
+
+    static final int QUANTITY_SCALE = 8;
+    static final int MONEY_SCALE = 4;
+
+    // The part of a sell matched against one lot
+    public record Match(TaxLot lot, BigDecimal quantity, BigDecimal costBasis, BigDecimal proceeds) {
+        public BigDecimal gain() {
+            return proceeds.subtract(costBasis);
+        }
+    }
+
+    private record Slice(TaxLot lot, BigDecimal quantity) {}
+
+    // Open lots in the order FIFO consumes them; unsaved lots (no id yet) sort after saved ones
+    static final Comparator<TaxLot> LOT_ORDER = Comparator.comparing(TaxLot::getAcquiredOn)
+            .thenComparing(TaxLot::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private CostBasisEngine() {
+    }
+
+    /**
+     * Opens a lot for {@code buy} and folds its cost (fees included) into the position's quantity
+     * and average price. The returned lot is not yet persisted.
+     */
+    public static TaxLot buy(Asset position, AssetTransaction buy) {
+        BigDecimal cost = buy.getQuantity().multiply(buy.getPrice()).add(buy.getFees());
+
+        TaxLot lot = newLot(position, buy.getTradeDate(), buy.getQuantity(),
+                cost.divide(buy.getQuantity(), QUANTITY_SCALE, RoundingMode.HALF_UP));
+        lot.setBuyTransaction(buy);
+
+        BigDecimal held = quantity(position);
+        BigDecimal total = held.add(buy.getQuantity());
+        position.setQuantity(total);
+        position.setAvgBuyPrice(heldCost(position, held).add(cost).divide(total, QUANTITY_SCALE, RoundingMode.HALF_UP));
+        return lot;
+    }
+
+    /**
+     * Matches {@code sell} against {@code openLots} (in {@link #LOT_ORDER}), or against
+     * {@code specificLots} (lot id to quantity) when given, draws the matched lots down and updates
+     * the position. Proceeds are net of the sell's fees and split across matches by quantity.
+     */
+    public static List<Match> sell(Asset position, List<TaxLot> openLots, AssetTransaction sell,
+                                   Map<Long, BigDecimal> specificLots) {
+        BigDecimal quantity = sell.getQuantity();
+        BigDecimal held = quantity(position);
+        if (quantity.compareTo(held) > 0) {
+            throw new IllegalArgumentException("Cannot sell " + quantity.stripTrailingZeros().toPlainString()
+                    + " " + position.getSymbol() + "; only " + held.stripTrailingZeros().toPlainString() + " held");
+        }
+
+        List<Slice> allocation = specificLots == null || specificLots.isEmpty()
+                ? allocateFifo(openLots, quantity)
+                : allocateSpecific(openLots, quantity, specificLots);
+
+        boolean average = position.getCostBasisMethod() == Asset.CostBasisMethod.AVERAGE;
+        BigDecimal netProceeds = quantity.multiply(sell.getPrice()).subtract(sell.getFees());
+        BigDecimal proceedsLeft = netProceeds.setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+        BigDecimal totalCost = BigDecimal.ZERO;
+
+        List<Match> matches = new ArrayList<>(allocation.size());
+        for (int i = 0; i < allocation.size(); i++) {
+            TaxLot lot = allocation.get(i).lot();
+            BigDecimal q = allocation.get(i).quantity();
+
+            BigDecimal unitCost = average ? position.getAvgBuyPrice() : lot.getUnitCost();
+            BigDecimal cost = q.multiply(unitCost).setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+            // The last slice takes the remainder so the slices add up to the sell exactly
+            BigDecimal proceeds = i == allocation.size() - 1
+                    ? proceedsLeft
+                    : netProceeds.multiply(q).divide(quantity, MONEY_SCALE, RoundingMode.HALF_UP);
+            proceedsLeft = proceedsLeft.subtract(proceeds);
+            totalCost = totalCost.add(cost);
+
+            lot.setRemainingQuantity(lot.getRemainingQuantity().subtract(q));
+            matches.add(new Match(lot, q, cost, proceeds));
+        }
+
+        // Lot costing leaves the average of what is still open; re-deriving it from the open lots
+        // (already in hand) keeps rounding from accumulating across sells
+        BigDecimal remaining = held.subtract(quantity);
+        if (!average && remaining.signum() > 0) {
+            BigDecimal remainingCost = BigDecimal.ZERO;
+            for (TaxLot lot : openLots) remainingCost = remainingCost.add(lot.getRemainingQuantity().multiply(lot.getUnitCost()));
+            position.setAvgBuyPrice(remainingCost.divide(remaining, QUANTITY_SCALE, RoundingMode.HALF_UP));
+        }
+        position.setQuantity(remaining);
+        position.setRealizedPnl(position.getRealizedPnl()
+                .add(netProceeds.subtract(totalCost)).setScale(MONEY_SCALE, RoundingMode.HALF_UP));
+        return matches;
+    }
+
+    /**
+     * Brings the open lots in line with a quantity that was set on the holding directly (manual
+     * entry, edits, CSV import). Missing units become an opening lot at the average price, dated
+     * when the holding was created; surplus units are written off the newest lots without
+     * booking a gain. Returns the opening lot, if one was needed, for the caller to persist.
+     */
+    public static Optional<TaxLot> reconcile(Asset position, List<TaxLot> openLots) {
+        BigDecimal inLots = BigDecimal.ZERO;
+        for (TaxLot lot : openLots) inLots = inLots.add(lot.getRemainingQuantity());
+        BigDecimal held = quantity(position);
+
+        int c = inLots.compareTo(held);
+        if (c < 0) {
+            LocalDate opened = position.getCreatedAt() != null ? position.getCreatedAt().toLocalDate() : LocalDate.now();
+            TaxLot opening = newLot(position, opened, held.subtract(inLots),
+                    position.getAvgBuyPrice() != null ? position.getAvgBuyPrice() : BigDecimal.ZERO);
+            openLots.add(opening);
+            openLots.sort(LOT_ORDER);
+            return Optional.of(opening);
+        }
+        if (c > 0) {
+            BigDecimal surplus = inLots.subtract(held);
+            for (int i = openLots.size() - 1; i >= 0 && surplus.signum() > 0; i--) {
+                TaxLot lot = openLots.get(i);
+                BigDecimal take = lot.getRemainingQuantity().min(surplus);
+                lot.setRemainingQuantity(lot.getRemainingQuantity().subtract(take));
+                surplus = surplus.subtract(take);
+            }
+            openLots.removeIf(lot -> !lot.isOpen());
+        }
+        return Optional.empty();
+    }
+
+    // ---------------------- Allocation ----------------------
+
+    private static List<Slice> allocateFifo(List<TaxLot> openLots, BigDecimal quantity) {
+        List<Slice> allocation = new ArrayList<>();
+        BigDecimal left = quantity;
+        for (TaxLot lot : openLots) {
+            if (left.signum() == 0) break;
+            if (!lot.isOpen()) continue;
+            BigDecimal take = lot.getRemainingQuantity().min(left);
+            allocation.add(new Slice(lot, take));
+            left = left.subtract(take);
+        }
+        if (left.signum() > 0) {
+            throw new IllegalStateException("Open lots cover less than the position; reconcile before selling");
+        }
+        return allocation;
+    }
+
+    private static List<Slice> allocateSpecific(List<TaxLot> openLots, BigDecimal quantity, Map<Long, BigDecimal> specificLots) {
+        Map<Long, TaxLot> byId = new HashMap<>();
+        for (TaxLot lot : openLots) {
+            if (lot.getId() != null) byId.put(lot.getId(), lot);
+        }
+
+        List<Slice> allocation = new ArrayList<>(specificLots.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, BigDecimal> e : specificLots.entrySet()) {
+            TaxLot lot = byId.get(e.getKey());
+            if (lot == null) throw new IllegalArgumentException("Lot " + e.getKey() + " is not an open lot of this holding");
+            BigDecimal q = e.getValue();
+            if (q.signum() <= 0 || q.compareTo(lot.getRemainingQuantity()) > 0) {
+                throw new IllegalArgumentException("Lot " + e.getKey() + " has "
+                        + lot.getRemainingQuantity().stripTrailingZeros().toPlainString() + " units open");
+            }
+            allocation.add(new Slice(lot, q));
+            total = total.add(q);
+        }
+        if (total.compareTo(quantity) != 0) {
+            throw new IllegalArgumentException("Lot quantities must add up to the quantity sold");
+        }
+        allocation.sort(Comparator.comparing(Slice::lot, LOT_ORDER));
+        return allocation;
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private static TaxLot newLot(Asset position, LocalDate acquiredOn, BigDecimal quantity, BigDecimal unitCost) {
+        TaxLot lot = new TaxLot();
+        lot.setUser(position.getUser());
+        lot.setAssetType(position.getType());
+        lot.setSymbol(position.getSymbol());
+        lot.setAcquiredOn(acquiredOn);
+        lot.setQuantity(quantity);
+        lot.setRemainingQuantity(quantity);
+        lot.setUnitCost(unitCost);
+        return lot;
+    }
+
+    private static BigDecimal quantity(Asset position) {
+        return position.getQuantity() != null ? position.getQuantity() : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal heldCost(Asset position, BigDecimal held) {
+        return position.getAvgBuyPrice() != null ? held.multiply(position.getAvgBuyPrice()) : BigDecimal.ZERO;
+    }
+}
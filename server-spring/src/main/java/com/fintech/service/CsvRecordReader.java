@@ -0,0 +1,83 @@
+package com.fintech.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: quoted fields, doubled quotes, embedded separators and
+ * newlines, CRLF or LF line ends. Holds one record in memory at a time.
+ */
+class CsvRecordReader {
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader in;
+    private final char separator;
+    private int lineNumber = 1;
+    private int recordStartLine;
+    private boolean eof;
+
+    // The reader must support mark/reset, e.g. a BufferedReader
+    CsvRecordReader(Reader in, char separator) {
+        this.in = in;
+        this.separator = separator;
+    }
+
+    // Next record's fields, or null at end of input
+    List<String> next() throws IOException {
+        if (eof) return null;
+        recordStartLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAny = false;
+
+        while (true) {
+            int c = in.read();
+            if (c == -1) {
+                eof = true;
+                if (!sawAny) return null;
+                fields.add(field.toString());
+                return fields;
+            }
+            char ch = (char) c;
+            if (ch == BOM && recordStartLine == 1 && !sawAny) continue; // Excel's UTF-8 BOM
+            sawAny = true;
+
+            if (quoted) {
+                if (ch == '"') {
+                    in.mark(1);
+                    int peek = in.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (peek != -1) in.reset();
+                    }
+                } else {
+                    if (ch == '\n') lineNumber++;
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+    }
+
+    // Line on which the record last returned by next() started
+    int recordLine() {
+        return recordStartLine;
+    }
+}
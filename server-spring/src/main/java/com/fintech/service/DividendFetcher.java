@@ -1,30 +1,91 @@
 package com.fintech.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.config.IoThreadFactory;
+import com.fintech.entity.Asset;
 import com.fintech.entity.Dividend;
+import com.fintech.entity.DividendWatermark;
+import com.fintech.entity.JobCheckpoint;
+import com.fintech.metrics.UpstreamMetrics;
+import com.fintech.ratelimit.TokenBucket;
 import com.fintech.repository.AssetRepository;
+import com.fintech.repository.DividendWatermarkRepository;
+import com.fintech.repository.JobCheckpointRepository;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class DividendFetcher {
 
     private static final Logger log = LoggerFactory.getLogger(DividendFetcher.class);
 
+    private static final String JOB_NAME = "dividend-ingestion";
+
+    // Only these asset types can have dividends on AlphaVantage
+    private static final List<Asset.AssetType> DIVIDEND_TYPES = List.of(Asset.AssetType.stock, Asset.AssetType.mutual);
+
+    // Persist the checkpoint every N finished symbols
+    private static final int CHECKPOINT_EVERY = 25;
+
+    // outputsize=compact covers ~100 trading days; stay well inside that
+    private static final long COMPACT_WINDOW_DAYS = 120;
+
+    private static final String SERIES_FIELD = "Time Series (Daily)";
+    private static final String DIVIDEND_FIELD = "7. dividend amount";
+
     private final RestTemplate restTemplate;
     private final ObjectMapper mapper = new ObjectMapper();
     private final DividendService dividendService;
+    private final FxRateService fxRateService;
     private final AssetRepository assetRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final DividendWatermarkRepository watermarkRepository;
+    private final TokenBucket alphaQuota;
+    private final ExecutorService fetchExecutor;
+    private final Duration resumeWindow;
+    private final IoThreadFactory ioThreads;
+    private final UpstreamMetrics upstreamMetrics;
+    private final ObservationRegistry observationRegistry;
+    private final Timer quotaWait;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Progress progress = new Progress();
 
     @Value("${alphavantage.base}")
     private String alphaBase;
@@ -32,67 +93,352 @@ public class DividendFetcher {
     @Value("${alphavantage.api-key}")
     private String alphaKey;
 
-    public DividendFetcher(RestTemplate restTemplate, DividendService dividendService, AssetRepository assetRepository) {
+    public DividendFetcher(RestTemplate restTemplate,
+                           DividendService dividendService,
+                           FxRateService fxRateService,
+                           AssetRepository assetRepository,
+                           JobCheckpointRepository checkpointRepository,
+                           DividendWatermarkRepository watermarkRepository,
+                           UpstreamMetrics upstreamMetrics,
+                           ObservationRegistry observationRegistry,
+                           MeterRegistry meterRegistry,
+                           IoThreadFactory ioThreads,
+                           @Value("${dividends.fetch.requests-per-minute:5}") double requestsPerMinute,
+                           @Value("${dividends.fetch.burst:1}") int burst,
+                           @Value("${dividends.fetch.concurrency:4}") int concurrency,
+                           @Value("${dividends.fetch.resume-window-hours:12}") long resumeWindowHours) {
         this.restTemplate = restTemplate;
         this.dividendService = dividendService;
+        this.fxRateService = fxRateService;
         this.assetRepository = assetRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.upstreamMetrics = upstreamMetrics;
+        this.observationRegistry = observationRegistry;
+        this.alphaQuota = new TokenBucket(requestsPerMinute, burst);
+        this.ioThreads = ioThreads;
+        // Tasks carry the submitting thread's observation, so per-symbol spans join the run's trace.
+        // The pool size still caps parallel fetches when the threads are virtual.
+        this.fetchExecutor = ContextExecutorService.wrap(
+                Executors.newFixedThreadPool(Math.max(1, concurrency), ioThreads.named("dividend-fetch-")),
+                ContextSnapshotFactory.builder().build()::captureAll);
+        this.resumeWindow = Duration.ofHours(resumeWindowHours);
+
+        this.quotaWait = Timer.builder("dividends.fetch.quota.wait")
+                .description("Time a symbol fetch waited for the AlphaVantage quota")
+                .register(meterRegistry);
+        Gauge.builder("dividends.ingestion.running", running, r -> r.get() ? 1 : 0).register(meterRegistry);
+        Gauge.builder("dividends.ingestion.completed", progress, p -> p.completed.get()).register(meterRegistry);
+        Gauge.builder("dividends.ingestion.failed", progress, p -> p.failed.get()).register(meterRegistry);
+        Gauge.builder("dividends.ingestion.remaining", progress, Progress::remaining).register(meterRegistry);
     }
 
-    
-    @Scheduled(cron = "0 30 2 * * ?")
+
+    // Paced by the AlphaVantage quota, a run takes hours; it gets its own thread rather than a scheduler one
+    @Scheduled(cron = "${dividends.fetch.cron:0 30 2 * * ?}")
     public void scheduledFetch() {
+        ioThreads.named("dividend-fetch-run-").newThread(this::fetchLogged).start();
+    }
+
+    private void fetchLogged() {
         log.info("Starting scheduled dividend fetch");
         try {
-            // For each unique asset symbol in DB, fetch recent dividend records
-            assetRepository.findAll().stream()
-                    .map(a -> a.getSymbol())
-                    .distinct()
-                    .forEach(this::fetchForSymbolSafely);
+            runIngestion();
         } catch (Exception e) {
             log.error("Scheduled dividend fetch failed", e);
         }
     }
 
-    private void fetchForSymbolSafely(String symbol) {
+    // A run cut short by a restart is picked up in the background once the app is serving
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        checkpointRepository.findById(JOB_NAME)
+                .filter(this::isResumable)
+                .ifPresent(cp -> {
+                    log.info("Resuming dividend ingestion after '{}' ({} of {} done)", cp.getCursor(), cp.getProcessed(), cp.getTotal());
+                    ioThreads.named("dividend-fetch-resume-").newThread(this::fetchLogged).start();
+                });
+    }
+
+    public void runIngestion() throws InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Dividend ingestion already running, skipping");
+            return;
+        }
+        try {
+            Observation.createNotStarted("dividends.ingestion", observationRegistry).observeChecked(this::ingest);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void ingest() throws InterruptedException {
+        // Sorted here rather than by the database: the cursor is compared with String.compareTo,
+        // and collation order disagrees with it on punctuation such as '^' or '_'
+        List<String> universe = new ArrayList<>(assetRepository.findDistinctSymbolsByTypeIn(DIVIDEND_TYPES));
+        universe.sort(null);
+
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+        String resumeAfter = null;
+        if (checkpoint != null && isResumable(checkpoint)) {
+            resumeAfter = checkpoint.getCursor();
+        } else {
+            checkpoint = new JobCheckpoint(JOB_NAME);
+            checkpoint.setStartedAt(Instant.now());
+        }
+
+        final String after = resumeAfter;
+        List<String> pending = after == null
+                ? universe
+                : universe.stream().filter(s -> s.compareTo(after) > 0).toList();
+
+        // Everything up to the cursor succeeded; failures past it are retried and recounted
+        checkpoint.setStatus(JobCheckpoint.Status.RUNNING);
+        checkpoint.setTotal(universe.size());
+        checkpoint.setProcessed(universe.size() - pending.size());
+        checkpoint.setFailed(0);
+        saveCheckpoint(checkpoint);
+        progress.start(universe.size(), universe.size() - pending.size());
+        log.info("Dividend ingestion: {} symbols in universe, {} to fetch", universe.size(), pending.size());
+
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(fetchExecutor);
+        List<Future<Integer>> tasks = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            final int index = i;
+            final String symbol = pending.get(i);
+            tasks.add(completion.submit(() -> {
+                quotaWait.recordCallable(() -> {
+                    alphaQuota.acquire();
+                    return null;
+                });
+                return fetchForSymbolSafely(symbol) ? index : -(index + 1);
+            }));
+        }
+
+        // Symbols finish out of order; the cursor only advances over a contiguous prefix of
+        // successful symbols, so a resumed run retries every failure
+        boolean[] succeeded = new boolean[pending.size()];
+        int contiguous = 0;
+        for (int n = 1; n <= pending.size(); n++) {
+            int result;
+            try {
+                result = completion.take().get();
+            } catch (InterruptedException | ExecutionException e) {
+                // Don't leave the rest of the run queued behind the quota
+                tasks.forEach(t -> t.cancel(true));
+                if (e instanceof InterruptedException ie) throw ie;
+                // fetchForSymbolSafely never throws; only the quota wait can be interrupted
+                throw new InterruptedException("Dividend fetch task aborted: " + e.getCause());
+            }
+            int index = result >= 0 ? result : -result - 1;
+            succeeded[index] = result >= 0;
+            checkpoint.setProcessed(checkpoint.getProcessed() + 1);
+            if (result < 0) checkpoint.setFailed(checkpoint.getFailed() + 1);
+            progress.record(pending.get(index), result >= 0);
+
+            while (contiguous < succeeded.length && succeeded[contiguous]) contiguous++;
+            if (n % CHECKPOINT_EVERY == 0 || n == pending.size()) {
+                if (contiguous > 0) checkpoint.setCursor(pending.get(contiguous - 1));
+                saveCheckpoint(checkpoint);
+                log.info("Dividend ingestion progress: {}/{} ({} failed, {} symbols/min)",
+                        progress.completed.get() + progress.skipped, universe.size(), progress.failed.get(),
+                        String.format("%.1f", progress.symbolsPerMinute()));
+            }
+        }
+
+        checkpoint.setStatus(JobCheckpoint.Status.COMPLETED);
+        saveCheckpoint(checkpoint);
+        progress.finish();
+        log.info("Dividend ingestion finished: {} fetched, {} failed", progress.completed.get(), progress.failed.get());
+    }
+
+    private boolean isResumable(JobCheckpoint cp) {
+        return cp.getStatus() == JobCheckpoint.Status.RUNNING
+                && cp.getStartedAt() != null
+                && cp.getStartedAt().isAfter(Instant.now().minus(resumeWindow));
+    }
+
+    private void saveCheckpoint(JobCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(Instant.now());
+        try {
+            checkpointRepository.save(checkpoint);
+        } catch (Exception e) {
+            log.warn("Could not persist dividend ingestion checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private boolean fetchForSymbolSafely(String symbol) {
         try {
             fetchForSymbol(symbol);
+            return true;
         } catch (Exception e) {
             log.warn("Failed to fetch dividends for {}: {}", symbol, e.getMessage());
+            return false;
         }
     }
 
     public void fetchForSymbol(String symbol) throws Exception {
         if (symbol == null || symbol.isEmpty()) return;
-        String url = String.format("%s/query?function=TIME_SERIES_DAILY_ADJUSTED&symbol=%s&apikey=%s", alphaBase, symbol, alphaKey);
-        String raw = restTemplate.getForObject(url, String.class);
-        if (raw == null) return;
-        JsonNode root = mapper.readTree(raw);
-        JsonNode timeSeries = root.get("Time Series (Daily)");
-        if (timeSeries == null) return;
-
-        Iterator<String> dates = timeSeries.fieldNames();
-        while (dates.hasNext()) {
-            String d = dates.next();
-            JsonNode entry = timeSeries.get(d);
-            if (entry == null) continue;
+        String ticker = symbol.toUpperCase();
+
+        DividendWatermark watermark = watermarkRepository.findById(ticker).orElseGet(() -> new DividendWatermark(ticker));
+        LocalDate scannedThrough = watermark.getScannedThrough();
+
+        // "compact" only returns the latest ~100 trading days, so it's enough when the watermark is inside that range
+        boolean compact = scannedThrough != null && scannedThrough.isAfter(LocalDate.now().minusDays(COMPACT_WINDOW_DAYS));
+        String url = String.format("%s?function=TIME_SERIES_DAILY_ADJUSTED&symbol=%s&outputsize=%s&apikey=%s",
+                alphaBase, ticker, compact ? "compact" : "full", alphaKey);
+
+        SeriesScan scan = upstreamMetrics.observe("alphavantage", "dividends",
+                () -> restTemplate.execute(url, HttpMethod.GET, null,
+                        response -> scanSeries(response.getBody(), ticker, scannedThrough)),
+                s -> s == null || s.newestDay == null ? UpstreamMetrics.Outcome.MISS : UpstreamMetrics.Outcome.HIT);
+        if (scan == null || scan.newestDay == null) return;
+
+        dividendService.upsertAll(scan.dividends);
+
+        watermark.setScannedThrough(scan.newestDay);
+        if (scan.newestExDate != null
+                && (watermark.getLastExDate() == null || scan.newestExDate.isAfter(watermark.getLastExDate()))) {
+            watermark.setLastExDate(scan.newestExDate);
+        }
+        watermark.setUpdatedAt(Instant.now());
+        watermarkRepository.save(watermark);
+    }
+
+    private static final class SeriesScan {
+        final List<Dividend> dividends = new ArrayList<>();
+        LocalDate newestDay;
+        LocalDate newestExDate;
+    }
+
+    // Streams the daily series (newest day first) and stops at the first day at or before the watermark,
+    // so neither the full payload nor already-seen history is ever materialized
+    private SeriesScan scanSeries(InputStream body, String ticker, LocalDate scannedThrough) throws IOException {
+        SeriesScan scan = new SeriesScan();
+        if (body == null) return scan;
+
+        try (JsonParser p = mapper.getFactory().createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return scan;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                if (SERIES_FIELD.equals(field)) {
+                    scanDays(p, ticker, scannedThrough, scan);
+                    break;
+                }
+                // AlphaVantage answers 200 with a "Note"/"Information" message when the quota is exhausted
+                if ("Note".equals(field) || "Information".equals(field)) {
+                    throw new UpstreamMetrics.RateLimitedException("AlphaVantage limit reached: " + p.getText());
+                }
+                p.skipChildren();
+            }
+        }
+        return scan;
+    }
+
+    private void scanDays(JsonParser p, String ticker, LocalDate scannedThrough, SeriesScan scan) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            LocalDate day = LocalDate.parse(p.getCurrentName());
+            if (scannedThrough != null && !day.isAfter(scannedThrough)) return;
+            if (scan.newestDay == null || day.isAfter(scan.newestDay)) scan.newestDay = day;
+
+            p.nextToken(); // START_OBJECT for the day's bar
             double divamt = 0.0;
-            try {
-                JsonNode divNode = entry.get("7. dividend amount");
-                if (divNode != null) divamt = Double.parseDouble(divNode.asText());
-            } catch (Exception ignored) {}
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                if (DIVIDEND_FIELD.equals(field)) {
+                    try {
+                        divamt = Double.parseDouble(p.getText());
+                    } catch (NumberFormatException ignored) {}
+                }
+            }
 
             if (divamt > 0) {
                 Dividend dv = new Dividend();
-                dv.setTicker(symbol.toUpperCase());
+                dv.setTicker(ticker);
                 dv.setAmount(divamt);
-                dv.setCurrency("USD");
-                LocalDate ld = LocalDate.parse(d);
-                Instant ex = ld.atStartOfDay().toInstant(ZoneOffset.UTC);
-                dv.setExDate(ex);
+                // AlphaVantage pays out in the listing's own currency
+                dv.setCurrency(fxRateService.currencyOf(Asset.AssetType.stock, ticker).name());
+                dv.setExDate(day.atStartOfDay().toInstant(ZoneOffset.UTC));
                 dv.setFetchedAt(Instant.now());
                 dv.setSource("alphavantage");
-                dividendService.save(dv);
+                scan.dividends.add(dv);
+                if (scan.newestExDate == null || day.isAfter(scan.newestExDate)) scan.newestExDate = day;
             }
         }
     }
+
+    // ---------------------- Progress ----------------------
+
+    public Map<String, Object> getIngestionStatus() {
+        return progress.snapshot(running.get());
+    }
+
+    private static final class Progress {
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile long total;
+        volatile long skipped;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String lastSymbol;
+
+        void start(long total, long skipped) {
+            this.total = total;
+            this.skipped = skipped;
+            this.startedAt = Instant.now();
+            this.finishedAt = null;
+            this.lastSymbol = null;
+            completed.set(0);
+            failed.set(0);
+        }
+
+        void record(String symbol, boolean ok) {
+            completed.incrementAndGet();
+            if (!ok) failed.incrementAndGet();
+            lastSymbol = symbol;
+        }
+
+        void finish() {
+            finishedAt = Instant.now();
+        }
+
+        long remaining() {
+            return Math.max(0, total - skipped - completed.get());
+        }
+
+        double symbolsPerMinute() {
+            if (startedAt == null) return 0.0;
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double minutes = Duration.between(startedAt, end).toMillis() / 60_000.0;
+            return minutes > 0 ? completed.get() / minutes : 0.0;
+        }
+
+        Map<String, Object> snapshot(boolean running) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            long done = completed.get();
+            long remaining = remaining();
+            double rate = symbolsPerMinute();
+            m.put("running", running);
+            m.put("startedAt", startedAt);
+            m.put("finishedAt", finishedAt);
+            m.put("total", total);
+            m.put("resumedFrom", skipped);
+            m.put("completed", done);
+            m.put("failed", failed.get());
+            m.put("remaining", remaining);
+            m.put("symbolsPerMinute", Math.round(rate * 10.0) / 10.0);
+            m.put("etaSeconds", running && rate > 0 ? Math.round(remaining / rate * 60) : null);
+            m.put("lastSymbol", lastSymbol);
+            return m;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
 }
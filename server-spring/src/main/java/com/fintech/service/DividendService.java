@@ -1,20 +1,51 @@
 package com.fintech.service;
 
+import com.fintech.dto.UpcomingDividendRow;
+import com.fintech.dto.UpcomingIncomeDto;
 import com.fintech.entity.Dividend;
+import com.fintech.entity.User;
 import com.fintech.repository.DividendRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class DividendService {
 
     private final DividendRepository dividendRepository;
+    private final FxRateService fxRateService;
 
-    public DividendService(DividendRepository dividendRepository) {
+    // Longest window GET /api/dividends/mine accepts; the cache holds this much and narrower windows filter it
+    public static final int MAX_INCOME_DAYS = 366;
+
+    // A user's upcoming (holding, dividend) rows for MAX_INCOME_DAYS from the start of a UTC day
+    private record CachedIncome(LocalDate day, List<UpcomingDividendRow> rows) {}
+
+    // Keyed by user id. Entries from an earlier day are recomputed on read; the map is cleared
+    // when it reaches maxIncomeUsers and whenever dividends are written.
+    private final ConcurrentHashMap<Long, CachedIncome> incomeCache = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a computation that raced with one doesn't cache stale rows
+    private final AtomicLong incomeGeneration = new AtomicLong();
+    private final int maxIncomeUsers;
+
+    public DividendService(DividendRepository dividendRepository, FxRateService fxRateService,
+                           @Value("${dividends.income-cache.max-users:10000}") int maxIncomeUsers) {
         this.dividendRepository = dividendRepository;
+        this.fxRateService = fxRateService;
+        this.maxIncomeUsers = Math.max(1, maxIncomeUsers);
     }
 
     @Transactional
@@ -24,19 +55,30 @@ public class DividendService {
 
         // If exDate is present, avoid creating duplicate records for same ticker+exDate
         if (d.getExDate() != null) {
-            List<Dividend> existing = dividendRepository.findByTickerOrderByExDateDesc(d.getTicker());
-            for (Dividend e : existing) {
-                if (e.getExDate() != null && e.getExDate().equals(d.getExDate())) {
-                    // update amount/source and return
-                    e.setAmount(d.getAmount());
-                    e.setSource(d.getSource());
-                    e.setFetchedAt(Instant.now());
-                    return dividendRepository.save(e);
-                }
+            var existing = dividendRepository.findByTickerAndExDate(d.getTicker(), d.getExDate());
+            if (existing.isPresent()) {
+                // update amount/source and return
+                Dividend e = existing.get();
+                e.setAmount(d.getAmount());
+                e.setSource(d.getSource());
+                e.setFetchedAt(Instant.now());
+                Dividend saved = dividendRepository.save(e);
+                evictAllUpcomingIncome();
+                return saved;
             }
         }
 
-        return dividendRepository.save(d);
+        Dividend saved = dividendRepository.save(d);
+        evictAllUpcomingIncome();
+        return saved;
+    }
+
+    // Bulk ingestion path: one batched upsert per call instead of a lookup + save per row
+    @Transactional
+    public int upsertAll(Collection<Dividend> dividends) {
+        int written = dividendRepository.upsertAll(dividends);
+        if (written > 0) evictAllUpcomingIncome();
+        return written;
     }
 
     public List<Dividend> listUpcoming(int days) {
@@ -45,12 +87,71 @@ public class DividendService {
         return dividendRepository.findByExDateBetweenOrderByExDateAsc(now, end);
     }
 
+    // ---------------------- Upcoming income per user ----------------------
+
+    public Map<String, Object> upcomingIncomeForUser(User user, int days) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Instant start = today.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant end = start.plusSeconds((long) days * 24 * 60 * 60);
+
+        List<UpcomingDividendRow> rows = upcomingRows(user, today, start);
+
+        Map<String, BigDecimal> ratesByCurrency = new HashMap<>();
+        List<UpcomingIncomeDto> items = new ArrayList<>();
+        BigDecimal totalInr = BigDecimal.ZERO;
+        for (UpcomingDividendRow row : rows) {
+            if (row.exDate() == null || row.exDate().isAfter(end)) continue; // same bounds as the query's between
+            BigDecimal rate = ratesByCurrency.computeIfAbsent(
+                    row.currency() != null ? row.currency() : FxRateService.BASE_CURRENCY, fxRateService::rateToInr);
+            UpcomingIncomeDto item = UpcomingIncomeDto.fromRow(row, rate);
+            items.add(item);
+            totalInr = totalInr.add(item.projectedIncomeINR());
+        }
+
+        return Map.of(
+                "asOf", today.toString(),
+                "days", days,
+                "items", items,
+                "totalProjectedIncomeINR", totalInr.setScale(2, RoundingMode.HALF_UP)
+        );
+    }
+
+    // Holdings changed; drop the user's cached rows
+    public void evictUpcomingIncome(Long userId) {
+        if (userId == null) return;
+        incomeGeneration.incrementAndGet();
+        incomeCache.remove(userId);
+    }
+
+    // Dividends changed; every user's rows may be affected
+    public void evictAllUpcomingIncome() {
+        incomeGeneration.incrementAndGet();
+        incomeCache.clear();
+    }
+
+    // The query runs outside the map, so concurrent requests never wait on another user's SQL
+    private List<UpcomingDividendRow> upcomingRows(User user, LocalDate today, Instant start) {
+        CachedIncome cached = incomeCache.get(user.getId());
+        if (cached != null && cached.day().equals(today)) return cached.rows();
+
+        long generation = incomeGeneration.get();
+        Instant end = start.plusSeconds((long) MAX_INCOME_DAYS * 24 * 60 * 60);
+        List<UpcomingDividendRow> rows = List.copyOf(dividendRepository.findUpcomingForUser(user, start, end));
+
+        if (incomeCache.size() >= maxIncomeUsers) incomeCache.clear();
+        incomeCache.put(user.getId(), new CachedIncome(today, rows));
+        // An eviction landed while querying; don't let these rows outlive it
+        if (incomeGeneration.get() != generation) incomeCache.remove(user.getId());
+        return rows;
+    }
+
     public List<Dividend> findByTicker(String ticker) {
         return dividendRepository.findByTickerOrderByExDateDesc(ticker);
     }
 
     public void deleteById(Long id) {
         dividendRepository.deleteById(id);
+        evictAllUpcomingIncome();
     }
 
     public List<Dividend> findAll() {
@@ -0,0 +1,234 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.SymbolCurrency;
+import com.fintech.repository.SymbolCurrencyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversion rates into INR, the portfolio's reporting currency.
+ *
+ * <p>Rates are a {@code double[]} indexed by {@link Currency} ordinal. The {@code <CCY>INR=X}
+ * pairs ride along in {@link PriceSnapshotService}'s bulk Yahoo refresh and each refresh swaps in
+ * a new table, so converting a holding is one multiply and never an upstream call. A pair a
+ * refresh misses keeps its last rate; before the first refresh the static rates apply.
+ *
+ * <p>The currency each listing is quoted in is whatever {@link AssetService} last saw Yahoo report
+ * for it (quote or chart endpoint), persisted in {@code symbol_currencies} so it outlives restarts.
+ */
+@Service
+public class FxRateService implements PriceTickListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+
+    public static final String BASE_CURRENCY = "INR";
+
+    /**
+     * Currencies holdings are quoted in, with the rate used until a live one arrives. GBX is
+     * pence, which London listings are quoted in; it follows GBP rather than being quoted itself.
+     */
+    public enum Currency {
+        INR(1.0), USD(83.5), EUR(90.0), GBP(105.0), GBX(1.05), JPY(0.56),
+        SGD(62.0), AED(22.7), HKD(10.7), CAD(61.0), AUD(55.0), CHF(94.0);
+
+        private static final Currency[] VALUES = values();
+
+        final double fallbackRate;
+
+        Currency(double fallbackRate) {
+            this.fallbackRate = fallbackRate;
+        }
+
+        // Yahoo symbol quoting one unit in INR; null for currencies that are not quoted
+        String pair() {
+            return this == INR || this == GBX ? null : name() + BASE_CURRENCY + "=X";
+        }
+
+        // ISO code (any case) to currency; null when blank or not carried
+        public static Currency fromCode(String code) {
+            if (code == null || code.isBlank()) return null;
+            if (code.trim().equals("GBp")) return GBX; // Yahoo's code for pence
+            String c = code.trim().toUpperCase(Locale.ROOT);
+            for (Currency currency : VALUES) {
+                if (currency.name().equals(c)) return currency;
+            }
+            return null;
+        }
+
+        // Currency of a Yahoo exchange suffix; null for a bare symbol or an exchange not carried here
+        static Currency bySuffix(String symbol) {
+            int dot = symbol.lastIndexOf('.');
+            if (dot < 0) return null;
+            return switch (symbol.substring(dot + 1).toUpperCase(Locale.ROOT)) {
+                case "NS", "BO" -> INR;
+                case "L" -> GBX;
+                case "DE", "F", "PA", "AS", "MI", "MC", "BR", "LS", "VI", "HE", "IR" -> EUR;
+                case "T" -> JPY;
+                case "SI" -> SGD;
+                case "AE" -> AED;
+                case "HK" -> HKD;
+                case "TO", "V", "NE" -> CAD;
+                case "AX" -> AUD;
+                case "SW" -> CHF;
+                default -> null;
+            };
+        }
+    }
+
+    @Autowired
+    private SymbolCurrencyRepository symbolCurrencyRepository;
+
+    // Upper-cased symbol -> currency code Yahoo last quoted it in, carried here or not
+    private final ConcurrentHashMap<String, String> quoteCurrencies = new ConcurrentHashMap<>();
+
+    // Bare symbols valued before any quote reported their currency; AssetService looks them up
+    private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+
+    // Replaced wholesale on refresh, never written in place
+    private volatile double[] ratesToInr = fallbackRates();
+
+    /**
+     * INR per unit of each currency, indexed by {@link Currency#ordinal()}. Read it once per
+     * request and index into it; the array must not be modified.
+     */
+    public double[] ratesToInr() {
+        return ratesToInr;
+    }
+
+    /**
+     * Quote currency of a holding. Crypto (CoinGecko) and mutual fund NAVs are in INR. A listing
+     * is in the currency Yahoo last quoted it in, else the one its exchange suffix implies. A bare
+     * symbol with neither is not assumed to be a US listing: it is left unconverted, logged, and
+     * queued for {@link AssetService#resolveQuoteCurrencies} on the next price refresh. Codes no
+     * rate is carried for are left unconverted too.
+     */
+    public Currency currencyOf(Asset.AssetType type, String symbol) {
+        if (symbol == null || type != Asset.AssetType.stock) return Currency.INR;
+        String key = symbol.toUpperCase(Locale.ROOT);
+        String quoted = quoteCurrencies.get(key);
+        if (quoted != null) {
+            Currency c = Currency.fromCode(quoted);
+            return c != null ? c : Currency.INR;
+        }
+        Currency bySuffix = Currency.bySuffix(symbol);
+        if (bySuffix != null) return bySuffix;
+        if (unresolved.add(key)) logger.warn("Quote currency of {} not known yet, valuing it unconverted until it is resolved", key);
+        return Currency.INR;
+    }
+
+    // Whether currencyOf has an answer for a listing other than the unconverted default
+    public boolean knowsCurrency(String symbol) {
+        return symbol == null || quoteCurrencies.containsKey(symbol.toUpperCase(Locale.ROOT)) || Currency.bySuffix(symbol) != null;
+    }
+
+    // Bare symbols currencyOf has had to leave unconverted and no quote has resolved since
+    public List<String> unresolvedSymbols() {
+        return new ArrayList<>(unresolved);
+    }
+
+    public double rateToInr(Currency currency) {
+        return ratesToInr[currency.ordinal()];
+    }
+
+    // Units of INR per one unit of currency; 1 for INR or unknown/blank currencies
+    public BigDecimal rateToInr(String currency) {
+        if (currency == null || currency.isBlank()) return BigDecimal.ONE;
+        Currency c = Currency.fromCode(currency);
+        if (c == null) {
+            logger.warn("No FX rate for {} -> INR, leaving amounts unconverted", currency);
+            return BigDecimal.ONE;
+        }
+        return BigDecimal.valueOf(rateToInr(c));
+    }
+
+    public BigDecimal toInr(BigDecimal amount, String currency) {
+        if (amount == null) return null;
+        return amount.multiply(rateToInr(currency));
+    }
+
+    // ---------------------- Refresh (via PriceSnapshotService) ----------------------
+
+    @Override
+    public void collectSymbols(Set<String> stocks, Set<String> crypto) {
+        for (Currency c : Currency.VALUES) {
+            if (c.pair() != null) stocks.add(c.pair());
+        }
+    }
+
+    @Override
+    public void onPriceTicks(Map<String, BigDecimal> prices, Instant at) {
+        double[] next = ratesToInr.clone();
+        int quoted = 0;
+        for (Currency c : Currency.VALUES) {
+            BigDecimal rate = c.pair() != null ? prices.get(c.pair()) : null;
+            if (rate != null && rate.signum() > 0) {
+                next[c.ordinal()] = rate.doubleValue();
+                quoted++;
+            }
+        }
+        if (quoted == 0) return;
+
+        next[Currency.GBX.ordinal()] = next[Currency.GBP.ordinal()] / 100;
+        ratesToInr = next;
+        logger.debug("FX refresh: {} pairs quoted", quoted);
+    }
+
+    // ---------------------- Quote currencies ----------------------
+
+    @PostConstruct
+    void loadQuoteCurrencies() {
+        try {
+            for (SymbolCurrency sc : symbolCurrencyRepository.findAll()) quoteCurrencies.put(sc.getSymbol(), sc.getCurrency());
+            logger.info("Loaded quote currencies for {} listings", quoteCurrencies.size());
+        } catch (Exception e) {
+            logger.error("Could not load quote currencies: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records the currency Yahoo reported for each symbol (upper-cased symbol -> code, e.g. "USD"
+     * or "GBp"); blank codes are ignored. Only new or changed entries are written back.
+     */
+    public void recordQuoteCurrencies(Map<String, String> currencies) {
+        List<SymbolCurrency> changed = new ArrayList<>();
+        Instant now = Instant.now();
+        currencies.forEach((symbol, code) -> {
+            if (symbol == null || code == null || code.isBlank()) return;
+            String key = symbol.toUpperCase(Locale.ROOT);
+            String c = code.trim();
+            unresolved.remove(key);
+            if (c.equals(quoteCurrencies.put(key, c))) return;
+            if (Currency.fromCode(c) == null) logger.warn("{} is quoted in {}, which has no INR rate; it stays unconverted", key, c);
+            changed.add(new SymbolCurrency(key, c, now));
+        });
+        if (changed.isEmpty() || symbolCurrencyRepository == null) return;
+        try {
+            symbolCurrencyRepository.saveAll(changed);
+        } catch (Exception e) {
+            logger.error("Could not persist {} quote currencies: {}", changed.size(), e.getMessage(), e);
+        }
+    }
+
+    public void recordQuoteCurrency(String symbol, String code) {
+        if (symbol != null) recordQuoteCurrencies(Map.of(symbol, code != null ? code : ""));
+    }
+
+    private static double[] fallbackRates() {
+        double[] rates = new double[Currency.VALUES.length];
+        for (Currency c : Currency.VALUES) rates[c.ordinal()] = c.fallbackRate;
+        return rates;
+    }
+}
@@ -0,0 +1,13 @@
+package com.fintech.service;
+
+/**
+ * Thrown when the password hashing pool is saturated; controllers answer with 503.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public HashingCapacityExceededException() {
+        super("Authentication service is busy, please try again shortly");
+    }
+}
@@ -0,0 +1,237 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.AssetTransaction;
+import com.fintech.entity.RealizedGain;
+import com.fintech.entity.TaxLot;
+import com.fintech.entity.User;
+import com.fintech.repository.AssetRepository;
+import com.fintech.repository.AssetTransactionRepository;
+import com.fintech.repository.RealizedGainRepository;
+import com.fintech.repository.TaxLotRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records buys and sells against a holding. Each trade locks the holding's row, applies the trade
+ * to it and its open lots through {@link CostBasisEngine}, and appends to the ledger; nothing is
+ * replayed. A buy of a symbol the user doesn't hold opens the holding, and a sell of the whole
+ * position closes (deletes) it while its lots and gains stay in the ledger.
+ */
+@Service
+public class LedgerService {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    // holding is null when the trade closed the position
+    public record Recorded(AssetTransaction transaction, Asset holding, List<RealizedGain> realized) {}
+
+    private final AssetRepository assetRepository;
+    private final AssetTransactionRepository transactionRepository;
+    private final TaxLotRepository taxLotRepository;
+    private final RealizedGainRepository realizedGainRepository;
+
+    public LedgerService(AssetRepository assetRepository, AssetTransactionRepository transactionRepository,
+                         TaxLotRepository taxLotRepository, RealizedGainRepository realizedGainRepository) {
+        this.assetRepository = assetRepository;
+        this.transactionRepository = transactionRepository;
+        this.taxLotRepository = taxLotRepository;
+        this.realizedGainRepository = realizedGainRepository;
+    }
+
+    // ---------------------- Record ----------------------
+
+    /**
+     * Request: side (BUY/SELL), symbol, quantity, price, and optionally fees, tradeDate
+     * (yyyy-MM-dd, default today), costBasisMethod (FIFO/AVERAGE) and, for a sell, lots
+     * ([{lotId, quantity}]) to pick specific lots. Opening a holding also takes type, name and sector.
+     */
+    @Transactional
+    public Recorded record(User user, Map<String, Object> request) {
+        AssetTransaction.Side side = parseEnum(AssetTransaction.Side.class, required(request, "side"), "side");
+        String symbol = required(request, "symbol").trim();
+        BigDecimal quantity = decimal(request, "quantity", null);
+        if (quantity.signum() <= 0) throw new IllegalArgumentException("quantity must be positive");
+        BigDecimal price = decimal(request, "price", null);
+        BigDecimal fees = decimal(request, "fees", BigDecimal.ZERO);
+        if (price.signum() < 0 || fees.signum() < 0) throw new IllegalArgumentException("price and fees cannot be negative");
+        LocalDate tradeDate = tradeDate(request.get("tradeDate"));
+
+        Asset position = assetRepository.findForUpdate(user, symbol).orElse(null);
+        if (position == null) {
+            if (side == AssetTransaction.Side.SELL) throw new IllegalArgumentException("No holding for " + symbol);
+            position = openPosition(user, symbol, request);
+        }
+        if (request.get("costBasisMethod") != null) {
+            position.setCostBasisMethod(parseEnum(Asset.CostBasisMethod.class, request.get("costBasisMethod").toString(), "costBasisMethod"));
+        }
+
+        AssetTransaction tx = new AssetTransaction();
+        tx.setUser(user);
+        tx.setAssetType(position.getType());
+        tx.setSymbol(position.getSymbol());
+        tx.setSide(side);
+        tx.setQuantity(quantity);
+        tx.setPrice(price);
+        tx.setFees(fees);
+        tx.setTradeDate(tradeDate);
+        transactionRepository.save(tx);
+
+        List<TaxLot> openLots = new ArrayList<>(taxLotRepository.findOpenLots(user, position.getSymbol()));
+        CostBasisEngine.reconcile(position, openLots).ifPresent(taxLotRepository::save);
+
+        if (side == AssetTransaction.Side.BUY) {
+            taxLotRepository.save(CostBasisEngine.buy(position, tx));
+            return new Recorded(tx, assetRepository.save(position), List.of());
+        }
+
+        List<RealizedGain> realized = new ArrayList<>();
+        for (CostBasisEngine.Match m : CostBasisEngine.sell(position, openLots, tx, specificLots(request.get("lots")))) {
+            realized.add(realizedGain(tx, m));
+        }
+        realizedGainRepository.saveAll(realized);
+
+        if (position.getQuantity().signum() == 0) {
+            assetRepository.delete(position);
+            return new Recorded(tx, null, realized);
+        }
+        return new Recorded(tx, assetRepository.save(position), realized);
+    }
+
+    // ---------------------- Queries ----------------------
+
+    @Transactional(readOnly = true)
+    public List<AssetTransaction> listTransactions(User user, String symbol, Integer limit) {
+        PageRequest page = PageRequest.of(0, checkLimit(limit));
+        return symbol == null
+                ? transactionRepository.findByUserOrderByTradeDateDescIdDesc(user, page)
+                : transactionRepository.findByUserAndSymbolIgnoreCaseOrderByTradeDateDescIdDesc(user, symbol, page);
+    }
+
+    // Open lots as a sell would see them: an opening lot is shown (unsaved) for untracked quantity
+    @Transactional(readOnly = true)
+    public List<TaxLot> openLots(User user, String symbol) {
+        Asset position = assetRepository.findByUserAndSymbolIgnoreCase(user, symbol)
+                .orElseThrow(() -> new IllegalArgumentException("No holding for " + symbol));
+        List<TaxLot> lots = new ArrayList<>(taxLotRepository.findOpenLots(user, position.getSymbol()));
+        CostBasisEngine.reconcile(position, lots);
+        return lots;
+    }
+
+    // Called when a holding is deleted outright rather than sold
+    @Transactional
+    public void closeOpenLots(User user, String symbol) {
+        taxLotRepository.closeOpenLots(user, symbol);
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private static Asset openPosition(User user, String symbol, Map<String, Object> request) {
+        Object type = request.get("type");
+        if (type == null) throw new IllegalArgumentException("type is required to open a new holding");
+        Asset position = new Asset();
+        position.setUser(user);
+        position.setType(parseEnum(Asset.AssetType.class, type.toString().toLowerCase(Locale.ROOT), "type"));
+        position.setSymbol(symbol);
+        Object name = request.get("name");
+        position.setName(name != null && !name.toString().isBlank() ? name.toString() : symbol);
+        if (request.get("sector") != null) position.setSector(request.get("sector").toString());
+        position.setQuantity(BigDecimal.ZERO);
+        position.setAvgBuyPrice(BigDecimal.ZERO);
+        return position;
+    }
+
+    private static RealizedGain realizedGain(AssetTransaction sell, CostBasisEngine.Match m) {
+        RealizedGain g = new RealizedGain();
+        g.setUser(sell.getUser());
+        g.setAssetType(sell.getAssetType());
+        g.setSymbol(sell.getSymbol());
+        g.setSellTransaction(sell);
+        g.setLot(m.lot());
+        g.setQuantity(m.quantity());
+        g.setAcquiredOn(m.lot().getAcquiredOn());
+        g.setSoldOn(sell.getTradeDate());
+        g.setProceeds(m.proceeds());
+        g.setCostBasis(m.costBasis());
+        g.setGain(m.gain());
+        return g;
+    }
+
+    // [{lotId, quantity}, ...] in request order; a lot named twice is rejected
+    private static Map<Long, BigDecimal> specificLots(Object raw) {
+        if (raw == null) return Map.of();
+        if (!(raw instanceof List<?> entries)) throw new IllegalArgumentException("lots must be a list of {lotId, quantity}");
+        Map<Long, BigDecimal> lots = new LinkedHashMap<>();
+        for (Object o : entries) {
+            if (!(o instanceof Map<?, ?> entry) || entry.get("lotId") == null || entry.get("quantity") == null) {
+                throw new IllegalArgumentException("lots must be a list of {lotId, quantity}");
+            }
+            Long lotId;
+            BigDecimal quantity;
+            try {
+                lotId = Long.valueOf(entry.get("lotId").toString());
+                quantity = new BigDecimal(entry.get("quantity").toString());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid lot entry: " + entry);
+            }
+            if (lots.put(lotId, quantity) != null) throw new IllegalArgumentException("Lot " + lotId + " is listed twice");
+        }
+        return lots;
+    }
+
+    private static LocalDate tradeDate(Object raw) {
+        if (raw == null || raw.toString().isBlank()) return LocalDate.now();
+        LocalDate date;
+        try {
+            date = LocalDate.parse(raw.toString().trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("tradeDate must be yyyy-MM-dd");
+        }
+        if (date.isAfter(LocalDate.now())) throw new IllegalArgumentException("tradeDate cannot be in the future");
+        return date;
+    }
+
+    private static int checkLimit(Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        return size;
+    }
+
+    private static String required(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        if (value == null || value.toString().isBlank()) throw new IllegalArgumentException(key + " is required");
+        return value.toString();
+    }
+
+    private static BigDecimal decimal(Map<String, Object> request, String key, BigDecimal fallback) {
+        Object value = request.get(key);
+        if (value == null) {
+            if (fallback == null) throw new IllegalArgumentException(key + " is required");
+            return fallback;
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String raw, String key) {
+        try {
+            return Enum.valueOf(type, type == Asset.AssetType.class ? raw.trim() : raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + key + ": " + raw);
+        }
+    }
+}
@@ -2,24 +2,46 @@ package com.fintech.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.dto.NewsArticle;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.metrics.UpstreamMetrics;
+import com.fintech.repository.AssetRepository;
+import com.fintech.repository.WatchlistRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
 
+/**
+ * Market news served from an in-memory store that a scheduled job refreshes from AlphaVantage
+ * NEWS_SENTIMENT. Requests never call upstream, so the free quota is spent once per refresh
+ * interval instead of once per page view.
+ */
 @Service
 public class NewsService {
 
     private static final Logger logger = LoggerFactory.getLogger(NewsService.class);
-    
+
+    private static final DateTimeFormatter AV_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final int DEFAULT_PAGE_SIZE = 12; // cap for UI
+
     private final RestTemplate restTemplate;
+    private final AssetRepository assetRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final UpstreamMetrics upstreamMetrics;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${newsapi.base:https://www.alphavantage.co/query}")
@@ -31,7 +53,51 @@ public class NewsService {
     @Value("${news.debug:false}")
     private boolean newsDebug;
 
-    public NewsService(RestTemplateBuilder builder) {
+    // Top Indian market movers, always queried; held and watched stocks are added to them
+    @Value("${news.tickers:RELIANCE.BSE,TCS.BSE,HDFCBANK.BSE,INFY.BSE,ICICIBANK.BSE,SBIN.BSE,BHARTIARTL.BSE,ITC.BSE,LT.BSE,BAJFINANCE.BSE,AXISBANK.BSE,KOTAKBANK.BSE,MARUTI.BSE,TATAMOTORS.BSE,SUNPHARMA.BSE}")
+    private String newsTickers;
+
+    // Upper bound on the ingestion ticker set, and how it is split across upstream calls
+    @Value("${news.max-tickers:300}")
+    private int maxTickers;
+
+    @Value("${news.tickers-per-call:15}")
+    private int tickersPerCall;
+
+    @Value("${news.calls-per-refresh:1}")
+    private int callsPerRefresh;
+
+    // Next batch of the ticker set to query; only the scheduled refresh touches it
+    private int nextBatch;
+
+    @Value("${news.store.max-articles:200}")
+    private int maxArticles;
+
+    private volatile NewsSnapshot snapshot = NewsSnapshot.fallback(getFallbackNews());
+
+    /**
+     * Immutable view of the store. {@code etag} changes whenever the article set changes;
+     * {@code index} maps a normalized ticker to the articles mentioning it, most relevant first.
+     */
+    public record NewsSnapshot(List<NewsArticle> articles,
+                               Map<String, NewsArticle> byId,
+                               Map<String, List<IndexEntry>> index,
+                               Instant refreshedAt,
+                               String etag,
+                               boolean fallback) {
+
+        static NewsSnapshot fallback(List<NewsArticle> articles) {
+            return new NewsSnapshot(articles, Map.of(), Map.of(), Instant.EPOCH, "\"fallback\"", true);
+        }
+    }
+
+    public record IndexEntry(String articleId, double relevance) {}
+
+    public NewsService(RestTemplateBuilder builder, AssetRepository assetRepository, WatchlistRepository watchlistRepository,
+                       UpstreamMetrics upstreamMetrics) {
+        this.assetRepository = assetRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.upstreamMetrics = upstreamMetrics;
         this.restTemplate = builder
                 .interceptors((request, body, execution) -> {
                     request.getHeaders().set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
@@ -41,66 +107,319 @@ public class NewsService {
                 .build();
     }
 
-    public Map<String, Object> fetchNews() throws Exception {
-        // Focus on Indian news by querying top Indian market movers instead of global topics
-        String indianTickers = "RELIANCE.BSE,TCS.BSE,HDFCBANK.BSE,INFY.BSE,ICICIBANK.BSE,SBIN.BSE,BHARTIARTL.BSE,ITC.BSE,LT.BSE,BAJFINANCE.BSE,AXISBANK.BSE,KOTAKBANK.BSE,MARUTI.BSE,TATAMOTORS.BSE,SUNPHARMA.BSE";
-        String url = newsBase + "?function=NEWS_SENTIMENT&tickers=" + indianTickers + "&apikey=" + alphavantageApiKey;
+    // ---------------------- Ingestion ----------------------
+
+    @Scheduled(initialDelayString = "${news.initial-delay-ms:5000}", fixedDelayString = "${news.refresh-interval-ms:900000}")
+    public void refresh() {
+        try {
+            List<NewsArticle> fetched = new ArrayList<>();
+            for (String tickers : nextBatches(ingestionTickers())) fetched.addAll(fetchFromUpstream(tickers));
+            if (fetched.isEmpty()) {
+                logger.info("No articles from news API (likely rate limited); keeping {} stored articles", snapshot.articles().size());
+                return;
+            }
+            snapshot = merge(snapshot, fetched);
+            logger.info("News store refreshed: {} articles", snapshot.articles().size());
+        } catch (Exception e) {
+            logger.warn("News refresh failed, serving stored articles: {}", e.toString());
+        }
+    }
+
+    /**
+     * Configured tickers first, then every stock someone holds or watches, in AlphaVantage's
+     * notation and capped at {@code news.max-tickers}.
+     */
+    List<String> ingestionTickers() {
+        Set<String> tickers = new LinkedHashSet<>();
+        for (String t : newsTickers.split(",")) {
+            if (!t.isBlank()) tickers.add(t.trim().toUpperCase());
+        }
+        List<Asset.AssetType> stocks = List.of(Asset.AssetType.stock);
+        for (String s : assetRepository.findDistinctSymbolsByTypeIn(stocks)) tickers.add(toAlphaVantageTicker(s));
+        for (String s : watchlistRepository.findDistinctSymbolsByTypeIn(stocks)) tickers.add(toAlphaVantageTicker(s));
+        tickers.remove("");
+
+        List<String> list = new ArrayList<>(tickers);
+        if (list.size() > maxTickers) {
+            logger.warn("News ticker set has {} symbols, querying the first {}", list.size(), maxTickers);
+            list = list.subList(0, maxTickers);
+        }
+        return list;
+    }
+
+    // The upstream takes a handful of tickers per call, so each refresh queries the next
+    // news.calls-per-refresh batches and the whole set is covered over successive refreshes
+    private List<String> nextBatches(List<String> tickers) {
+        int perCall = Math.max(1, tickersPerCall);
+        int batches = (tickers.size() + perCall - 1) / perCall;
+        if (batches == 0) return List.of();
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.max(1, callsPerRefresh), batches); i++) {
+            int b = nextBatch % batches;
+            nextBatch = b + 1;
+            result.add(String.join(",", tickers.subList(b * perCall, Math.min((b + 1) * perCall, tickers.size()))));
+        }
+        return result;
+    }
+
+    private List<NewsArticle> fetchFromUpstream(String tickers) throws Exception {
+        String url = newsBase + "?function=NEWS_SENTIMENT&tickers=" + tickers + "&apikey=" + alphavantageApiKey;
         logger.debug("Fetching news URL: {}", url);
-        String response = restTemplate.getForObject(url, String.class);
+        String response = upstreamMetrics.observe("alphavantage", "news",
+                () -> restTemplate.getForObject(url, String.class), UpstreamMetrics::classifyAlphaVantage);
         logger.debug("News raw response length: {}", response == null ? 0 : response.length());
 
-        List<Map<String, Object>> articles = new ArrayList<>();
-        if (response != null && !response.isEmpty()) {
-            JsonNode root = objectMapper.readTree(response);
-            
-            // Check if AlphaVantage returned a rate limit or API key error message
-            if (root.has("Information")) {
-                logger.warn("AlphaVantage API limit or warning: {}", root.get("Information").asText());
-            } 
-            else if (root.has("feed") && root.get("feed").isArray()) {
-                for (JsonNode n : root.get("feed")) {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("title", n.path("title").asText(null));
-                    item.put("url", n.path("url").asText(null));
-                    item.put("source", n.path("source").asText(null));
-                    if (item.get("title") != null && item.get("url") != null) {
-                        articles.add(item);
-                    }
-                    if (articles.size() >= 12) break; // cap to 12 for UI
-                }
-            } else {
-                logger.debug("News response did not contain 'feed' array. Returning raw response for debugging.");
-                if (newsDebug) logger.debug("RAW NEWS RESPONSE: {}", response);
+        List<NewsArticle> articles = new ArrayList<>();
+        if (response == null || response.isEmpty()) return articles;
+
+        JsonNode root = objectMapper.readTree(response);
+
+        // Check if AlphaVantage returned a rate limit or API key error message
+        if (root.has("Information")) {
+            logger.warn("AlphaVantage API limit or warning: {}", root.get("Information").asText());
+        } else if (root.has("feed") && root.get("feed").isArray()) {
+            for (JsonNode n : root.get("feed")) {
+                NewsArticle article = toArticle(n);
+                if (article != null) articles.add(article);
+            }
+        } else {
+            logger.debug("News response did not contain 'feed' array.");
+            if (newsDebug) logger.debug("RAW NEWS RESPONSE: {}", response);
+        }
+        return articles;
+    }
+
+    private NewsArticle toArticle(JsonNode n) {
+        String title = n.path("title").asText(null);
+        String url = n.path("url").asText(null);
+        if (title == null || url == null) return null;
+
+        List<NewsArticle.TickerSentiment> tickers = new ArrayList<>();
+        for (JsonNode t : n.path("ticker_sentiment")) {
+            String ticker = t.path("ticker").asText(null);
+            if (ticker == null) continue;
+            tickers.add(new NewsArticle.TickerSentiment(
+                    ticker,
+                    t.path("relevance_score").asDouble(0.0),
+                    t.path("ticker_sentiment_score").asDouble(0.0),
+                    t.path("ticker_sentiment_label").asText(null)));
+        }
+
+        return new NewsArticle(
+                articleId(url),
+                title,
+                url,
+                n.path("source").asText(null),
+                n.path("summary").asText(null),
+                parseTime(n.path("time_published").asText(null)),
+                n.has("overall_sentiment_score") ? n.path("overall_sentiment_score").asDouble() : null,
+                n.path("overall_sentiment_label").asText(null),
+                List.copyOf(tickers));
+    }
+
+    // New articles replace stored ones with the same URL; newest first, capped at news.store.max-articles
+    private NewsSnapshot merge(NewsSnapshot current, List<NewsArticle> fetched) {
+        Map<String, NewsArticle> byUrl = new LinkedHashMap<>();
+        for (NewsArticle a : fetched) byUrl.put(a.url(), a);
+        if (!current.fallback()) {
+            for (NewsArticle a : current.articles()) byUrl.putIfAbsent(a.url(), a);
+        }
+
+        List<NewsArticle> merged = new ArrayList<>(byUrl.values());
+        merged.sort(Comparator.comparing(NewsArticle::publishedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        if (merged.size() > maxArticles) merged = merged.subList(0, maxArticles);
+
+        List<NewsArticle> articles = List.copyOf(merged);
+        Map<String, NewsArticle> byId = new HashMap<>();
+        for (NewsArticle a : articles) byId.put(a.id(), a);
+        return new NewsSnapshot(articles, Map.copyOf(byId), buildIndex(articles), Instant.now(), etagOf(articles), false);
+    }
+
+    // Built once per refresh so per-user filtering is a handful of map lookups
+    private static Map<String, List<IndexEntry>> buildIndex(List<NewsArticle> articles) {
+        Map<String, Map<String, Double>> scores = new HashMap<>();
+        for (NewsArticle a : articles) {
+            for (NewsArticle.TickerSentiment t : a.tickers()) {
+                String key = normalizeTicker(t.ticker());
+                if (key.isEmpty()) continue;
+                scores.computeIfAbsent(key, k -> new HashMap<>()).merge(a.id(), t.relevance(), Math::max);
             }
         }
 
-        // Fallback if API is rate-limited or returned no news
-        if (articles.isEmpty()) {
-            logger.info("No articles found from API (likely rate limited). Using fallback news.");
-            articles = getFallbackNews();
+        Map<String, List<IndexEntry>> index = new HashMap<>();
+        scores.forEach((ticker, byArticle) -> {
+            List<IndexEntry> entries = new ArrayList<>(byArticle.size());
+            byArticle.forEach((id, relevance) -> entries.add(new IndexEntry(id, relevance)));
+            entries.sort(Comparator.comparingDouble(IndexEntry::relevance).reversed());
+            index.put(ticker, List.copyOf(entries));
+        });
+        return Map.copyOf(index);
+    }
+
+    // ---------------------- Serving ----------------------
+
+    public NewsSnapshot currentSnapshot() {
+        return snapshot;
+    }
+
+    public Map<String, Object> fetchNews() {
+        return buildResponse(snapshot, null);
+    }
+
+    // Articles from the store, optionally only those mentioning one of the given tickers (exchange suffix ignored)
+    public Map<String, Object> buildResponse(NewsSnapshot snap, Collection<String> tickers) {
+        List<NewsArticle> selected;
+        if (tickers == null) {
+            selected = snap.articles().size() > DEFAULT_PAGE_SIZE ? snap.articles().subList(0, DEFAULT_PAGE_SIZE) : snap.articles();
+        } else {
+            selected = articlesFor(snap, tickers);
         }
 
+        List<Map<String, Object>> articles = new ArrayList<>(selected.size());
+        for (NewsArticle a : selected) articles.add(toResponseItem(a));
+
         Map<String, Object> resp = new HashMap<>();
         resp.put("articles", articles);
+        resp.put("refreshedAt", snap.fallback() ? null : snap.refreshedAt());
         if (newsDebug) {
-            resp.put("debug", Map.of("source", "AlphaVantage", "rawLength", response == null ? 0 : response.length()));
-            if (articles.isEmpty()) resp.put("error", "No articles found. Check server logs for raw response.");
+            resp.put("debug", Map.of("source", snap.fallback() ? "fallback" : "AlphaVantage", "stored", snap.articles().size()));
         }
         return resp;
     }
 
+    // Index lookup per ticker; an article mentioning several of them is ranked by its best relevance
+    public List<NewsArticle> articlesFor(NewsSnapshot snap, Collection<String> tickers) {
+        Map<String, Double> best = new HashMap<>();
+        for (String t : tickers) {
+            List<IndexEntry> entries = snap.index().get(normalizeTicker(t));
+            if (entries == null) continue;
+            for (IndexEntry e : entries) best.merge(e.articleId(), e.relevance(), Math::max);
+        }
+
+        List<NewsArticle> result = new ArrayList<>(best.size());
+        for (String id : best.keySet()) {
+            NewsArticle a = snap.byId().get(id);
+            if (a != null) result.add(a);
+        }
+        result.sort(Comparator.<NewsArticle>comparingDouble(a -> best.get(a.id())).reversed()
+                .thenComparing(NewsArticle::publishedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return result.size() > DEFAULT_PAGE_SIZE ? result.subList(0, DEFAULT_PAGE_SIZE) : result;
+    }
+
+    // Holdings plus watchlist, normalized the same way as the index keys
+    public SortedSet<String> symbolsForUser(User user) {
+        SortedSet<String> symbols = new TreeSet<>();
+        for (String s : assetRepository.findSymbolsByUser(user)) symbols.add(normalizeTicker(s));
+        for (String s : watchlistRepository.findSymbolsByUser(user)) symbols.add(normalizeTicker(s));
+        symbols.remove("");
+        return symbols;
+    }
+
+    private Map<String, Object> toResponseItem(NewsArticle a) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("title", a.title());
+        item.put("url", a.url());
+        item.put("source", a.source());
+        item.put("publishedAt", a.publishedAt());
+        item.put("sentiment", a.sentimentLabel());
+        item.put("tickers", a.tickers());
+        return item;
+    }
+
     public boolean isDebugEnabled() {
         return newsDebug;
     }
 
+    // ---------------------- Helpers ----------------------
+
+    // Yahoo symbol to AlphaVantage's: "INFY.NS" -> "INFY.BSE", "TSCO.L" -> "TSCO.LON"; bare symbols are unchanged
+    static String toAlphaVantageTicker(String symbol) {
+        if (symbol == null) return "";
+        String s = symbol.trim().toUpperCase();
+        int dot = s.lastIndexOf('.');
+        if (dot <= 0) return s;
+        String suffix = switch (s.substring(dot + 1)) {
+            case "NS", "BO" -> "BSE";
+            case "L" -> "LON";
+            case "TO" -> "TRT";
+            case "V" -> "TRV";
+            case "DE" -> "DEX";
+            default -> s.substring(dot + 1);
+        };
+        return s.substring(0, dot) + "." + suffix;
+    }
+
+    // "RELIANCE.BSE" / "RELIANCE.NS" -> "RELIANCE", "CRYPTO:BTC" -> "BTC"
+    public static String normalizeTicker(String ticker) {
+        if (ticker == null) return "";
+        String t = ticker.trim().toUpperCase();
+        int colon = t.indexOf(':');
+        if (colon >= 0) t = t.substring(colon + 1);
+        int dot = t.indexOf('.');
+        if (dot > 0) t = t.substring(0, dot);
+        return t;
+    }
+
+    private static Instant parseTime(String raw) {
+        if (raw == null) return null;
+        try {
+            return LocalDateTime.parse(raw, AV_TIME).toInstant(ZoneOffset.UTC);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Covers everything a response renders from the article, so a re-scored or re-dated article changes it too
+    private static String etagOf(List<NewsArticle> articles) {
+        MessageDigest md = sha256();
+        for (NewsArticle a : articles) {
+            update(md, a.url());
+            update(md, a.title());
+            update(md, a.summary());
+            update(md, String.valueOf(a.publishedAt()));
+            update(md, String.valueOf(a.sentimentScore()));
+            update(md, a.sentimentLabel());
+            for (NewsArticle.TickerSentiment t : a.tickers()) {
+                update(md, t.ticker());
+                update(md, Double.toString(t.relevance()));
+                update(md, Double.toString(t.sentimentScore()));
+                update(md, t.sentimentLabel());
+            }
+        }
+        return "\"" + HexFormat.of().formatHex(md.digest(), 0, 12) + "\"";
+    }
+
+    // Stable across refreshes and restarts; 128 bits of SHA-256 so distinct URLs don't share an id
+    static String articleId(String url) {
+        return HexFormat.of().formatHex(sha256().digest(url.getBytes(StandardCharsets.UTF_8)), 0, 16);
+    }
+
+    private static void update(MessageDigest md, String value) {
+        if (value != null) md.update(value.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every JVM", e);
+        }
+    }
+
     // ---------------------- Fallback Data ----------------------
-    private List<Map<String, Object>> getFallbackNews() {
+    private List<NewsArticle> getFallbackNews() {
         return List.of(
-            Map.of("title", "Sensex, Nifty hit record highs driven by IT and Banking stocks", "url", "https://www.moneycontrol.com/", "source", "MoneyControl"),
-            Map.of("title", "RBI keeps repo rate unchanged at 6.5% for consecutive meetings", "url", "https://economictimes.indiatimes.com/", "source", "Economic Times"),
-            Map.of("title", "Reliance Industries announces major investments in green energy sector", "url", "https://www.livemint.com/", "source", "LiveMint"),
-            Map.of("title", "TCS reports strong Q3 earnings, beats street estimates", "url", "https://www.cnbctv18.com/", "source", "CNBC TV18"),
-            Map.of("title", "Foreign Portfolio Investors turn net buyers in Indian equities", "url", "https://www.bloombergquint.com/", "source", "Bloomberg")
+            fallbackArticle("Sensex, Nifty hit record highs driven by IT and Banking stocks", "https://www.moneycontrol.com/", "MoneyControl"),
+            fallbackArticle("RBI keeps repo rate unchanged at 6.5% for consecutive meetings", "https://economictimes.indiatimes.com/", "Economic Times"),
+            fallbackArticle("Reliance Industries announces major investments in green energy sector", "https://www.livemint.com/", "LiveMint"),
+            fallbackArticle("TCS reports strong Q3 earnings, beats street estimates", "https://www.cnbctv18.com/", "CNBC TV18"),
+            fallbackArticle("Foreign Portfolio Investors turn net buyers in Indian equities", "https://www.bloombergquint.com/", "Bloomberg")
         );
     }
-}
\ No newline at end of file
+
+    private static NewsArticle fallbackArticle(String title, String url, String source) {
+        return new NewsArticle(articleId(url), title, url, source, null, null, null, null, List.of());
+    }
+}
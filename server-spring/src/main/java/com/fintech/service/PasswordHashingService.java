@@ -0,0 +1,133 @@
+package com.fintech.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool instead of Tomcat request threads.
+ * The pool is capped below the core count and has a bounded queue; once both are full new work is
+ * rejected with {@link HashingCapacityExceededException} (mapped to 503) so a credential-stuffing
+ * burst can't pin every worker on CPU.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int strength;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:32}") int queueCapacity,
+                                  @Value("${auth.hashing.timeout-ms:5000}") long timeoutMillis,
+                                  @Value("${auth.bcrypt.strength:10}") int strength) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+        this.strength = strength;
+
+        // Default to half the cores so portfolio traffic keeps CPU during a login storm. Hashing is
+        // CPU-bound, so this pool stays on platform threads even in virtual-thread mode
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String storedHash) {
+        if (storedHash == null) return false;
+        return run(() -> passwordEncoder.matches(rawPassword, storedHash));
+    }
+
+    // ---------------------- Cost upgrades ----------------------
+
+    // True when the stored hash was made with a different cost than auth.bcrypt.strength
+    public boolean needsRehash(String storedHash) {
+        int cost = costOf(storedHash);
+        return cost > 0 && cost != strength;
+    }
+
+    // Best effort: if the pool is busy the upgrade is skipped and retried on a later login
+    public void rehashInBackground(String rawPassword, Consumer<String> onHashed) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onHashed.accept(passwordEncoder.encode(rawPassword));
+                } catch (Exception e) {
+                    logger.warn("Password hash upgrade failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Skipping password hash upgrade, hashing pool saturated");
+        }
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new HashingCapacityExceededException();
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingCapacityExceededException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HashingCapacityExceededException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    // "$2a$10$..." -> 10; 0 when the hash isn't a BCrypt hash we recognise
+    private static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') return 0;
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,181 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fintech.dto.AssetExportRow;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.repository.AssetRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's holdings straight from a streamed query to the response, one row at a
+ * time. Prices come from {@link PriceSnapshotService} and FX rates from {@link FxRateService},
+ * so exporting makes no upstream calls and memory use does not depend on the number of holdings.
+ */
+@Service
+public class PortfolioExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String[] HOLDING_COLUMNS =
+            {"id", "type", "symbol", "name", "quantity", "avgBuyPrice", "costBasis", "sector", "createdAt", "updatedAt"};
+    private static final String[] VALUATION_COLUMNS =
+            {"id", "type", "symbol", "name", "quantity", "avgBuyPrice", "currency", "costBasis", "lastPriceINR", "marketValue", "pnl", "returnPct"};
+
+    private final AssetRepository assetRepository;
+    private final PriceSnapshotService priceSnapshotService;
+    private final FxRateService fxRateService;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Value("${export.flush-every-rows:500}")
+    private int flushEvery;
+
+    public PortfolioExportService(AssetRepository assetRepository,
+                                  PriceSnapshotService priceSnapshotService,
+                                  FxRateService fxRateService,
+                                  PlatformTransactionManager transactionManager) {
+        this.assetRepository = assetRepository;
+        this.priceSnapshotService = priceSnapshotService;
+        this.fxRateService = fxRateService;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public void writeHoldings(User user, Format format, OutputStream out) throws IOException {
+        write(user, format, out, HOLDING_COLUMNS, false);
+    }
+
+    public void writeValuations(User user, Format format, OutputStream out) throws IOException {
+        write(user, format, out, VALUATION_COLUMNS, true);
+    }
+
+    private void write(User user, Format format, OutputStream out, String[] columns, boolean priced) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        if (format == Format.CSV) writeCsvLine(writer, columns);
+        double[] fxRates = fxRateService.ratesToInr();
+
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<AssetExportRow> rows = assetRepository.streamExportRowsByUser(user)) {
+                    int[] count = {0};
+                    rows.forEach(row -> {
+                        try {
+                            Map<String, Object> values = toValues(row, priced, fxRates);
+                            if (format == Format.CSV) {
+                                String[] line = new String[columns.length];
+                                for (int i = 0; i < columns.length; i++) {
+                                    Object v = values.get(columns[i]);
+                                    line[i] = v == null ? "" : (v instanceof BigDecimal bd ? bd.toPlainString() : v.toString());
+                                }
+                                writeCsvLine(writer, line);
+                            } else {
+                                writer.write(objectMapper.writeValueAsString(values));
+                                writer.write('\n');
+                            }
+                            if (++count[0] % flushEvery == 0) writer.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the read-only transaction has already been rolled back
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // Valuation rows state cost, price, value and P&L in INR; holding rows keep the holding's currency
+    private Map<String, Object> toValues(AssetExportRow row, boolean priced, double[] fxRates) {
+        BigDecimal cost = row.quantity() != null && row.avgBuyPrice() != null
+                ? row.quantity().multiply(row.avgBuyPrice()).setScale(2, RoundingMode.HALF_UP)
+                : null;
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", row.id());
+        m.put("type", row.type());
+        m.put("symbol", row.symbol());
+        m.put("name", row.name());
+        m.put("quantity", row.quantity());
+        m.put("avgBuyPrice", row.avgBuyPrice());
+        if (!priced) {
+            m.put("costBasis", cost);
+            m.put("sector", row.sector());
+            m.put("createdAt", row.createdAt());
+            m.put("updatedAt", row.updatedAt());
+            return m;
+        }
+
+        FxRateService.Currency currency = fxRateService.currencyOf(row.type(), row.symbol());
+        BigDecimal fx = BigDecimal.valueOf(fxRates[currency.ordinal()]);
+        if (cost != null) cost = cost.multiply(fx).setScale(2, RoundingMode.HALF_UP);
+        m.put("currency", currency.name());
+        m.put("costBasis", cost);
+
+        // Holdings without a quote in the last refresh are exported unpriced rather than fetched inline
+        Optional<BigDecimal> price = priceSnapshotService.latestPrice(row.symbol());
+        if (price.isPresent() && row.quantity() != null) {
+            BigDecimal priceInr = price.get().multiply(fx);
+            BigDecimal value = row.quantity().multiply(priceInr).setScale(2, RoundingMode.HALF_UP);
+            m.put("lastPriceINR", priceInr.setScale(4, RoundingMode.HALF_UP));
+            m.put("marketValue", value);
+            if (cost != null) {
+                BigDecimal pnl = value.subtract(cost);
+                m.put("pnl", pnl);
+                m.put("returnPct", cost.signum() > 0
+                        ? pnl.multiply(BigDecimal.valueOf(100)).divide(cost, 2, RoundingMode.HALF_UP)
+                        : null);
+            }
+        }
+        return m;
+    }
+
+    private static void writeCsvLine(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) writer.write(',');
+            String f = fields[i];
+            if (f.indexOf(',') >= 0 || f.indexOf('"') >= 0 || f.indexOf('\n') >= 0 || f.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(f.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(f);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,414 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.repository.AssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk holdings import from CSV: plain holdings files and broker exports (holdings statements,
+ * tradebooks, contract notes). The upload is read one record at a time and folded into one
+ * running position per symbol, so memory grows with distinct symbols, not rows. Unknown names
+ * are resolved in batched quote lookups and the result is upserted in JDBC batches.
+ */
+@Service
+public class PortfolioImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // Chart lookups for listings whose quote currency the bulk quote didn't report; the price refresh does the rest
+    private static final int CURRENCY_LOOKUPS = 20;
+
+    // Leading currency marks: "Rs.", "INR", "₹", "$" and the like, with the dot of an abbreviation
+    // Thousands (1,234,567) or lakh (12,34,567) grouping
+    private static final Pattern GROUPED = Pattern.compile("-?(\\d{1,3}(,\\d{3})+|\\d{1,2}(,\\d{2})+,\\d{3})");
+    private static final Pattern CURRENCY_PREFIX = Pattern.compile("^\\s*(?:[\\p{L}\\p{Sc}]+\\.?\\s*)+");
+
+    public enum Mode {
+        REPLACE, // the file states the holding
+        MERGE    // the file adds to (or sells from) the existing holding
+    }
+
+    private enum Column { SYMBOL, NAME, TYPE, QUANTITY, PRICE, SIDE, EXCHANGE, SECTOR, TAGS }
+
+    // Headers are compared lower-case with everything but letters and digits removed
+    private static final Map<String, Column> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("symbol", Column.SYMBOL),
+            Map.entry("ticker", Column.SYMBOL),
+            Map.entry("tradingsymbol", Column.SYMBOL),
+            Map.entry("instrument", Column.SYMBOL),
+            Map.entry("scrip", Column.SYMBOL),
+            Map.entry("scripname", Column.SYMBOL),
+            Map.entry("stocksymbol", Column.SYMBOL),
+            Map.entry("name", Column.NAME),
+            Map.entry("companyname", Column.NAME),
+            Map.entry("security", Column.NAME),
+            Map.entry("securityname", Column.NAME),
+            Map.entry("schemename", Column.NAME),
+            Map.entry("type", Column.TYPE),
+            Map.entry("assettype", Column.TYPE),
+            Map.entry("instrumenttype", Column.TYPE),
+            Map.entry("quantity", Column.QUANTITY),
+            Map.entry("qty", Column.QUANTITY),
+            Map.entry("shares", Column.QUANTITY),
+            Map.entry("units", Column.QUANTITY),
+            Map.entry("quantityavailable", Column.QUANTITY),
+            Map.entry("avgbuyprice", Column.PRICE),
+            Map.entry("averageprice", Column.PRICE),
+            Map.entry("avgprice", Column.PRICE),
+            Map.entry("avgcost", Column.PRICE),
+            Map.entry("averagecost", Column.PRICE),
+            Map.entry("buyprice", Column.PRICE),
+            Map.entry("costprice", Column.PRICE),
+            Map.entry("price", Column.PRICE),
+            Map.entry("tradeprice", Column.PRICE),
+            Map.entry("rate", Column.PRICE),
+            Map.entry("side", Column.SIDE),
+            Map.entry("tradetype", Column.SIDE),
+            Map.entry("buysell", Column.SIDE),
+            Map.entry("transactiontype", Column.SIDE),
+            Map.entry("exchange", Column.EXCHANGE),
+            Map.entry("sector", Column.SECTOR),
+            Map.entry("tags", Column.TAGS)
+    );
+
+    private final AssetRepository assetRepository;
+    private final AssetService assetService;
+    private final LedgerService ledgerService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${import.max-rows:20000}")
+    private int maxRows;
+
+    public PortfolioImportService(AssetRepository assetRepository,
+                                  AssetService assetService,
+                                  LedgerService ledgerService,
+                                  PlatformTransactionManager transactionManager) {
+        this.assetRepository = assetRepository;
+        this.assetService = assetService;
+        this.ledgerService = ledgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Running position for one symbol while the file is read
+    private static final class Position {
+        final String symbol;
+        Asset.AssetType type;
+        String name;
+        String sector;
+        Set<String> tags;
+        BigDecimal quantity = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+        boolean existing;
+
+        Position(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    public Map<String, Object> importCsv(User user, BufferedReader reader, Mode mode, Asset.AssetType defaultType) throws IOException {
+        long started = System.nanoTime();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        int errorCount = 0;
+        int rowsRead = 0;
+
+        Map<String, Asset> existing = new HashMap<>();
+        for (Asset a : assetRepository.findByUser(user)) existing.put(a.getSymbol().toUpperCase(), a);
+
+        char separator = detectSeparator(reader);
+        // Semicolon-separated exports come from locales that write 12,5 for twelve and a half
+        boolean decimalComma = separator == ';';
+        CsvRecordReader csv = new CsvRecordReader(reader, separator);
+        List<String> header = csv.next();
+        if (header == null) throw new IllegalArgumentException("File is empty");
+        Column[] columns = mapHeader(header);
+        if (!Arrays.asList(columns).contains(Column.SYMBOL) || !Arrays.asList(columns).contains(Column.QUANTITY)) {
+            throw new IllegalArgumentException("Header must include a symbol and a quantity column");
+        }
+
+        Map<String, Position> positions = new LinkedHashMap<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (isBlank(record)) continue;
+            if (++rowsRead > maxRows) {
+                throw new IllegalArgumentException("File exceeds " + maxRows + " rows");
+            }
+            try {
+                applyRow(record, columns, positions, existing, mode, defaultType, decimalComma);
+            } catch (IllegalArgumentException e) {
+                errorCount++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(Map.of("row", csv.recordLine(), "error", e.getMessage()));
+                }
+            }
+        }
+
+        // A holding the file sells down to nothing is deleted, as DELETE /api/assets/{id} would;
+        // a symbol that nets to nothing without one is only reported
+        List<String> skipped = new ArrayList<>();
+        List<Asset> toDelete = new ArrayList<>();
+        List<Position> toWrite = new ArrayList<>();
+        for (Position p : positions.values()) {
+            if (p.quantity.signum() > 0) toWrite.add(p);
+            else if (p.existing) toDelete.add(existing.get(p.symbol));
+            else skipped.add(p.symbol);
+        }
+
+        resolveNames(toWrite);
+
+        List<Asset> assets = new ArrayList<>(toWrite.size());
+        int created = 0;
+        for (Position p : toWrite) {
+            if (!p.existing) created++;
+            assets.add(toAsset(p));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            assetRepository.upsertAll(user.getId(), assets);
+            if (toDelete.isEmpty()) return;
+            assetRepository.deleteAll(toDelete);
+            for (Asset a : toDelete) ledgerService.closeOpenLots(user, a.getSymbol());
+        });
+        assetService.resolveQuoteCurrencies(assets.stream()
+                .filter(a -> a.getType() == Asset.AssetType.stock)
+                .map(Asset::getSymbol)
+                .toList(), CURRENCY_LOOKUPS);
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Imported {} holdings from {} rows for user {} in {} ms ({} row errors)",
+                assets.size(), rowsRead, user.getId(), durationMs, errorCount);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rowsRead", rowsRead);
+        result.put("imported", assets.size());
+        result.put("created", created);
+        result.put("updated", assets.size() - created);
+        result.put("deleted", toDelete.stream().map(Asset::getSymbol).toList());
+        result.put("skipped", skipped);
+        result.put("errorCount", errorCount);
+        result.put("errors", errors);
+        result.put("durationMs", durationMs);
+        return result;
+    }
+
+    // ---------------------- Row handling ----------------------
+
+    private void applyRow(List<String> record, Column[] columns, Map<String, Position> positions,
+                          Map<String, Asset> existing, Mode mode, Asset.AssetType defaultType, boolean decimalComma) {
+        String symbol = null, name = null, type = null, quantity = null, price = null;
+        String side = null, exchange = null, sector = null, tags = null;
+        for (int i = 0; i < columns.length && i < record.size(); i++) {
+            if (columns[i] == null) continue;
+            String v = record.get(i).trim();
+            if (v.isEmpty()) continue;
+            switch (columns[i]) {
+                case SYMBOL -> symbol = v;
+                case NAME -> name = v;
+                case TYPE -> type = v;
+                case QUANTITY -> quantity = v;
+                case PRICE -> price = v;
+                case SIDE -> side = v;
+                case EXCHANGE -> exchange = v;
+                case SECTOR -> sector = v;
+                case TAGS -> tags = v;
+            }
+        }
+
+        if (symbol == null) throw new IllegalArgumentException("Missing symbol");
+        Asset.AssetType assetType = type == null ? defaultType : parseType(type);
+        String key = withExchangeSuffix(symbol.toUpperCase(), exchange, assetType);
+
+        BigDecimal qty = parseNumber(quantity, "quantity", decimalComma);
+        if (qty == null || qty.signum() <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        BigDecimal unitPrice = price == null ? BigDecimal.ZERO : parseNumber(price, "price", decimalComma);
+        if (unitPrice.signum() < 0) throw new IllegalArgumentException("Price cannot be negative");
+        boolean sell = side != null && side.trim().toUpperCase().startsWith("S");
+
+        Position p = positions.get(key);
+        if (p == null) {
+            p = new Position(key);
+            p.type = assetType;
+            Asset current = existing.get(key);
+            if (current != null) {
+                p.existing = true;
+                p.type = type == null ? current.getType() : assetType;
+                p.name = current.getName();
+                if (mode == Mode.MERGE) {
+                    p.quantity = current.getQuantity();
+                    p.cost = current.getQuantity().multiply(current.getAvgBuyPrice());
+                }
+            }
+            positions.put(key, p);
+        }
+
+        if (sell) {
+            if (qty.compareTo(p.quantity) > 0) {
+                throw new IllegalArgumentException("Sell of " + qty.toPlainString() + " exceeds holding of " + p.quantity.toPlainString());
+            }
+            // Selling leaves the average cost of the remainder unchanged
+            BigDecimal avg = p.quantity.signum() > 0 ? p.cost.divide(p.quantity, 10, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+            p.quantity = p.quantity.subtract(qty);
+            p.cost = p.quantity.multiply(avg);
+        } else {
+            p.quantity = p.quantity.add(qty);
+            p.cost = p.cost.add(qty.multiply(unitPrice));
+        }
+
+        if (name != null) p.name = name;
+        if (sector != null) p.sector = sector;
+        if (tags != null) {
+            if (p.tags == null) p.tags = new LinkedHashSet<>();
+            for (String t : tags.split("[;|]")) {
+                if (!t.isBlank()) p.tags.add(t.trim());
+            }
+        }
+    }
+
+    // One batched quote lookup for every new, unnamed, non-crypto symbol
+    private void resolveNames(List<Position> positions) {
+        List<String> unknown = new ArrayList<>();
+        for (Position p : positions) {
+            if (p.name == null && p.type != Asset.AssetType.crypto) unknown.add(p.symbol);
+        }
+        if (unknown.isEmpty()) return;
+
+        Map<String, Map<String, Object>> details = assetService.getBulkSymbolDetails(unknown);
+        for (Position p : positions) {
+            if (p.name != null) continue;
+            Map<String, Object> info = details.get(p.symbol);
+            if (info != null && info.get("name") != null) {
+                p.name = info.get("name").toString();
+                if (p.sector == null && info.get("exchange") != null && !info.get("exchange").toString().isBlank()) {
+                    p.sector = info.get("exchange").toString();
+                }
+            }
+        }
+    }
+
+    private Asset toAsset(Position p) {
+        Asset a = new Asset();
+        a.setType(p.type);
+        a.setSymbol(p.symbol);
+        a.setName(p.name != null ? p.name : p.symbol);
+        a.setQuantity(p.quantity.setScale(8, RoundingMode.HALF_UP));
+        a.setAvgBuyPrice(p.cost.divide(p.quantity, 8, RoundingMode.HALF_UP));
+        a.setSector(p.sector);
+        if (p.tags != null) a.setTags(p.tags);
+        return a;
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private static Column[] mapHeader(List<String> header) {
+        Column[] columns = new Column[header.size()];
+        Set<Column> seen = EnumSet.noneOf(Column.class);
+        for (int i = 0; i < header.size(); i++) {
+            Column c = HEADER_ALIASES.get(header.get(i).toLowerCase().replaceAll("[^a-z0-9]", ""));
+            // First matching column wins, e.g. "Price" after "Avg. cost" in a holdings export
+            if (c != null && seen.add(c)) columns[i] = c;
+        }
+        return columns;
+    }
+
+    // Comma unless the header line has more semicolons or tabs
+    private static char detectSeparator(BufferedReader reader) throws IOException {
+        reader.mark(8192);
+        char[] buf = new char[8192];
+        int n = reader.read(buf);
+        reader.reset();
+        int commas = 0, semicolons = 0, tabs = 0;
+        for (int i = 0; i < n && buf[i] != '\n'; i++) {
+            if (buf[i] == ',') commas++;
+            else if (buf[i] == ';') semicolons++;
+            else if (buf[i] == '\t') tabs++;
+        }
+        if (tabs > commas && tabs > semicolons) return '\t';
+        if (semicolons > commas) return ';';
+        return ',';
+    }
+
+    private static Asset.AssetType parseType(String raw) {
+        String t = raw.trim().toLowerCase();
+        switch (t) {
+            case "stock": case "equity": case "eq": case "shares": case "etf": return Asset.AssetType.stock;
+            case "mutual": case "mf": case "mutual fund": case "mutualfund": return Asset.AssetType.mutual;
+            case "crypto": case "cryptocurrency": return Asset.AssetType.crypto;
+        }
+        try {
+            return Asset.AssetType.valueOf(t);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown asset type: " + raw);
+        }
+    }
+
+    // Broker files list the exchange separately; Yahoo wants RELIANCE.NS / RELIANCE.BO
+    private static String withExchangeSuffix(String symbol, String exchange, Asset.AssetType type) {
+        if (exchange == null || type != Asset.AssetType.stock || symbol.contains(".")) return symbol;
+        String ex = exchange.trim().toUpperCase();
+        if (ex.equals("NSE")) return symbol + ".NS";
+        if (ex.equals("BSE")) return symbol + ".BO";
+        return symbol;
+    }
+
+    /**
+     * Accepts "1,234.50", "Rs. 1234.5" and similar; with {@code decimalComma} the marks swap
+     * roles, so "1.234,56" and "12,5" read as written. A lone mark that is not followed by
+     * exactly three digits is taken as the decimal point whichever it is. Anything else that
+     * mixes the two, like "1.234,56" in a comma-decimal file, is rejected rather than guessed.
+     */
+    static BigDecimal parseNumber(String raw, String field, boolean decimalComma) {
+        if (raw == null) return null;
+        String cleaned = CURRENCY_PREFIX.matcher(raw).replaceFirst("").replaceAll("[^0-9.,\\-]", "");
+        if (decimalComma) cleaned = swapMarks(cleaned);
+        String number = ungroup(cleaned);
+        if (number == null || number.isEmpty()) throw new IllegalArgumentException("Invalid " + field + ": " + raw);
+        try {
+            return new BigDecimal(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + raw);
+        }
+    }
+
+    private static String swapMarks(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            sb.append(c == ',' ? '.' : c == '.' ? ',' : c);
+        }
+        return sb.toString();
+    }
+
+    // Drops ',' thousands separators from a '.'-decimal number; null when the grouping is malformed
+    private static String ungroup(String s) {
+        int dot = s.indexOf('.');
+        if (dot != s.lastIndexOf('.')) return null;
+        String whole = dot < 0 ? s : s.substring(0, dot);
+        String fraction = dot < 0 ? "" : s.substring(dot);
+        if (fraction.indexOf(',') >= 0) return null;
+        if (whole.indexOf(',') < 0) return s;
+
+        if (dot < 0 && whole.indexOf(',') == whole.lastIndexOf(',') && !GROUPED.matcher(whole).matches()) {
+            return whole.replace(',', '.');
+        }
+        return GROUPED.matcher(whole).matches() ? whole.replace(",", "") + fraction : null;
+    }
+
+    private static boolean isBlank(List<String> record) {
+        for (String f : record) {
+            if (!f.isBlank()) return false;
+        }
+        return true;
+    }
+}
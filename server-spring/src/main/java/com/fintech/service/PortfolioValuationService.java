@@ -0,0 +1,109 @@
+package com.fintech.service;
+
+import com.fintech.dto.AllocationSliceDto;
+import com.fintech.dto.HoldingValueDto;
+import com.fintech.dto.PortfolioSummaryDto;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Portfolio summary (per-holding valuation plus allocation weights). Price lookup and the
+ * arithmetic are separate so the latter can be benchmarked without network calls. Holdings
+ * quoted in another currency are converted to INR from {@link FxRateService}'s rate table.
+ */
+@Service
+public class PortfolioValuationService {
+
+    private final AssetService assetService;
+    private final FxRateService fxRateService;
+
+    public PortfolioValuationService(AssetService assetService, FxRateService fxRateService) {
+        this.assetService = assetService;
+        this.fxRateService = fxRateService;
+    }
+
+    public PortfolioSummaryDto getPortfolioSummary(User user) {
+        List<Asset> assets = assetService.getAssetsByUser(user);
+
+        // 1. Separate assets by type and get their symbols
+        List<String> stockSymbols = assets.stream()
+            .filter(a -> a.getType() != Asset.AssetType.crypto) // Check against the enum directly
+            .map(asset -> asset.getSymbol().toUpperCase())
+            .distinct()
+            .collect(Collectors.toList());
+
+        List<String> cryptoSymbols = assets.stream()
+            .filter(a -> a.getType() == Asset.AssetType.crypto)
+            .map(Asset::getSymbol)
+            .distinct()
+            .collect(Collectors.toList());
+
+        // 2. Fetch stock and crypto prices concurrently using centralized AssetService
+        return assetService.getLivePricesAsync(stockSymbols)
+            .thenCombine(assetService.getCryptoPricesAsync(cryptoSymbols),
+                (stockPrices, cryptoPrices) -> summarize(assets, stockPrices, cryptoPrices))
+            .join();
+    }
+
+    // 3. Value every holding, then weight it against the total
+    public PortfolioSummaryDto summarize(List<Asset> assets, Map<String, BigDecimal> stockPrices, Map<String, BigDecimal> cryptoPrices) {
+        List<HoldingValueDto> items = new ArrayList<>(assets.size());
+        double totalPortfolioValue = 0.0;
+        double[] fxRates = fxRateService.ratesToInr();
+
+        for (Asset asset : assets) {
+            String symbol = asset.getSymbol() != null ? asset.getSymbol() : "";
+            String symbolUpper = symbol.toUpperCase();
+
+            double livePrice = 0.0;
+            if (asset.getType() == Asset.AssetType.crypto) {
+                BigDecimal bd = cryptoPrices.get(symbolUpper);
+                if (bd == null) bd = cryptoPrices.get(symbol);
+                livePrice = (bd != null) ? bd.doubleValue() : 0.0;
+            } else {
+                BigDecimal bd = stockPrices.get(symbolUpper);
+                livePrice = (bd != null) ? bd.doubleValue() : 0.0;
+            }
+
+            // Quote and cost are in the holding's currency; both convert at today's rate
+            FxRateService.Currency currency = fxRateService.currencyOf(asset.getType(), symbol);
+            double fx = fxRates[currency.ordinal()];
+            livePrice *= fx;
+
+            double marketValue = asset.getQuantity() != null ? asset.getQuantity().doubleValue() * livePrice : 0.0;
+            totalPortfolioValue += marketValue;
+
+            double costPrice = (asset.getQuantity() != null && asset.getAvgBuyPrice() != null) ? asset.getQuantity().doubleValue() * asset.getAvgBuyPrice().doubleValue() * fx : 0.0;
+            double pnl = marketValue - costPrice;
+            double returnPct = costPrice > 0 ? (pnl / costPrice) * 100 : 0.0;
+
+            items.add(new HoldingValueDto(
+                asset.getId(),
+                asset.getType() != null ? asset.getType() : Asset.AssetType.stock,
+                asset.getName(),
+                asset.getSymbol(),
+                asset.getQuantity(),
+                asset.getAvgBuyPrice(),
+                currency.name(),
+                livePrice,
+                marketValue,
+                pnl,
+                asset.getRealizedPnl().doubleValue() * fx,
+                returnPct
+            ));
+        }
+
+        List<AllocationSliceDto> allocation = new ArrayList<>(items.size());
+        for (HoldingValueDto item : items) {
+            double weight = totalPortfolioValue > 0 ? (item.marketValue() / totalPortfolioValue) * 100 : 0.0;
+            allocation.add(new AllocationSliceDto(item.name(), item.symbol(), item.marketValue(), weight));
+        }
+
+        return new PortfolioSummaryDto(items, allocation);
+    }
+}
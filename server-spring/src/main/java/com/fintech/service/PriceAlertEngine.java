@@ -0,0 +1,162 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of armed price alerts.
+ *
+ * <p>Each symbol has two heaps: upward alerts ordered by lowest trigger price and downward
+ * alerts ordered by highest. A tick only pops from the heads that the price has crossed, so
+ * its cost is proportional to the alerts that fire, not to the alerts that exist. Cancelled
+ * alerts are flagged and skipped when they reach a head; a heap is rebuilt once more than
+ * half of it is dead.
+ */
+public class PriceAlertEngine {
+
+    private static final int COMPACT_MIN_SIZE = 64;
+
+    public record Fired(long alertId, long userId, String symbol, boolean upward, double triggerPrice) {}
+
+    private static final class Armed {
+        final long id;
+        final long userId;
+        final String symbol;
+        final boolean upward;
+        final double trigger;
+        boolean cancelled; // guarded by the book lock
+        boolean fired;     // guarded by the book lock
+
+        Armed(long id, long userId, String symbol, boolean upward, double trigger) {
+            this.id = id;
+            this.userId = userId;
+            this.symbol = symbol;
+            this.upward = upward;
+            this.trigger = trigger;
+        }
+    }
+
+    private static final class Book {
+        final Asset.AssetType type;
+        final ReentrantLock lock = new ReentrantLock();
+        PriorityQueue<Armed> up = new PriorityQueue<>(Comparator.comparingDouble(a -> a.trigger));
+        PriorityQueue<Armed> down = new PriorityQueue<>(Comparator.comparingDouble((Armed a) -> a.trigger).reversed());
+        int deadUp;
+        int deadDown;
+
+        Book(Asset.AssetType type) {
+            this.type = type;
+        }
+
+        int live() {
+            return up.size() - deadUp + down.size() - deadDown;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Book> books = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Armed> armedById = new ConcurrentHashMap<>();
+
+    public void arm(long alertId, long userId, Asset.AssetType type, String symbol, boolean upward, double triggerPrice) {
+        String key = symbol.toUpperCase();
+        Book book = books.computeIfAbsent(key, k -> new Book(type));
+        book.lock.lock();
+        try {
+            Armed a = new Armed(alertId, userId, key, upward, triggerPrice);
+            if (upward) book.up.add(a); else book.down.add(a);
+            armedById.put(alertId, a);
+        } finally {
+            book.lock.unlock();
+        }
+    }
+
+    public void cancel(long alertId) {
+        Armed a = armedById.remove(alertId);
+        if (a == null) return;
+        Book book = books.get(a.symbol);
+        if (book == null) return;
+
+        book.lock.lock();
+        try {
+            // A tick may have fired it between the map removal and taking the lock
+            if (a.cancelled || a.fired) return;
+            a.cancelled = true;
+            if (a.upward) book.deadUp++; else book.deadDown++;
+            compactIfNeeded(book);
+        } finally {
+            book.lock.unlock();
+        }
+    }
+
+    // Pops every alert the price has crossed; fired alerts are disarmed
+    public List<Fired> onTick(String symbol, double price) {
+        Book book = books.get(symbol.toUpperCase());
+        if (book == null) return List.of();
+
+        List<Fired> fired = null;
+        book.lock.lock();
+        try {
+            Armed head;
+            while ((head = book.up.peek()) != null && (head.cancelled || head.trigger <= price)) {
+                book.up.poll();
+                if (head.cancelled) { book.deadUp--; continue; }
+                head.fired = true;
+                if (fired == null) fired = new ArrayList<>();
+                fired.add(new Fired(head.id, head.userId, symbol, head.upward, head.trigger));
+                armedById.remove(head.id);
+            }
+            while ((head = book.down.peek()) != null && (head.cancelled || head.trigger >= price)) {
+                book.down.poll();
+                if (head.cancelled) { book.deadDown--; continue; }
+                head.fired = true;
+                if (fired == null) fired = new ArrayList<>();
+                fired.add(new Fired(head.id, head.userId, symbol, head.upward, head.trigger));
+                armedById.remove(head.id);
+            }
+        } finally {
+            book.lock.unlock();
+        }
+        return fired == null ? List.of() : fired;
+    }
+
+    // Puts back an alert that fired but could not be recorded, so the next tick tries again
+    public void rearm(Fired f) {
+        Book book = books.get(f.symbol().toUpperCase());
+        if (book == null) return;
+        arm(f.alertId(), f.userId(), book.type, f.symbol(), f.upward(), f.triggerPrice());
+    }
+
+    // Symbols with at least one armed alert, split the way the price refresher quotes them
+    public void collectSymbols(Set<String> stocks, Set<String> crypto) {
+        books.forEach((symbol, book) -> {
+            if (book.live() <= 0) return;
+            if (book.type == Asset.AssetType.crypto) crypto.add(symbol); else stocks.add(symbol);
+        });
+    }
+
+    public int armedCount() {
+        return armedById.size();
+    }
+
+    public void clear() {
+        books.clear();
+        armedById.clear();
+    }
+
+    private void compactIfNeeded(Book book) {
+        if (book.deadUp > COMPACT_MIN_SIZE && book.deadUp * 2 > book.up.size()) {
+            PriorityQueue<Armed> rebuilt = new PriorityQueue<>(book.up.comparator());
+            for (Armed a : book.up) if (!a.cancelled) rebuilt.add(a);
+            book.up = rebuilt;
+            book.deadUp = 0;
+        }
+        if (book.deadDown > COMPACT_MIN_SIZE && book.deadDown * 2 > book.down.size()) {
+            PriorityQueue<Armed> rebuilt = new PriorityQueue<>(book.down.comparator());
+            for (Armed a : book.down) if (!a.cancelled) rebuilt.add(a);
+            book.down = rebuilt;
+            book.deadDown = 0;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.fintech.service;
+
+import com.fintech.dto.ArmedAlertRow;
+import com.fintech.entity.Asset;
+import com.fintech.entity.PriceAlert;
+import com.fintech.entity.User;
+import com.fintech.entity.Watchlist;
+import com.fintech.repository.AssetRepository;
+import com.fintech.repository.PriceAlertRepository;
+import com.fintech.repository.WatchlistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Price alerts: persisted in {@code price_alerts}, armed in a {@link PriceAlertEngine} and
+ * evaluated against every refresh published by {@link PriceSnapshotService}.
+ */
+@Service
+public class PriceAlertService implements PriceTickListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceAlertService.class);
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final PriceAlertRepository alertRepository;
+    private final AssetRepository assetRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final PriceSnapshotService priceSnapshotService;
+    private final AssetService assetService;
+    private final AlertStreamService alertStreamService;
+    private final PriceAlertEngine engine = new PriceAlertEngine();
+
+    @Value("${alerts.max-active-per-user:200}")
+    private int maxActivePerUser;
+
+    public PriceAlertService(PriceAlertRepository alertRepository,
+                             AssetRepository assetRepository,
+                             WatchlistRepository watchlistRepository,
+                             PriceSnapshotService priceSnapshotService,
+                             AssetService assetService,
+                             AlertStreamService alertStreamService) {
+        this.alertRepository = alertRepository;
+        this.assetRepository = assetRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.priceSnapshotService = priceSnapshotService;
+        this.assetService = assetService;
+        this.alertStreamService = alertStreamService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveAlerts() {
+        engine.clear();
+        List<ArmedAlertRow> rows = alertRepository.findArmed();
+        for (ArmedAlertRow r : rows) {
+            engine.arm(r.id(), r.userId(), r.assetType(), r.symbol(), r.condition().isUpward(), r.triggerPrice().doubleValue());
+        }
+        logger.info("Armed {} active price alerts", rows.size());
+    }
+
+    // ---------------------- CRUD ----------------------
+
+    /**
+     * Creates an alert on a symbol given directly or through one of the user's asset or
+     * watchlist entries. Percent alerts are pinned to the current price at creation.
+     */
+    public PriceAlert create(User user, Map<String, Object> request) {
+        if (alertRepository.countByUserAndStatus(user, PriceAlert.Status.ACTIVE) >= maxActivePerUser) {
+            throw new IllegalArgumentException("Active alert limit reached (" + maxActivePerUser + ")");
+        }
+
+        PriceAlert alert = new PriceAlert();
+        alert.setUser(user);
+        resolveTarget(user, request, alert);
+
+        Object condition = request.get("condition");
+        Object value = request.get("value");
+        if (condition == null || value == null) {
+            throw new IllegalArgumentException("condition and value are required");
+        }
+        alert.setCondition(PriceAlert.Condition.valueOf(condition.toString().toUpperCase()));
+        alert.setValue(new BigDecimal(value.toString()));
+        if (alert.getValue().signum() <= 0) {
+            throw new IllegalArgumentException("value must be positive");
+        }
+
+        if (alert.getCondition().isPercent()) {
+            BigDecimal reference = currentPrice(alert.getAssetType(), alert.getSymbol());
+            if (reference == null) {
+                throw new IllegalArgumentException("No current price for " + alert.getSymbol() + "; cannot create a percent alert");
+            }
+            BigDecimal factor = alert.getValue().divide(HUNDRED, 8, RoundingMode.HALF_UP);
+            BigDecimal multiplier = alert.getCondition() == PriceAlert.Condition.PCT_UP
+                    ? BigDecimal.ONE.add(factor)
+                    : BigDecimal.ONE.subtract(factor);
+            if (multiplier.signum() <= 0) {
+                throw new IllegalArgumentException("A percent drop must be under 100");
+            }
+            alert.setReferencePrice(reference);
+            alert.setTriggerPrice(reference.multiply(multiplier).setScale(8, RoundingMode.HALF_UP));
+        } else {
+            alert.setTriggerPrice(alert.getValue());
+        }
+
+        PriceAlert saved = alertRepository.save(alert);
+        engine.arm(saved.getId(), user.getId(), saved.getAssetType(), saved.getSymbol(),
+                saved.getCondition().isUpward(), saved.getTriggerPrice().doubleValue());
+        return saved;
+    }
+
+    public List<PriceAlert> list(User user, PriceAlert.Status status) {
+        return status == null
+                ? alertRepository.findByUserOrderByCreatedAtDesc(user)
+                : alertRepository.findByUserAndStatusOrderByCreatedAtDesc(user, status);
+    }
+
+    // False when the alert does not exist, is not the user's, or is no longer active
+    public boolean cancel(Long id, User user) {
+        if (alertRepository.cancel(id, user) == 0) return false;
+        engine.cancel(id);
+        return true;
+    }
+
+    public Map<String, Object> engineStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("armedAlerts", engine.armedCount());
+        status.put("openStreams", alertStreamService.openStreams());
+        status.put("lastPriceRefresh", priceSnapshotService.getLastRefreshedAt());
+        return status;
+    }
+
+    // ---------------------- Evaluation ----------------------
+
+    @Override
+    public void onPriceTicks(Map<String, BigDecimal> prices, Instant at) {
+        Map<Long, List<Map<String, Object>>> byUser = new HashMap<>();
+        int firedCount = 0;
+
+        for (Map.Entry<String, BigDecimal> tick : prices.entrySet()) {
+            List<PriceAlertEngine.Fired> fired = engine.onTick(tick.getKey(), tick.getValue().doubleValue());
+            if (fired.isEmpty()) continue;
+
+            // One symbol failing to record must not drop its alerts or the rest of the batch
+            List<PriceAlertEngine.Fired> recorded;
+            try {
+                recorded = recordTriggered(fired, tick.getValue(), at);
+            } catch (RuntimeException e) {
+                logger.warn("Could not record {} fired alerts on {}, re-arming: {}", fired.size(), tick.getKey(), e.getMessage());
+                fired.forEach(engine::rearm);
+                continue;
+            }
+            firedCount += recorded.size();
+
+            for (PriceAlertEngine.Fired f : recorded) {
+                Map<String, Object> event = new HashMap<>();
+                event.put("alertId", f.alertId());
+                event.put("symbol", f.symbol());
+                event.put("triggerPrice", f.triggerPrice());
+                event.put("price", tick.getValue());
+                event.put("triggeredAt", at);
+                byUser.computeIfAbsent(f.userId(), k -> new ArrayList<>()).add(event);
+            }
+        }
+
+        if (firedCount > 0) {
+            logger.info("{} price alerts fired for {} users", firedCount, byUser.size());
+            byUser.forEach(alertStreamService::publish);
+        }
+    }
+
+    @Override
+    public void collectSymbols(Set<String> stocks, Set<String> crypto) {
+        engine.collectSymbols(stocks, crypto);
+    }
+
+    // The fired alerts whose row this tick moved to TRIGGERED; a cancel that raced the tick keeps its row
+    private List<PriceAlertEngine.Fired> recordTriggered(List<PriceAlertEngine.Fired> fired, BigDecimal price, Instant at) {
+        List<Long> ids = new ArrayList<>(fired.size());
+        for (PriceAlertEngine.Fired f : fired) ids.add(f.alertId());
+        int updated = alertRepository.markTriggered(ids, price, at);
+        if (updated == fired.size()) return fired;
+        if (updated == 0) return List.of();
+
+        List<PriceAlertEngine.Fired> recorded = new ArrayList<>(updated);
+        try {
+            Set<Long> triggered = new HashSet<>(alertRepository.findTriggeredIds(ids));
+            for (PriceAlertEngine.Fired f : fired) {
+                if (triggered.contains(f.alertId())) recorded.add(f);
+            }
+        } catch (RuntimeException e) {
+            // The rows are already updated; re-arming would fire them twice, so skip the notifications
+            logger.warn("Could not tell which of {} fired alerts were recorded: {}", fired.size(), e.getMessage());
+        }
+        return recorded;
+    }
+
+    // ---------------------- Helpers ----------------------
+
+    private void resolveTarget(User user, Map<String, Object> request, PriceAlert alert) {
+        if (request.get("assetId") != null) {
+            Asset asset = assetRepository.findByIdAndUser(Long.valueOf(request.get("assetId").toString()), user)
+                    .orElseThrow(() -> new IllegalArgumentException("Asset not found"));
+            alert.setAssetType(asset.getType());
+            alert.setSymbol(asset.getSymbol().toUpperCase());
+        } else if (request.get("watchlistId") != null) {
+            Watchlist item = watchlistRepository.findByIdAndUser(Long.valueOf(request.get("watchlistId").toString()), user)
+                    .orElseThrow(() -> new IllegalArgumentException("Watchlist item not found"));
+            alert.setAssetType(item.getType());
+            alert.setSymbol(item.getSymbol().toUpperCase());
+        } else if (request.get("symbol") != null && request.get("type") != null) {
+            alert.setAssetType(Asset.AssetType.valueOf(request.get("type").toString()));
+            alert.setSymbol(request.get("symbol").toString().trim().toUpperCase());
+        } else {
+            throw new IllegalArgumentException("Provide assetId, watchlistId, or symbol and type");
+        }
+    }
+
+    private BigDecimal currentPrice(Asset.AssetType type, String symbol) {
+        Optional<BigDecimal> snap = priceSnapshotService.latestPrice(symbol);
+        if (snap.isPresent()) return snap.get();
+        Map<String, BigDecimal> quote = type == Asset.AssetType.crypto
+                ? assetService.getBulkCryptoQuotes(List.of(symbol))
+                : assetService.getBulkQuotes(List.of(symbol));
+        return quote.get(symbol.toUpperCase());
+    }
+}
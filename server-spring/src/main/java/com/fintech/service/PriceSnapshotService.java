@@ -0,0 +1,132 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+import com.fintech.repository.AssetRepository;
+import com.fintech.repository.WatchlistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared price refresher. Every symbol that is held, watched or has an alert is quoted in
+ * bulk on a fixed delay; the results are kept as the latest known price and published to
+ * every {@link PriceTickListener}.
+ */
+@Service
+public class PriceSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceSnapshotService.class);
+
+    // Exchange listings, whose quote currency varies; mutual fund NAVs are always INR
+    private static final List<Asset.AssetType> LISTED_TYPES = List.of(Asset.AssetType.stock);
+    private static final List<Asset.AssetType> NAV_TYPES = List.of(Asset.AssetType.mutual);
+    private static final List<Asset.AssetType> CRYPTO_TYPES = List.of(Asset.AssetType.crypto);
+
+    private final AssetService assetService;
+    private final FxRateService fxRateService;
+    private final AssetRepository assetRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final ObjectProvider<PriceTickListener> listeners;
+    private final int batchSize;
+    private final int currencyLookups;
+
+    private final ConcurrentHashMap<String, PricePoint> prices = new ConcurrentHashMap<>();
+    private volatile Instant lastRefreshedAt;
+
+    public record PricePoint(BigDecimal price, Instant at) {}
+
+    public PriceSnapshotService(AssetService assetService,
+                                FxRateService fxRateService,
+                                AssetRepository assetRepository,
+                                WatchlistRepository watchlistRepository,
+                                ObjectProvider<PriceTickListener> listeners,
+                                @Value("${prices.batch-size:50}") int batchSize,
+                                @Value("${prices.currency-lookups-per-refresh:20}") int currencyLookups) {
+        this.assetService = assetService;
+        this.fxRateService = fxRateService;
+        this.assetRepository = assetRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.listeners = listeners;
+        this.batchSize = Math.max(1, batchSize);
+        this.currencyLookups = Math.max(0, currencyLookups);
+    }
+
+    @Scheduled(initialDelayString = "${prices.initial-delay-ms:15000}", fixedDelayString = "${prices.refresh-interval-ms:60000}")
+    public void refresh() {
+        Set<String> listings = new TreeSet<>(assetRepository.findDistinctSymbolsByTypeIn(LISTED_TYPES));
+        listings.addAll(watchlistRepository.findDistinctSymbolsByTypeIn(LISTED_TYPES));
+        Set<String> stocks = new TreeSet<>(listings);
+        stocks.addAll(assetRepository.findDistinctSymbolsByTypeIn(NAV_TYPES));
+        stocks.addAll(watchlistRepository.findDistinctSymbolsByTypeIn(NAV_TYPES));
+        Set<String> crypto = new TreeSet<>(assetRepository.findDistinctSymbolsByTypeIn(CRYPTO_TYPES));
+        crypto.addAll(watchlistRepository.findDistinctSymbolsByTypeIn(CRYPTO_TYPES));
+        listeners.orderedStream().forEach(l -> l.collectSymbols(stocks, crypto));
+
+        Map<String, BigDecimal> fetched = new HashMap<>();
+        for (List<String> chunk : chunks(stocks)) fetched.putAll(assetService.getBulkQuotes(chunk));
+        for (List<String> chunk : chunks(crypto)) fetched.putAll(assetService.getBulkCryptoQuotes(chunk));
+
+        // The bulk quotes recorded every currency they carried; look up the listings still unknown
+        // (refused by the quote endpoint, or only in a report such as a sold position's gains)
+        Set<String> currencyPending = new TreeSet<>(listings);
+        currencyPending.addAll(fxRateService.unresolvedSymbols());
+        assetService.resolveQuoteCurrencies(currencyPending, currencyLookups);
+
+        if (fetched.isEmpty()) {
+            if (!stocks.isEmpty() || !crypto.isEmpty()) logger.warn("Price refresh returned no quotes for {} symbols", stocks.size() + crypto.size());
+            return;
+        }
+
+        Instant now = Instant.now();
+        fetched.forEach((symbol, price) -> prices.put(symbol, new PricePoint(price, now)));
+        lastRefreshedAt = now;
+        logger.debug("Price refresh: {}/{} symbols quoted", fetched.size(), stocks.size() + crypto.size());
+
+        Map<String, BigDecimal> ticks = Collections.unmodifiableMap(fetched);
+        listeners.orderedStream().forEach(l -> {
+            try {
+                l.onPriceTicks(ticks, now);
+            } catch (Exception e) {
+                logger.error("Price tick listener {} failed: {}", l.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        });
+    }
+
+    public Optional<BigDecimal> latestPrice(String symbol) {
+        if (symbol == null) return Optional.empty();
+        PricePoint p = prices.get(symbol.toUpperCase());
+        return p == null ? Optional.empty() : Optional.of(p.price());
+    }
+
+    // Only symbols with a known price are present in the result
+    public Map<String, BigDecimal> latestPrices(Collection<String> symbols) {
+        Map<String, BigDecimal> map = new HashMap<>();
+        for (String s : symbols) {
+            if (s == null) continue;
+            PricePoint p = prices.get(s.toUpperCase());
+            if (p != null) map.put(s.toUpperCase(), p.price());
+        }
+        return map;
+    }
+
+    public Instant getLastRefreshedAt() {
+        return lastRefreshedAt;
+    }
+
+    private List<List<String>> chunks(Set<String> symbols) {
+        List<String> all = new ArrayList<>(symbols);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += batchSize) {
+            chunks.add(all.subList(i, Math.min(i + batchSize, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,18 @@
+package com.fintech.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receives the prices published by {@link PriceSnapshotService} after each refresh.
+ */
+public interface PriceTickListener {
+
+    // Upper-cased symbol (or CoinGecko id for crypto) -> latest price
+    void onPriceTicks(Map<String, BigDecimal> prices, Instant at);
+
+    // Extra symbols the listener needs priced beyond holdings and watchlists
+    default void collectSymbols(Set<String> stocks, Set<String> crypto) {}
+}
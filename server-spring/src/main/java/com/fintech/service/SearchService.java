@@ -6,6 +6,7 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.metrics.UpstreamMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ public class SearchService {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UpstreamMetrics upstreamMetrics;
 
     @Value("${nse.base}")
     private String nseBaseUrl;
@@ -41,7 +43,9 @@ public class SearchService {
     @Value("${yahoo.quote-base:https://query1.finance.yahoo.com}")
     private String yahooQuoteBase;
 
-    public SearchService(RestTemplateBuilder builder, @Value("${coingecko.api-key:}") String coingeckoApiKey) {
+    public SearchService(RestTemplateBuilder builder, @Value("${coingecko.api-key:}") String coingeckoApiKey,
+                         UpstreamMetrics upstreamMetrics) {
+        this.upstreamMetrics = upstreamMetrics;
         this.restTemplate = builder
             .interceptors((request, body, execution) -> {
                 request.getHeaders().set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
@@ -71,10 +75,11 @@ public class SearchService {
         }
         try {
             String url = buildCoinGeckoSearchUrl(query);
-            String response = restTemplate.getForObject(url, String.class);
-            if (isValidResponse(response)) {
-                return extractCryptoResults(response);
-            }
+            List<Map<String, Object>> results = upstreamMetrics.observe("coingecko", "search", () -> {
+                String response = restTemplate.getForObject(url, String.class);
+                return isValidResponse(response) ? extractCryptoResults(response) : null;
+            });
+            if (results != null) return results;
         } catch (Exception e) {
             logger.error("Crypto search failed for query '{}': {}", query, e.getMessage());
         }
@@ -94,8 +99,10 @@ public class SearchService {
         if (isInvalidQuery(query)) return results;
         try {
             String url = buildNseSearchUrl(query);
-            String response = restTemplate.getForObject(url, String.class);
-            if (isValidResponse(response)) results = extractNseResults(response);
+            results = upstreamMetrics.observe("nse", "search", () -> {
+                String response = restTemplate.getForObject(url, String.class);
+                return isValidResponse(response) ? extractNseResults(response) : new ArrayList<>();
+            });
             if (!results.isEmpty()) {
                 logger.info("NSE search returned {} results for query '{}'", results.size(), query);
                 return deduplicateBySymbol(results);
@@ -117,7 +124,8 @@ public class SearchService {
         if (isInvalidQuery(query)) return results;
         try {
             String url = buildAlphaVantageSearchUrl(query);
-            String response = restTemplate.getForObject(url, String.class);
+            String response = upstreamMetrics.observe("alphavantage", "search",
+                    () -> restTemplate.getForObject(java.net.URI.create(url), String.class), UpstreamMetrics::classifyAlphaVantage);
             if (isValidResponse(response)) {
                 JsonNode root = objectMapper.readTree(response);
                 if (root.has("bestMatches") && root.get("bestMatches").isArray()) {
@@ -139,8 +147,10 @@ public class SearchService {
         if (isInvalidQuery(query)) return results;
         try {
             String url = buildYahooSearchUrl(query);
-            String response = restTemplate.getForObject(url, String.class);
-            if (isValidResponse(response)) results = extractYahooResults(response);
+            results = upstreamMetrics.observe("yahoo", "search", () -> {
+                String response = restTemplate.getForObject(java.net.URI.create(url), String.class);
+                return isValidResponse(response) ? extractYahooResults(response) : new ArrayList<>();
+            });
             if (!results.isEmpty()) {
                 enrichWithYahooPrices(results);
                 logger.info("Yahoo search returned {} results for query '{}'", results.size(), query);
@@ -158,7 +168,7 @@ public class SearchService {
             List<Map<String, Object>> limitedResults = results.subList(0, limit);
             String symbols = buildSymbolList(limitedResults);
             String url = buildYahooQuoteUrl(symbols);
-            String response = restTemplate.getForObject(url, String.class);
+            String response = upstreamMetrics.observe("yahoo", "quote", () -> restTemplate.getForObject(java.net.URI.create(url), String.class));
             if (isValidResponse(response)) applyPricesToResults(response, results);
         } catch (Exception e) {
             logger.debug("Failed to enrich prices from Yahoo quotes: {}", e.getMessage());
@@ -253,6 +263,8 @@ public class SearchService {
     private boolean isValidResponse(String response) {
         return response != null && !response.isEmpty();
     }
+    // Builders that URL-encode their parameters are sent as java.net.URI; passed as a String,
+    // RestTemplate would treat them as templates and encode them a second time
     private String buildNseSearchUrl(String query) {
         return nseBaseUrl + "/api/search/autocomplete?q=" + query;
     }
@@ -283,9 +295,11 @@ public class SearchService {
 
     // ---------------------- Fallbacks ----------------------
     private List<Map<String, Object>> getFallbackStocks(String query) {
+        upstreamMetrics.fallback("stock-search");
         return filterFallbacks(FALLBACK_STOCKS, query.toUpperCase());
     }
     private List<Map<String, Object>> getFallbackCrypto(String query) {
+        upstreamMetrics.fallback("crypto-search");
         return filterFallbacks(FALLBACK_CRYPTO, query.toLowerCase());
     }
     private List<Map<String, Object>> getFallbackMutualFunds(String query) {
@@ -1,9 +1,10 @@
 package com.fintech.service;
 
 import com.fintech.entity.User;
+import com.fintech.repository.UserCredentials;
 import com.fintech.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -16,12 +17,12 @@ public class UserService {
     private static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[^A-Za-z0-9\\s]).{12,}$");
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     public void validatePasswordPolicy(String password) {
@@ -43,17 +44,23 @@ public class UserService {
     public User registerUser(String email, String password) {
         validatePasswordPolicy(password);
 
-        if (userRepository.findByEmail(email).isPresent()) {
+        // Cheap indexed check first so duplicate sign-ups don't pay for a BCrypt hash
+        if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email already registered");
         }
 
-        String hashedPassword = passwordEncoder.encode(password);
+        String hashedPassword = passwordHashingService.encode(password);
 
         User user = new User();
         user.setEmail(email);
         user.setPasswordHash(hashedPassword);
 
-        return userRepository.save(user);
+        // The unique constraint on email settles concurrent sign-ups for the same address
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Email already registered");
+        }
     }
 
     // ---------------------- Find User by Email ----------------------
@@ -61,9 +68,30 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    public Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return userRepository.findCredentialsByEmail(email);
+    }
+
+    // Builds the user for the token/response after a successful login; only now is the avatar read
+    public User toAuthenticatedUser(UserCredentials credentials) {
+        User user = new User();
+        user.setId(credentials.getId());
+        user.setEmail(credentials.getEmail());
+        user.setName(credentials.getName());
+        user.setAvatarUrl(userRepository.findAvatarUrlById(credentials.getId()).orElse(null));
+        return user;
+    }
+
     // ---------------------- Validate Password ----------------------
     public boolean validatePassword(String rawPassword, String storedHash) {
-        return passwordEncoder.matches(rawPassword, storedHash);
+        return passwordHashingService.matches(rawPassword, storedHash);
+    }
+
+    // Re-hash with the current auth.bcrypt.strength after a successful login, off the request path
+    public void upgradePasswordHashIfNeeded(Long userId, String rawPassword, String storedHash) {
+        if (userId == null || !passwordHashingService.needsRehash(storedHash)) return;
+        passwordHashingService.rehashInBackground(rawPassword,
+                newHash -> userRepository.updatePasswordHash(userId, storedHash, newHash));
     }
 
     // ---------------------- Password Reset ----------------------
@@ -95,7 +123,7 @@ public class UserService {
         User user = userOpt.get();
         if (user.getPasswordResetExpiry() == null || user.getPasswordResetExpiry().isBefore(java.time.LocalDateTime.now())) return false;
 
-        String hashed = passwordEncoder.encode(newPassword);
+        String hashed = passwordHashingService.encode(newPassword);
         user.setPasswordHash(hashed);
         user.setPasswordResetToken(null);
         user.setPasswordResetExpiry(null);
@@ -5,8 +5,9 @@ import com.fintech.entity.Watchlist;
 import com.fintech.repository.WatchlistRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 
 @Service
 public class WatchlistService {
@@ -28,4 +29,34 @@ public class WatchlistService {
     public void delete(Long id) {
         watchlistRepository.deleteById(id);
     }
+
+    // Delete an item only if it belongs to the user; false when nothing matched
+    public boolean deleteForUser(Long id, User user) {
+        return watchlistRepository.deleteByIdAndUser(id, user) > 0;
+    }
+
+    public boolean contains(User user, String symbol) {
+        return watchlistRepository.existsByUserAndSymbol(user, symbol);
+    }
+
+    // Adds the items not already on the watchlist; returns the symbols that were added
+    @Transactional
+    public List<String> addAll(User user, List<Watchlist> items) {
+        // Keyed case-insensitively, like the unique key under MySQL's default collation
+        Map<String, Watchlist> bySymbol = new LinkedHashMap<>();
+        for (Watchlist item : items) bySymbol.putIfAbsent(item.getSymbol().toUpperCase(), item);
+        if (bySymbol.isEmpty()) return List.of();
+
+        List<String> requested = bySymbol.values().stream().map(Watchlist::getSymbol).toList();
+        for (String s : watchlistRepository.findExistingSymbols(user, requested)) bySymbol.remove(s.toUpperCase());
+
+        // A concurrent add can still win the unique key after the check; only report rows this call wrote
+        return watchlistRepository.insertIgnoreAll(user.getId(), bySymbol.values()).stream()
+                .map(Watchlist::getSymbol).toList();
+    }
+
+    public int removeAll(User user, Collection<String> symbols) {
+        if (symbols.isEmpty()) return 0;
+        return watchlistRepository.deleteByUserAndSymbolIn(user, symbols);
+    }
 }
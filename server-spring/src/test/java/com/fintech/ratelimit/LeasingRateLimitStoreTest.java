@@ -0,0 +1,151 @@
+package com.fintech.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Leasing store against the embedded backend: separate store instances stand in for nodes
+ * sharing one counter. The window is long enough that every test runs inside a single one.
+ */
+class LeasingRateLimitStoreTest {
+
+    private static final long WINDOW = Long.MAX_VALUE / 4;
+
+    // Counts round trips so the tests can tell lease refills from local hits
+    private static final class CountingBackend implements SharedCounterBackend {
+        final EmbeddedSharedCounterBackend delegate = new EmbeddedSharedCounterBackend();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public long addAndGet(String key, long delta, long expiresAtMillis) {
+            calls.incrementAndGet();
+            return delegate.addAndGet(key, delta, expiresAtMillis);
+        }
+
+        @Override
+        public void purgeExpired(long nowMillis) {
+            delegate.purgeExpired(nowMillis);
+        }
+    }
+
+    @Test
+    void servesRequestsFromTheLeaseAndRefillsWhenItRunsOut() {
+        CountingBackend backend = new CountingBackend();
+        LeasingRateLimitStore node = new LeasingRateLimitStore(backend, 10);
+
+        for (int i = 0; i < 10; i++) assertTrue(node.tryAcquire("ip:1", 100, WINDOW));
+        assertEquals(1, backend.calls.get());
+
+        assertTrue(node.tryAcquire("ip:1", 100, WINDOW));
+        assertEquals(2, backend.calls.get());
+    }
+
+    @Test
+    void leaseIsCappedAtAQuarterOfASmallLimit() {
+        CountingBackend backend = new CountingBackend();
+        LeasingRateLimitStore node = new LeasingRateLimitStore(backend, 10);
+
+        for (int i = 0; i < 8; i++) assertTrue(node.tryAcquire("auth:1", 8, WINDOW));
+        assertFalse(node.tryAcquire("auth:1", 8, WINDOW));
+        assertEquals(5, backend.calls.get()); // four leases of two, then the one that found the budget spent
+    }
+
+    @Test
+    void nodesShareOneBudgetAndStopAskingOnceItIsSpent() {
+        CountingBackend backend = new CountingBackend();
+        LeasingRateLimitStore a = new LeasingRateLimitStore(backend, 5);
+        LeasingRateLimitStore b = new LeasingRateLimitStore(backend, 5);
+
+        int granted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (a.tryAcquire("ip:1", 20, WINDOW)) granted++;
+            if (b.tryAcquire("ip:1", 20, WINDOW)) granted++;
+        }
+        assertEquals(20, granted);
+
+        int callsWhenExhausted = backend.calls.get();
+        assertFalse(a.tryAcquire("ip:1", 20, WINDOW));
+        assertFalse(b.tryAcquire("ip:1", 20, WINDOW));
+        assertEquals(callsWhenExhausted, backend.calls.get());
+
+        // Other buckets are unaffected
+        assertTrue(a.tryAcquire("ip:2", 20, WINDOW));
+    }
+
+    @Test
+    void concurrentNodesNeverGrantMoreThanTheLimit() throws Exception {
+        EmbeddedSharedCounterBackend backend = new EmbeddedSharedCounterBackend();
+        List<LeasingRateLimitStore> nodes = List.of(
+                new LeasingRateLimitStore(backend, 7),
+                new LeasingRateLimitStore(backend, 7),
+                new LeasingRateLimitStore(backend, 7));
+        int limit = 500;
+
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 12; t++) {
+                LeasingRateLimitStore node = nodes.get(t % nodes.size());
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < 200; i++) {
+                        if (node.tryAcquire("ip:1", limit, WINDOW)) granted++;
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+
+            int granted = 0;
+            for (Future<Integer> r : results) granted += r.get(30, TimeUnit.SECONDS);
+            assertEquals(limit, granted);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void fallsBackToPerNodeLimitingWhenTheBackendFails() {
+        SharedCounterBackend down = new SharedCounterBackend() {
+            @Override
+            public long addAndGet(String key, long delta, long expiresAtMillis) {
+                throw new IllegalStateException("connection refused");
+            }
+
+            @Override
+            public void purgeExpired(long nowMillis) {
+                throw new IllegalStateException("connection refused");
+            }
+        };
+        LeasingRateLimitStore node = new LeasingRateLimitStore(down, 10);
+
+        for (int i = 0; i < 3; i++) assertTrue(node.tryAcquire("ip:1", 3, 60_000));
+        assertFalse(node.tryAcquire("ip:1", 3, 60_000));
+        node.evictExpired(System.currentTimeMillis(), 60_000);
+    }
+
+    @Test
+    void expiredCountersArePurged() {
+        EmbeddedSharedCounterBackend backend = new EmbeddedSharedCounterBackend();
+        assertEquals(5, backend.addAndGet("k", 5, 1_000));
+        backend.purgeExpired(999);
+        assertEquals(6, backend.addAndGet("k", 1, 1_000));
+
+        backend.purgeExpired(1_001);
+        assertEquals(1, backend.addAndGet("k", 1, 2_000));
+    }
+}
@@ -0,0 +1,165 @@
+package com.fintech.service;
+
+import com.fintech.config.IoThreadFactory;
+import com.fintech.dto.LotGainRow;
+import com.fintech.dto.OpenPosition;
+import com.fintech.entity.Asset;
+import com.fintech.entity.User;
+import com.fintech.repository.AssetRepository;
+import com.fintech.repository.CapitalGainsStatementRepository;
+import com.fintech.repository.JobCheckpointRepository;
+import com.fintech.repository.RealizedGainRepository;
+import com.fintech.repository.TaxLotRepository;
+import com.fintech.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Holdings written without a trade (import, manual edit) against the statement's unrealized
+ * figures. The repositories are in-memory stand-ins: assets as upserted, plus lots the ledger
+ * left behind, joined the way {@code TaxLotRepository.scanOpenPositions} joins them.
+ */
+class CapitalGainsReportServiceTest {
+
+    private static final CapitalGains.FinancialYear FY = CapitalGains.FinancialYear.of(LocalDate.now());
+
+    private final User user = new User();
+    private final Map<String, Asset> assets = new LinkedHashMap<>();
+    private final Map<String, List<LotGainRow>> lots = new LinkedHashMap<>();
+
+    private PortfolioImportService importService;
+    private CapitalGainsReportService reportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        user.setId(7L);
+
+        AssetRepository assetRepository = mock(AssetRepository.class);
+        when(assetRepository.findByUser(user)).thenAnswer(inv -> new ArrayList<>(assets.values()));
+        doAnswer(inv -> {
+            for (Asset a : (Collection<Asset>) inv.getArgument(1)) assets.put(a.getSymbol(), a);
+            return assets.size();
+        }).when(assetRepository).upsertAll(anyLong(), any());
+        importService = new PortfolioImportService(assetRepository, mock(AssetService.class),
+                mock(LedgerService.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(importService, "maxRows", 100);
+
+        TaxLotRepository taxLotRepository = mock(TaxLotRepository.class);
+        doAnswer(inv -> {
+            Consumer<OpenPosition> sink = inv.getArgument(2);
+            for (Map.Entry<String, List<LotGainRow>> e : lots.entrySet()) {
+                Asset a = assets.get(e.getKey());
+                sink.accept(new OpenPosition(user.getId(), Asset.AssetType.stock, e.getKey(),
+                        a != null ? a.getQuantity().doubleValue() : 0, a != null ? a.getAvgBuyPrice().doubleValue() : 0,
+                        null, e.getValue()));
+            }
+            for (Asset a : assets.values()) {
+                if (lots.containsKey(a.getSymbol())) continue;
+                sink.accept(new OpenPosition(user.getId(), a.getType(), a.getSymbol(), a.getQuantity().doubleValue(),
+                        a.getAvgBuyPrice().doubleValue(), null, List.of()));
+            }
+            return null;
+        }).when(taxLotRepository).scanOpenPositions(anyLong(), anyLong(), any());
+
+        PriceSnapshotService prices = mock(PriceSnapshotService.class);
+        when(prices.latestPrice(any())).thenReturn(Optional.of(new BigDecimal("1500")));
+
+        reportService = new CapitalGainsReportService(mock(UserRepository.class), mock(RealizedGainRepository.class),
+                taxLotRepository, mock(CapitalGainsStatementRepository.class), mock(JobCheckpointRepository.class),
+                prices, new FxRateService(), new IoThreadFactory(false), "target/capital-gains-test", 1, 500, 24);
+    }
+
+    @Test
+    void importedHoldingIsMarkedWithoutAnyTrade() throws Exception {
+        importCsv("symbol,quantity,price\nINFY.NS,50,1400\n", PortfolioImportService.Mode.MERGE);
+
+        Map<String, Object> statement = reportService.statementFor(user, FY);
+
+        assertEquals(1, statement.get("unrealizedLots"));
+        assertEquals(5000.0, unrealized(statement, "total")); // 50 * (1500 - 1400)
+        assertEquals(false, statement.get("approximate"));
+    }
+
+    @Test
+    void quantityEditedBelowTheLotsCountsOnlyWhatIsHeld() {
+        holding("INFY.NS", "10", "1000");
+        lot("INFY.NS", LocalDate.of(2020, 1, 1), 100, 1000);
+
+        Map<String, Object> statement = reportService.statementFor(user, FY);
+
+        assertEquals(1, statement.get("unrealizedLots"));
+        assertEquals(5000.0, unrealized(statement, "long")); // 10 * (1500 - 1000), not 100 units
+    }
+
+    @Test
+    void unitsAddedByAMergeImportJoinTheLots() throws Exception {
+        holding("INFY.NS", "100", "1000");
+        lot("INFY.NS", LocalDate.of(2020, 1, 1), 100, 1000);
+
+        importCsv("symbol,quantity,price\nINFY.NS,50,1600\n", PortfolioImportService.Mode.MERGE);
+        Map<String, Object> statement = reportService.statementFor(user, FY);
+
+        assertEquals(2, statement.get("unrealizedLots"));
+        assertEquals(50000.0, unrealized(statement, "long")); // the traded lot: 100 * (1500 - 1000)
+        // the 50 imported units open at the holding's new average, (100 * 1000 + 50 * 1600) / 150 = 1200
+        assertEquals(15000.0, unrealized(statement, "short"));
+    }
+
+    @Test
+    void lotsOfADeletedHoldingAreNotMarked() {
+        lot("INFY.NS", LocalDate.of(2020, 1, 1), 100, 1000);
+
+        Map<String, Object> statement = reportService.statementFor(user, FY);
+
+        assertEquals(0, statement.get("unrealizedLots"));
+        assertEquals(0.0, unrealized(statement, "total"));
+    }
+
+    // ---------------------- Fixtures ----------------------
+
+    private void importCsv(String csv, PortfolioImportService.Mode mode) throws Exception {
+        importService.importCsv(user, new BufferedReader(new StringReader(csv)), mode, Asset.AssetType.stock);
+    }
+
+    private void holding(String symbol, String quantity, String avgBuyPrice) {
+        Asset a = new Asset();
+        a.setUser(user);
+        a.setType(Asset.AssetType.stock);
+        a.setSymbol(symbol);
+        a.setQuantity(new BigDecimal(quantity));
+        a.setAvgBuyPrice(new BigDecimal(avgBuyPrice));
+        assets.put(symbol, a);
+    }
+
+    private void lot(String symbol, LocalDate acquiredOn, double quantity, double unitCost) {
+        lots.computeIfAbsent(symbol, s -> new ArrayList<>()).add(new LotGainRow(user.getId(), Asset.AssetType.stock,
+                symbol, acquiredOn, null, quantity, 0.0, quantity * unitCost));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double unrealized(Map<String, Object> statement, String term) {
+        return ((Number) ((Map<String, Object>) statement.get("unrealized")).get(term)).doubleValue();
+    }
+}
@@ -0,0 +1,236 @@
+package com.fintech.service;
+
+import com.fintech.entity.Asset;
+import com.fintech.entity.AssetTransaction;
+import com.fintech.entity.TaxLot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two buys of 10 units each (100 with a fee of 10, then 120) are the position most tests sell
+ * from: lot 1 costs 101 a unit, lot 2 costs 120, and the average is 110.5.
+ */
+class CostBasisEngineTest {
+
+    @Test
+    void buyFoldsFeesIntoTheLotAndTheAverage() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        TaxLot lot = CostBasisEngine.buy(position, trade("10", "100", "10", "2024-01-10"));
+
+        assertAmount("101", lot.getUnitCost());
+        assertAmount("10", lot.getRemainingQuantity());
+        assertEquals(LocalDate.parse("2024-01-10"), lot.getAcquiredOn());
+        assertAmount("10", position.getQuantity());
+        assertAmount("101", position.getAvgBuyPrice());
+    }
+
+    @Test
+    void fifoPartialSellDrawsTheOldestLotFirst() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+
+        List<CostBasisEngine.Match> matches = CostBasisEngine.sell(position, lots, trade("15", "150", "15", "2025-06-01"), null);
+
+        assertEquals(2, matches.size());
+        assertSame(lots.get(0), matches.get(0).lot());
+        assertAmount("10", matches.get(0).quantity());
+        assertAmount("1010", matches.get(0).costBasis());
+        assertAmount("1490", matches.get(0).proceeds());
+        assertAmount("5", matches.get(1).quantity());
+        assertAmount("600", matches.get(1).costBasis());
+        assertAmount("745", matches.get(1).proceeds());
+
+        assertAmount("0", lots.get(0).getRemainingQuantity());
+        assertAmount("5", lots.get(1).getRemainingQuantity());
+        assertAmount("5", position.getQuantity());
+        assertAmount("120", position.getAvgBuyPrice()); // only lot 2 is left open
+        assertAmount("625", position.getRealizedPnl());
+    }
+
+    @Test
+    void fifoFullSellClosesEveryLot() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+
+        List<CostBasisEngine.Match> matches = CostBasisEngine.sell(position, lots, trade("20", "150", "0", "2025-06-01"), null);
+
+        assertEquals(2, matches.size());
+        assertTrue(lots.stream().noneMatch(TaxLot::isOpen));
+        assertAmount("0", position.getQuantity());
+        assertAmount("790", position.getRealizedPnl()); // 3000 - 1010 - 1200
+    }
+
+    @Test
+    void averageCostsMatchedUnitsAtThePositionAverage() {
+        Asset position = position(Asset.CostBasisMethod.AVERAGE);
+        List<TaxLot> lots = twoLots(position);
+
+        List<CostBasisEngine.Match> matches = CostBasisEngine.sell(position, lots, trade("15", "150", "15", "2025-06-01"), null);
+
+        assertAmount("1105", matches.get(0).costBasis());
+        assertAmount("552.5", matches.get(1).costBasis());
+        assertAmount("0", lots.get(0).getRemainingQuantity()); // lots still drawn down oldest first
+        assertAmount("5", lots.get(1).getRemainingQuantity());
+        assertAmount("110.5", position.getAvgBuyPrice());
+        assertAmount("577.5", position.getRealizedPnl());
+    }
+
+    @Test
+    void averageFullSell() {
+        Asset position = position(Asset.CostBasisMethod.AVERAGE);
+        List<TaxLot> lots = twoLots(position);
+
+        CostBasisEngine.sell(position, lots, trade("20", "100", "0", "2025-06-01"), null);
+
+        assertAmount("0", position.getQuantity());
+        assertAmount("-210", position.getRealizedPnl()); // 2000 - 20 * 110.5
+    }
+
+    @Test
+    void specificLotSellLeavesTheOtherLotsAlone() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+
+        List<CostBasisEngine.Match> matches = CostBasisEngine.sell(position, lots,
+                trade("5", "150", "0", "2025-06-01"), Map.of(2L, new BigDecimal("5")));
+
+        assertEquals(1, matches.size());
+        assertSame(lots.get(1), matches.get(0).lot());
+        assertAmount("150", matches.get(0).gain());
+        assertAmount("10", lots.get(0).getRemainingQuantity());
+        assertAmount("5", lots.get(1).getRemainingQuantity());
+        assertAmount("107.33333333", position.getAvgBuyPrice()); // (1010 + 600) / 15
+    }
+
+    @Test
+    void specificLotsMustBeOpenAndAddUpToTheSell() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+        AssetTransaction sell = trade("5", "150", "0", "2025-06-01");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CostBasisEngine.sell(position, lots, sell, Map.of(3L, new BigDecimal("5"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> CostBasisEngine.sell(position, lots, sell, Map.of(1L, new BigDecimal("4"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> CostBasisEngine.sell(position, lots, trade("11", "150", "0", "2025-06-01"), Map.of(1L, new BigDecimal("11"))));
+        assertAmount("20", position.getQuantity());
+    }
+
+    @Test
+    void cannotSellMoreThanHeld() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CostBasisEngine.sell(position, lots, trade("21", "150", "0", "2025-06-01"), null));
+    }
+
+    @Test
+    void lastSliceTakesTheProceedsRemainder() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TaxLot lot = CostBasisEngine.buy(position, trade("1", "5", "0", "2024-01-0" + (i + 1)));
+            lot.setId(i + 1L);
+            lots.add(lot);
+        }
+
+        List<CostBasisEngine.Match> matches = CostBasisEngine.sell(position, lots, trade("3", "10", "0.01", "2025-06-01"), null);
+
+        assertAmount("9.9967", matches.get(0).proceeds());
+        assertAmount("9.9967", matches.get(1).proceeds());
+        assertAmount("9.9966", matches.get(2).proceeds());
+        BigDecimal total = matches.stream().map(CostBasisEngine.Match::proceeds).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertAmount("29.99", total);
+    }
+
+    @Test
+    void reconcileOpensALotForUnitsTheLotsDoNotCover() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        position.setCreatedAt(LocalDateTime.parse("2023-03-01T10:00:00"));
+        List<TaxLot> lots = twoLots(position);
+        position.setQuantity(new BigDecimal("25"));
+
+        Optional<TaxLot> opening = CostBasisEngine.reconcile(position, lots);
+
+        assertTrue(opening.isPresent());
+        assertAmount("5", opening.get().getRemainingQuantity());
+        assertAmount("110.5", opening.get().getUnitCost());
+        assertEquals(LocalDate.parse("2023-03-01"), opening.get().getAcquiredOn());
+        assertEquals(3, lots.size());
+        assertSame(opening.get(), lots.get(0)); // oldest, so FIFO sells it first
+    }
+
+    @Test
+    void reconcileWritesSurplusOffTheNewestLots() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+        BigDecimal pnl = position.getRealizedPnl();
+        position.setQuantity(new BigDecimal("5"));
+
+        Optional<TaxLot> opening = CostBasisEngine.reconcile(position, lots);
+
+        assertTrue(opening.isEmpty());
+        assertEquals(1, lots.size());
+        assertAmount("5", lots.get(0).getRemainingQuantity());
+        assertEquals(LocalDate.parse("2024-01-10"), lots.get(0).getAcquiredOn());
+        assertEquals(pnl, position.getRealizedPnl()); // a write-off books no gain
+    }
+
+    @Test
+    void reconcileLeavesMatchingLotsUntouched() {
+        Asset position = position(Asset.CostBasisMethod.FIFO);
+        List<TaxLot> lots = twoLots(position);
+
+        assertTrue(CostBasisEngine.reconcile(position, lots).isEmpty());
+        assertEquals(2, lots.size());
+        assertAmount("10", lots.get(1).getRemainingQuantity());
+    }
+
+    // ---------------------- Fixtures ----------------------
+
+    private static Asset position(Asset.CostBasisMethod method) {
+        Asset a = new Asset();
+        a.setType(Asset.AssetType.stock);
+        a.setSymbol("INFY.NS");
+        a.setQuantity(BigDecimal.ZERO);
+        a.setCostBasisMethod(method);
+        return a;
+    }
+
+    // Lot ids 1 and 2, as if persisted, so specific identification can name them
+    private static List<TaxLot> twoLots(Asset position) {
+        List<TaxLot> lots = new ArrayList<>();
+        lots.add(CostBasisEngine.buy(position, trade("10", "100", "10", "2024-01-10")));
+        lots.add(CostBasisEngine.buy(position, trade("10", "120", "0", "2024-08-20")));
+        lots.get(0).setId(1L);
+        lots.get(1).setId(2L);
+        return lots;
+    }
+
+    private static AssetTransaction trade(String quantity, String price, String fees, String date) {
+        AssetTransaction t = new AssetTransaction();
+        t.setQuantity(new BigDecimal(quantity));
+        t.setPrice(new BigDecimal(price));
+        t.setFees(new BigDecimal(fees));
+        t.setTradeDate(LocalDate.parse(date));
+        return t;
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PortfolioImportServiceTest {
+
+    @Test
+    void parsesBrokerFormattedNumbers() {
+        assertEquals(new BigDecimal("1234.5"), PortfolioImportService.parseNumber("Rs. 1234.5", "price", false));
+        assertEquals(new BigDecimal("1234.5"), PortfolioImportService.parseNumber("Rs.1234.5", "price", false));
+        assertEquals(new BigDecimal("1234.50"), PortfolioImportService.parseNumber("1,234.50", "price", false));
+        assertEquals(new BigDecimal("1234.50"), PortfolioImportService.parseNumber("₹1,234.50", "price", false));
+        assertEquals(new BigDecimal("123456.50"), PortfolioImportService.parseNumber("1,23,456.50", "price", false));
+        assertEquals(new BigDecimal("99.95"), PortfolioImportService.parseNumber("INR 99.95", "price", false));
+        assertEquals(new BigDecimal("12"), PortfolioImportService.parseNumber("$12", "price", false));
+        assertEquals(new BigDecimal("0.5"), PortfolioImportService.parseNumber(".5", "quantity", false));
+        assertEquals(new BigDecimal("-3"), PortfolioImportService.parseNumber("-3", "quantity", false));
+    }
+
+    @Test
+    void readsTheCommaAsTheDecimalMarkInSemicolonFiles() {
+        assertEquals(new BigDecimal("12.5"), PortfolioImportService.parseNumber("12,5", "quantity", true));
+        assertEquals(new BigDecimal("1234.56"), PortfolioImportService.parseNumber("1.234,56", "price", true));
+        assertEquals(new BigDecimal("1234567.8"), PortfolioImportService.parseNumber("€ 1.234.567,8", "price", true));
+        assertEquals(new BigDecimal("1234"), PortfolioImportService.parseNumber("1.234", "price", true));
+        assertEquals(new BigDecimal("12.5"), PortfolioImportService.parseNumber("12.5", "price", true));
+    }
+
+    @Test
+    void rejectsAmbiguouslyMixedMarks() {
+        assertThrows(IllegalArgumentException.class, () -> PortfolioImportService.parseNumber("1.234,56", "price", false));
+        assertThrows(IllegalArgumentException.class, () -> PortfolioImportService.parseNumber("1,234.56", "price", true));
+        assertThrows(IllegalArgumentException.class, () -> PortfolioImportService.parseNumber("1,23,45", "price", false));
+        assertThrows(IllegalArgumentException.class, () -> PortfolioImportService.parseNumber("1.2.3", "price", false));
+    }
+
+    @Test
+    void rejectsTextWithoutANumber() {
+        assertThrows(IllegalArgumentException.class, () -> PortfolioImportService.parseNumber("Rs.", "price", false));
+        assertThrows(IllegalArgumentException.class, () -> PortfolioImportService.parseNumber("n/a", "price", false));
+    }
+}